@@ -31,10 +31,12 @@ plugins {
    application
    id("com.github.ben-manes.versions") version "0.54.0"
    id("com.gradleup.shadow") version "9.5.1"
+   id("org.graalvm.buildtools.native") version "0.10.6" apply false
 }
 
 group = "org.fross"
 val javaVersion = 21
+val isWindows = System.getProperty("os.name").lowercase().startsWith("windows")
 
 application {
    mainClass.set("org.fross.cal.Main")
@@ -70,6 +72,17 @@ repositories {
    mavenCentral()
 }
 
+// --------------------------------------------------------------------------------------------------------
+// jmh Source Set: JMH micro-benchmarks live in src/jmh/java and can see the main classes and dependencies
+// --------------------------------------------------------------------------------------------------------
+val jmh: SourceSet by sourceSets.creating {
+   compileClasspath += sourceSets["main"].output
+   runtimeClasspath += sourceSets["main"].output
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 // --------------------------------------------------------------------------------------------------------
 // dependencies list
 // --------------------------------------------------------------------------------------------------------
@@ -86,6 +99,30 @@ dependencies {
    testImplementation("org.junit.jupiter:junit-jupiter-api:6.1.2")
    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:6.1.2")
    testRuntimeOnly("org.junit.platform:junit-platform-launcher:6.1.2")
+
+   // --- JMH Benchmarking
+   "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+   "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// --------------------------------------------------------------------------------------------------------
+// Native Image Profile:  Only applied with -Pnative.  Requires a GraalVM JDK (GRAALVM_HOME or JAVA_HOME)
+//    ./gradlew -Pnative nativeCompile   Builds build/native/nativeCompile/cal
+//    ./gradlew -Pnative nativeTest      Runs the JUnit tests compiled into a native image
+// Reflection and resource configuration is in src/main/resources/META-INF/native-image
+// --------------------------------------------------------------------------------------------------------
+if (project.hasProperty("native")) {
+   apply(plugin = "org.graalvm.buildtools.native")
+
+   configure<org.graalvm.buildtools.gradle.dsl.GraalVMExtension> {
+      toolchainDetection.set(false)
+
+      binaries.named("main") {
+         imageName.set(project.name)
+         mainClass.set("org.fross.cal.Main")
+         buildArgs.addAll("--no-fallback", "--enable-url-protocols=http,https")
+      }
+   }
 }
 
 // --------------------------------------------------------------------------------------------------------
@@ -160,6 +197,114 @@ tasks.named<ShadowJar>("shadowJar") {
    finalizedBy(generateChecksums)
 }
 
+// --------------------------------------------------------------------------------------------------------
+// cdsArchive:  Do a training run of the shadowJar and save the classes it loads in an AppCDS archive
+//              (build/libs/cal.jsa).  The archive only works with the jar in build/libs, because Java 21
+//              records the jar's full path, size, and modification time in it.  install builds its own
+// --------------------------------------------------------------------------------------------------------
+val cdsArchive = tasks.register<JavaExec>("cdsArchive") {
+   group = "build"
+   description = "Creates an AppCDS archive for the shadowJar from a training run"
+
+   val shadowJarTask = tasks.named<ShadowJar>("shadowJar")
+   dependsOn(shadowJarTask)
+
+   // Capture these here so they are available during execution and Gradle won't throw an error
+   val archiveFile = layout.buildDirectory.file("libs/${project.name}.jsa").get().asFile
+   val prefsDir = layout.buildDirectory.dir("cds-prefs").get().asFile
+
+   classpath(shadowJarTask.flatMap { it.archiveFile })
+   mainClass.set("org.fross.cal.Main")
+
+   // Keep the training run's preference writes out of the real user preferences.  Gradle doesn't give the
+   // training run a terminal, so force JLine on to get its classes into the archive as well
+   jvmArgs("-XX:ArchiveClassesAtExit=${archiveFile.absolutePath}", "-Djava.util.prefs.userRoot=${prefsDir.absolutePath}",
+      "-Dcal.terminal=jline")
+
+   // Training run: a full year with holidays from the built-in rules so no network access is needed
+   args("-n", "4", "-d", "--builtin-holidays", "2025")
+
+   outputs.file(archiveFile)
+   outputs.upToDateWhen { false }
+}
+
+// --------------------------------------------------------------------------------------------------------
+// startupBenchmark:  Time cold starts of the shadowJar with and without class data sharing, and of the
+//                    native image if one was built with -Pnative nativeCompile.  The output is discarded, so
+//                    cal skips JLine; a variant that forces the JLine terminal shows what that saves.
+//                    Results are written to build/reports/startup/results.txt.  Use -PstartupRuns=<n> to
+//                    change the count
+// --------------------------------------------------------------------------------------------------------
+tasks.register("startupBenchmark") {
+   group = "benchmark"
+   description = "Measures the startup time and memory of the shadowJar, with and without AppCDS, and the native image"
+   dependsOn(cdsArchive)
+
+   // Capture these here so they are available during execution and Gradle won't throw an error
+   val javaExecutable = javaToolchains.launcherFor(java.toolchain).map { it.executablePath.asFile.absolutePath }
+   val jarFile = tasks.named<ShadowJar>("shadowJar").flatMap { it.archiveFile }
+   val archiveFile = layout.buildDirectory.file("libs/${project.name}.jsa").get().asFile
+   val onWindows = isWindows
+   val nativeFile = layout.buildDirectory.file("native/nativeCompile/${project.name}" + if (onWindows) ".exe" else "").get().asFile
+   val prefsDir = layout.buildDirectory.dir("cds-prefs").get().asFile
+   val resultsFile = layout.buildDirectory.file("reports/startup/results.txt").get().asFile
+   val rssFile = layout.buildDirectory.file("tmp/startupBenchmark/rss.txt").get().asFile
+   val runs = (project.findProperty("startupRuns")?.toString() ?: "20").toInt()
+
+   outputs.file(resultsFile)
+   outputs.upToDateWhen { false }
+
+   doLast {
+      val calArgs = listOf("-n", "4", "-d", "--builtin-holidays", "2025")
+      val javaCommand = listOf(javaExecutable.get(), "--enable-native-access=ALL-UNNAMED", "-Djava.util.prefs.userRoot=${prefsDir.absolutePath}")
+      val jarArgs = listOf("-jar", jarFile.get().asFile.absolutePath) + calArgs
+
+      val variants = linkedMapOf(
+         "No CDS (-Xshare:off)" to javaCommand + "-Xshare:off" + jarArgs,
+         "JDK default CDS" to javaCommand + jarArgs,
+         "JDK default CDS, JLine" to javaCommand + "-Dcal.terminal=jline" + jarArgs,
+         "AppCDS (${archiveFile.name})" to javaCommand + "-XX:SharedArchiveFile=${archiveFile.absolutePath}" + jarArgs
+      )
+      if (nativeFile.exists()) {
+         variants["Native image"] = listOf(nativeFile.absolutePath, "-Djava.util.prefs.userRoot=${prefsDir.absolutePath}") + calArgs
+      }
+
+      // GNU time reports the peak resident set size of the process it runs
+      val gnuTime = File("/usr/bin/time")
+      val measureRSS = !onWindows && gnuTime.canExecute()
+      rssFile.parentFile.mkdirs()
+
+      // Returns the wall clock time of a single run in milliseconds and the peak RSS in KB (or 0)
+      fun timeRun(command: List<String>): Pair<Double, Long> {
+         val fullCommand = if (measureRSS) listOf(gnuTime.path, "-f", "%M", "-o", rssFile.absolutePath) + command else command
+         val startTime = System.nanoTime()
+         val process = ProcessBuilder(fullCommand).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start()
+         if (process.waitFor() != 0) throw GradleException("Startup run failed: ${command.joinToString(" ")}")
+         val millis = (System.nanoTime() - startTime) / 1_000_000.0
+         val rss = if (measureRSS) rssFile.readLines().last().trim().toLongOrNull() ?: 0L else 0L
+         return Pair(millis, rss)
+      }
+
+      val report = StringBuilder()
+      report.appendLine("Startup over $runs runs: cal ${calArgs.joinToString(" ")}")
+      report.appendLine("%-28s %10s %10s %10s %12s".format("Variant", "Mean ms", "Median ms", "Min ms", "Max RSS KB"))
+
+      variants.forEach { (name, command) ->
+         // Warm up the OS file cache so every variant starts on equal footing
+         repeat(2) { timeRun(command) }
+
+         val results = List(runs) { timeRun(command) }
+         val times = results.map { it.first }.sorted()
+         val rss = if (measureRSS) results.maxOf { it.second }.toString() else "n/a"
+         report.appendLine("%-28s %10.1f %10.1f %10.1f %12s".format(name, times.average(), times[times.size / 2], times.first(), rss))
+      }
+
+      resultsFile.parentFile.mkdirs()
+      resultsFile.writeText(report.toString())
+      println("\n" + report)
+   }
+}
+
 // --------------------------------------------------------------------------------------------------------
 // Test Tasks: Execute JUnit Tests
 // --------------------------------------------------------------------------------------------------------
@@ -179,7 +324,56 @@ tasks.test {
 }
 
 // --------------------------------------------------------------------------------------------------------
-// install:  Copies the Shadow Jar file to the C:\Utils directory after building and testing it
+// jmh:  Run the JMH benchmarks and write the results as JSON to build/reports/jmh/results.json
+//       Use -PjmhInclude=<regex> to limit the run (e.g. ./gradlew jmh -PjmhInclude=MonthGrid)
+// --------------------------------------------------------------------------------------------------------
+tasks.register<JavaExec>("jmh") {
+   group = "benchmark"
+   description = "Runs the JMH benchmarks and saves the results in JSON format"
+
+   classpath = jmh.runtimeClasspath
+   mainClass.set("org.openjdk.jmh.Main")
+
+   // Capture these here so they are available during execution and Gradle won't throw an error
+   val resultsFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+   val includeFilter = project.findProperty("jmhInclude")?.toString() ?: ".*"
+
+   args("-rf", "json", "-rff", resultsFile.absolutePath, includeFilter)
+   outputs.file(resultsFile)
+   outputs.upToDateWhen { false }
+
+   doFirst {
+      resultsFile.parentFile.mkdirs()
+   }
+}
+
+// --------------------------------------------------------------------------------------------------------
+// loadTest:  Start the HTTP service (cal --serve) in-process and drive it with many concurrent clients.
+//            Reports p50/p99 latency and requests per second to build/reports/loadtest/results.txt
+//            Use -PloadTestClients=<n>, -PloadTestSeconds=<n>, and -PloadTestUrl=<http://host:port> to
+//            test a server that's already running
+// --------------------------------------------------------------------------------------------------------
+tasks.register<JavaExec>("loadTest") {
+   group = "benchmark"
+   description = "Measures the latency and throughput of the cal HTTP service"
+
+   classpath = jmh.runtimeClasspath
+   mainClass.set("org.fross.cal.CalServerLoadTest")
+
+   // Capture these here so they are available during execution and Gradle won't throw an error
+   val resultsFile = layout.buildDirectory.file("reports/loadtest/results.txt").get().asFile
+   val clients = project.findProperty("loadTestClients")?.toString() ?: "64"
+   val seconds = project.findProperty("loadTestSeconds")?.toString() ?: "10"
+   val targetUrl = project.findProperty("loadTestUrl")?.toString()
+
+   args(listOfNotNull(resultsFile.absolutePath, clients, seconds, targetUrl))
+   outputs.file(resultsFile)
+   outputs.upToDateWhen { false }
+}
+
+// --------------------------------------------------------------------------------------------------------
+// install:  Copies the Shadow Jar file to the C:\Utils directory after building and testing it, then builds
+//           and checks an AppCDS archive for the installed jar
 // --------------------------------------------------------------------------------------------------------
 tasks.register<Copy>("install") {
    group = "distribution"
@@ -193,6 +387,9 @@ tasks.register<Copy>("install") {
 
    // FIX: Point specifically to the shadowJar's archiveFile to ensure the FatJar is copied
    from(shadowTask.map { it.archiveFile })
+
+   // Include the launchers.  The archive from cdsArchive is tied to build/libs, so one is made below instead
+   from(layout.projectDirectory.dir("launcher"))
    into(installDirectory)
 
    // Force Gradle to ignore the cache and copy the file every time
@@ -201,10 +398,38 @@ tasks.register<Copy>("install") {
    // Capture these here so they are available during execution and Gradle won't throw an error
    val progName = project.name
    val progVersion = project.version.toString()
+   val builtJar = shadowTask.flatMap { it.archiveFile }
+   val javaExecutable = javaToolchains.launcherFor(java.toolchain).map { it.executablePath.asFile.absolutePath }
+   val prefsDir = layout.buildDirectory.dir("cds-prefs").get().asFile
 
    doLast {
+      val installedJar = File("$installDirectory/$progName.jar")
+      val installedArchive = File("$installDirectory/$progName.jsa")
+
+      // Copy doesn't keep modification times.  Keep the jar's so the archive below matches the jar's build
+      installedJar.setLastModified(builtJar.get().asFile.lastModified())
+
+      // Runs the installed jar the way the launchers do and returns what it printed
+      fun runInstalled(vararg options: String): String {
+         val command = listOf(javaExecutable.get(), "--enable-native-access=ALL-UNNAMED", "-Djava.util.prefs.userRoot=${prefsDir.absolutePath}",
+            "-Dcal.terminal=jline") + options + listOf("-jar", installedJar.absolutePath, "-n", "4", "-d", "--builtin-holidays", "2025")
+         val process = ProcessBuilder(command).redirectErrorStream(true).start()
+         val output = process.inputStream.bufferedReader().readText()
+         if (process.waitFor() != 0) throw GradleException("Failed: ${command.joinToString(" ")}\n$output")
+         return output
+      }
+
+      // Java 21 can't use an archive once the jar moves, so do the cdsArchive training run again on the installed jar
+      installedArchive.delete()
+      runInstalled("-XX:ArchiveClassesAtExit=${installedArchive.absolutePath}")
+
+      // Check the installed pair.  -Xshare:on stops with an error if the archive can't be used, and -Xlog:cds
+      // shows the archive being mapped
+      val cdsLog = runInstalled("-Xshare:on", "-Xlog:cds", "-XX:SharedArchiveFile=${installedArchive.absolutePath}")
+      if (!cdsLog.contains("Mapped dynamic region")) throw GradleException("The AppCDS archive was not used:\n$cdsLog")
+
       // Get the file details AFTER the copy has completed
-      val installedFile = File("$installDirectory/$progName.jar")
+      val installedFile = installedJar
       val sizeInBytes = installedFile.length()
       val lastModifiedTime = SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(Date(installedFile.lastModified()))
 
@@ -213,6 +438,7 @@ tasks.register<Copy>("install") {
       println("Version:   $progVersion")
       println("File Size: ${"%,d".format(sizeInBytes)} bytes")
       println("File Date: $lastModifiedTime")
+      println("AppCDS:    ${installedArchive.name} checked with -Xshare:on -Xlog:cds")
       println("----------------------------------------------------------")
    }
 }
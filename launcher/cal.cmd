@@ -0,0 +1,11 @@
+@echo off
+rem
+rem Launcher for cal.jar.  If an AppCDS archive (cal.jsa, built with 'gradlew cdsArchive') is in the same
+rem directory as cal.jar it's used to speed up startup
+rem
+setlocal
+
+set CDS_OPTION=
+if exist "%~dp0cal.jsa" set CDS_OPTION=-XX:SharedArchiveFile="%~dp0cal.jsa"
+
+java %CDS_OPTION% --enable-native-access=ALL-UNNAMED -jar "%~dp0cal.jar" %*
@@ -0,0 +1,169 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CalServerLoadTest drives the HTTP service with many concurrent clients for a fixed time and reports the
+ * p50/p99 latency and the requests per second. It starts its own server unless it's given the address of
+ * one that's already running. Each client cycles through a spread of years, months, and formats so some
+ * requests hit the render cache and some don't.
+ * <pre>
+ * Arguments: resultsFile [clients] [seconds] [baseURL]
+ * </pre>
+ */
+public class CalServerLoadTest {
+   private static final String[] FORMATS = {"ansi", "text", "json"};
+
+   public static void main(String[] args) throws Exception {
+      Path resultsFile = Path.of(args[0]);
+      int clients = (args.length > 1) ? Integer.parseInt(args[1]) : 64;
+      int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+      String baseURL = (args.length > 3) ? args[3] : null;
+
+      CalServer server = null;
+      if (baseURL == null) {
+         server = CalServer.start(0, CalServer.DEFAULT_CACHE_ENTRIES);
+         baseURL = "http://localhost:" + server.queryPort();
+      }
+
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+           HttpClient client = HttpClient.newBuilder().executor(executor).build()) {
+
+         // Warm up the JIT and the server before anything is measured
+         runClients(executor, client, baseURL, clients, System.nanoTime() + 3_000_000_000L, new AtomicLong());
+
+         AtomicLong errors = new AtomicLong();
+         long startTime = System.nanoTime();
+         List<long[]> results = runClients(executor, client, baseURL, clients, startTime + seconds * 1_000_000_000L, errors);
+         double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+         long[] latencies = results.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+         StringBuilder report = new StringBuilder();
+         report.append(String.format("cal HTTP load test: %d clients for %d seconds against %s%n", clients, seconds, baseURL));
+         report.append(String.format("%-16s %,12d%n", "Requests", latencies.length));
+         report.append(String.format("%-16s %,12d%n", "Errors", errors.get()));
+         report.append(String.format("%-16s %,12.0f%n", "Requests/sec", latencies.length / elapsedSeconds));
+         report.append(String.format("%-16s %12.3f%n", "p50 ms", percentile(latencies, 50) / 1e6));
+         report.append(String.format("%-16s %12.3f%n", "p99 ms", percentile(latencies, 99) / 1e6));
+         report.append(String.format("%-16s %12.3f%n", "Max ms", percentile(latencies, 100) / 1e6));
+         if (server != null) {
+            report.append(String.format("%-16s %,12d hits, %,d misses%n", "Render cache", server.queryCache().queryHits(), server.queryCache().queryMisses()));
+         }
+
+         Files.createDirectories(resultsFile.toAbsolutePath().getParent());
+         Files.writeString(resultsFile, report);
+         System.out.println("\n" + report);
+
+      } finally {
+         if (server != null) server.stop();
+      }
+   }
+
+   /**
+    * runClients: Start the clients and wait for them to finish
+    *
+    * @return The latency of every successful request in nanoseconds, one array per client
+    */
+   private static List<long[]> runClients(ExecutorService executor, HttpClient client, String baseURL, int clients, long endTime, AtomicLong errors) throws Exception {
+      List<Future<long[]>> futures = new ArrayList<>(clients);
+      for (int i = 0; i < clients; i++) {
+         int clientNumber = i;
+         futures.add(executor.submit(() -> runClient(client, baseURL, clientNumber, endTime, errors)));
+      }
+
+      List<long[]> results = new ArrayList<>(clients);
+      for (Future<long[]> future : futures) {
+         results.add(future.get());
+      }
+      return results;
+   }
+
+   /**
+    * runClient: Send requests one after another until the end time
+    */
+   private static long[] runClient(HttpClient client, String baseURL, int clientNumber, long endTime, AtomicLong errors) {
+      long[] latencies = new long[1024];
+      int count = 0;
+
+      for (int i = clientNumber; System.nanoTime() < endTime; i++) {
+         HttpRequest request = HttpRequest.newBuilder(URI.create(baseURL + requestPath(i))).build();
+
+         long startTime = System.nanoTime();
+         try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+               errors.incrementAndGet();
+               continue;
+            }
+         } catch (IOException ex) {
+            errors.incrementAndGet();
+            continue;
+         } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            break;
+         }
+
+         if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+         latencies[count++] = System.nanoTime() - startTime;
+      }
+
+      return Arrays.copyOf(latencies, count);
+   }
+
+   /**
+    * requestPath: The i-th request in the mix. 40 years x 13 views x 3 formats
+    */
+   private static String requestPath(int i) {
+      int year = 2000 + (i % 40);
+      int view = (i / 40) % 13;
+      String format = FORMATS[(i / 520) % FORMATS.length];
+
+      if (view == 0) return "/year/" + year + "?format=" + format + "&cols=" + (3 + (i % 2));
+      return "/month/" + year + "/" + view + "?format=" + format;
+   }
+
+   /**
+    * percentile: Nearest rank percentile of sorted values
+    */
+   private static long percentile(long[] sorted, double percent) {
+      if (sorted.length == 0) return 0;
+      int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+      return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+   }
+}
@@ -0,0 +1,72 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CalendarRendererBenchmark measures each CalendarRenderer drawing a year with holidays into a buffer that is
+ * reused between calls, so the score is the cost of the renderer itself with no terminal output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class CalendarRendererBenchmark {
+   @Param({"ansi", "text", "html", "svg"})
+   public String format;
+
+   private final List<MonthGrid> months = new ArrayList<>(12);
+   private final StringBuilder out = new StringBuilder(65536);
+
+   @Setup
+   public void setup() throws Exception {
+      HolidayIndex holidayIndex = HolidayIndex.of(Holidays.parseHolidays(HolidaysBenchmark.readPayload()));
+      for (int month = 1; month <= 12; month++) {
+         months.add(new MonthGrid(2025, month, LocalDate.of(2025, 12, 25), holidayIndex));
+      }
+   }
+
+   @Benchmark
+   public int renderYear() throws IOException {
+      out.setLength(0);
+
+      CalendarRenderer renderer = CalendarRenderer.forFormat(format, ColorSettings.getTheme(), null);
+      renderer.beginDocument(out, "2025", 4, 3);
+      for (int rowStart = 0; rowStart < 12; rowStart += 3) {
+         renderer.render(months.subList(rowStart, rowStart + 3), out);
+      }
+      renderer.endDocument(out);
+
+      return out.length();
+   }
+}
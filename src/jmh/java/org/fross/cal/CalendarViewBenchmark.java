@@ -0,0 +1,77 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CalendarViewBenchmark measures a full year render, including stitching and terminal output, for every
+ * supported column count, in color and as plain text (-z). Output is sent to a DumbTerminal that discards
+ * everything written to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class CalendarViewBenchmark {
+   @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12"})
+   public int nCols;
+
+   @Param({"true", "false"})
+   public boolean color;
+
+   private Terminal terminal;
+   private CalendarView view;
+
+   @Setup
+   public void setup() throws Exception {
+      terminal = new DumbTerminal(InputStream.nullInputStream(), OutputStream.nullOutputStream());
+      Output.setTerminal(terminal);
+      Holidays.setDisplayHolidays(false);
+      ColorSettings.setColorEnabled(color);
+      view = new CalendarView(terminal, LocalDate.of(2025, 12, 25));
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      Output.setTerminal(null);
+      ColorSettings.setColorEnabled(true);
+      terminal.close();
+   }
+
+   @Benchmark
+   public void printFullYear() {
+      view.printFullYear(2025, nCols);
+   }
+}
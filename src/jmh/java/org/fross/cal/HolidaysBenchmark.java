@@ -0,0 +1,120 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HolidaysBenchmark measures decoding a recorded nager.at payload and reading a year back from the
+ * holiday cache. No network access is performed. The decode benchmarks start from the raw bytes the way
+ * a response arrives: decodeTree is the previous String plus Gson object graph approach, and
+ * decodeStream is the streaming JsonReader decode that Holidays now uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class HolidaysBenchmark {
+   // Recorded response of https://date.nager.at/api/v3/publicholidays/2025/US
+   static final String PAYLOAD = "/holidays/nager-US-2025.json";
+
+   // Country code that nager.at doesn't use
+   static final String BENCH_COUNTRY = "XB";
+   static final int BENCH_YEAR = 2025;
+
+   private String payload;
+   private byte[] payloadBytes;
+   private Path cacheFile;
+
+   /**
+    * readPayload: Load the recorded nager.at payload from the benchmark resources
+    *
+    * @return Raw JSON text
+    */
+   static String readPayload() throws IOException {
+      try (InputStream iStream = HolidaysBenchmark.class.getResourceAsStream(PAYLOAD)) {
+         if (iStream == null) throw new IOException("Missing benchmark resource '" + PAYLOAD + "'");
+         return new String(iStream.readAllBytes(), StandardCharsets.UTF_8);
+      }
+   }
+
+   @Setup
+   public void setup() throws Exception {
+      payload = readPayload();
+      payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+
+      // Seed a private holiday cache file so getHolidays() never falls through to the internet
+      cacheFile = Files.createTempFile("cal-bench", ".dat");
+      HolidayCache.setCacheFile(cacheFile);
+      HolidayCache.put(BENCH_COUNTRY, BENCH_YEAR, Holidays.parseHolidays(payload));
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      Files.deleteIfExists(cacheFile);
+      Files.deleteIfExists(cacheFile.resolveSibling(cacheFile.getFileName() + ".lock"));
+   }
+
+   @Benchmark
+   public TreeMap<String, String> decodeTree() {
+      // Read the whole body into a String and let Gson build a map for every entry
+      String body = new String(payloadBytes, StandardCharsets.UTF_8);
+      TreeMap<String, String> parsed = new TreeMap<>();
+
+      Gson gson = new GsonBuilder().create();
+      @SuppressWarnings("unchecked")
+      TreeMap<String, Object>[] gsonMap = gson.fromJson(body, TreeMap[].class);
+
+      for (TreeMap<String, Object> entry : gsonMap) {
+         if (entry.get("global") != null && entry.get("global").toString().equals("true")) {
+            parsed.put(entry.get("date").toString(), entry.get("localName").toString());
+         }
+      }
+      return parsed;
+   }
+
+   @Benchmark
+   public TreeMap<String, String> decodeStream() throws IOException {
+      return Holidays.parseHolidays(new InputStreamReader(new ByteArrayInputStream(payloadBytes), StandardCharsets.UTF_8));
+   }
+
+   @Benchmark
+   public TreeMap<String, String> readCache() {
+      return Holidays.getHolidays(BENCH_COUNTRY, BENCH_YEAR);
+   }
+}
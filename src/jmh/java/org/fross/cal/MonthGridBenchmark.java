@@ -0,0 +1,79 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MonthGridBenchmark measures the cost of building a single month grid and drawing it as ANSI text, with and
+ * without holidays. The map variant includes building the HolidayIndex, the index variant reuses one the way
+ * CalendarView does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class MonthGridBenchmark {
+   private final LocalDate today = LocalDate.of(2025, 12, 25);
+   private final StringBuilder out = new StringBuilder(4096);
+   private TreeMap<String, String> holidays;
+   private HolidayIndex holidayIndex;
+   private CalendarRenderer renderer;
+
+   @Setup
+   public void setup() throws Exception {
+      holidays = Holidays.parseHolidays(HolidaysBenchmark.readPayload());
+      holidayIndex = HolidayIndex.of(holidays);
+      renderer = new AnsiRenderer(ColorSettings.getTheme(), null);
+   }
+
+   private int render(MonthGrid grid) throws IOException {
+      out.setLength(0);
+      renderer.render(List.of(grid), out);
+      return out.length();
+   }
+
+   @Benchmark
+   public int renderMonth() throws IOException {
+      return render(new MonthGrid(2025, 12, today, HolidayIndex.EMPTY));
+   }
+
+   @Benchmark
+   public int renderMonthWithHolidays() throws IOException {
+      return render(new MonthGrid(2025, 12, today, HolidayIndex.of(holidays)));
+   }
+
+   @Benchmark
+   public int renderMonthWithHolidayIndex() throws IOException {
+      return render(new MonthGrid(2025, 12, today, holidayIndex));
+   }
+}
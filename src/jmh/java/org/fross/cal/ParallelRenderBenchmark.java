@@ -0,0 +1,78 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelRenderBenchmark compares rendering the rows of months one after another and in parallel across
+ * different amounts of work, from a single year up to a 50 year range, to show where rendering in parallel
+ * starts to pay off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class ParallelRenderBenchmark {
+   @Param({"false", "true"})
+   public boolean parallel;
+
+   @Param({"1", "10", "50"})
+   public int years;
+
+   @Param({"3", "12"})
+   public int nCols;
+
+   private Terminal terminal;
+   private CalendarView view;
+
+   @Setup
+   public void setup() throws Exception {
+      terminal = new DumbTerminal(InputStream.nullInputStream(), OutputStream.nullOutputStream());
+      Output.setTerminal(terminal);
+      Holidays.setDisplayHolidays(false);
+      view = new CalendarView(terminal, LocalDate.of(2025, 12, 25), parallel);
+   }
+
+   @TearDown
+   public void tearDown() throws Exception {
+      Output.setTerminal(null);
+      terminal.close();
+   }
+
+   @Benchmark
+   public void printYearRange() {
+      view.printYearRange(2000, 2000 + years - 1, nCols);
+   }
+}
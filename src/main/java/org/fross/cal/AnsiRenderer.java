@@ -0,0 +1,104 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.jline.terminal.Terminal;
+import org.jline.utils.AttributedStringBuilder;
+import org.jline.utils.AttributedStyle;
+
+import java.io.IOException;
+
+/**
+ * AnsiRenderer draws months as text colored with ANSI escape codes from a Theme. JLine translates each
+ * style into the codes for the terminal once when the renderer is built, and after that a day is just its
+ * codes and digits written around the shared day text.
+ */
+public final class AnsiRenderer extends TextRenderer {
+   // Marks where the text goes between a style's start and end codes
+   private static final char MARKER = '\u0000';
+
+   private final String[] monthCodes;
+   private final String[] dayOfWeekCodes;
+
+   // Start and end codes for a day, indexed by its MonthGrid flags
+   private final String[] cellStart = new String[8];
+   private final String[] cellEnd = new String[8];
+
+   /**
+    * Constructor for AnsiRenderer
+    *
+    * @param theme    The colors to draw with
+    * @param terminal Terminal used to translate the colors into escape codes. Can be null
+    */
+   public AnsiRenderer(Theme theme, Terminal terminal) {
+      monthCodes = queryCodes(theme.month, terminal);
+      dayOfWeekCodes = queryCodes(theme.dayOfWeek, terminal);
+
+      for (int flags = 0; flags < 8; flags++) {
+         String[] codes = queryCodes(theme.get(MonthGrid.styleKey(flags)), terminal);
+         cellStart[flags] = codes[0];
+         cellEnd[flags] = codes[1];
+      }
+   }
+
+   /**
+    * queryCodes: The escape codes that turn a style on and back off again, taken from either side of a
+    * single styled character
+    *
+    * @return Start and end codes, which are both empty for the default style
+    */
+   private static String[] queryCodes(AttributedStyle style, Terminal terminal) {
+      String ansi = new AttributedStringBuilder().style(style).append(MARKER).toAnsi(terminal);
+      int split = ansi.indexOf(MARKER);
+      return new String[]{ansi.substring(0, split), ansi.substring(split + 1)};
+   }
+
+   @Override
+   void appendTitle(Appendable out, MonthGrid grid) throws IOException {
+      out.append(monthCodes[0]);
+      appendCentered(out, grid.title());
+      out.append(monthCodes[1]);
+   }
+
+   @Override
+   void appendDayLabels(Appendable out) throws IOException {
+      out.append(dayOfWeekCodes[0]).append(MonthGrid.DAY_LABELS).append(dayOfWeekCodes[1]);
+   }
+
+   @Override
+   void appendWeek(Appendable out, MonthGrid grid, int week) throws IOException {
+      for (int c = 0; c < 7; c++) {
+         int day = grid.day(week, c);
+
+         if (day != 0) {
+            int flags = grid.flags(week, c);
+            out.append(cellStart[flags]).append(MonthTemplate.CELLS[day]).append(cellEnd[flags]);
+         } else {
+            out.append(MonthTemplate.CELLS[0]);
+         }
+
+         if (c < 6) out.append(' ');
+      }
+   }
+}
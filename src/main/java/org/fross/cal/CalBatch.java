@@ -0,0 +1,204 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CalBatch renders many calendars in one run for programs that need lots of them. Each line of input holds a
+ * normal set of cal arguments, such as "3 2024" or "2025 -n 4". Each calendar is written to one buffered
+ * output stream followed by the record separator. The holidays and the color theme are loaded once and
+ * shared by every line, so the time goes into rendering rather than starting Java.
+ * <p>
+ * Only the options the cal daemon accepts can be used on a line, so none of the options that print
+ * something else and exit are reachable. The same options given with --batch itself, such as
+ * "cal --batch -z -d", apply to every line, and a line can add to them. A line that can't be rendered is
+ * reported on standard error with its line number and left out of the output.
+ */
+public class CalBatch {
+   public static final String DEFAULT_SEPARATOR = "\f";
+
+   /**
+    * Summary: Counts of what happened during a batch run
+    */
+   public static class Summary {
+      public int rendered = 0;
+      public int failed = 0;
+   }
+
+   /**
+    * run: Render a calendar for every line of the input
+    *
+    * @param input     Lines of cal arguments. Blank lines and lines starting with # are skipped
+    * @param output    Where the calendars are written. It's flushed, but not closed
+    * @param separator Written after each calendar
+    * @return Counts of the calendars rendered and the lines that failed
+    * @throws IOException If the input can't be read or the output can't be written
+    */
+   public static Summary run(Reader input, OutputStream output, String separator) throws IOException {
+      return run(input, output, separator, new String[0]);
+   }
+
+   /**
+    * run: Render a calendar for every line of the input with the provided options in front of each line
+    *
+    * @param input     Lines of cal arguments. Blank lines and lines starting with # are skipped
+    * @param output    Where the calendars are written. It's flushed, but not closed
+    * @param separator Written after each calendar
+    * @param options   Options applied to every line, from queryBatchOptions()
+    * @return Counts of the calendars rendered and the lines that failed
+    * @throws IOException If the input can't be read or the output can't be written
+    */
+   public static Summary run(Reader input, OutputStream output, String separator, String[] options) throws IOException {
+      Summary summary = new Summary();
+      BufferedReader lines = new BufferedReader(input);
+      byte[] separatorBytes = separator.getBytes(StandardCharsets.UTF_8);
+
+      // Each calendar is collected on its own so a line that fails leaves nothing half written
+      ByteArrayOutputStream record = new ByteArrayOutputStream(8192);
+      PrintWriter recordWriter = new PrintWriter(new OutputStreamWriter(record, StandardCharsets.UTF_8));
+
+      // Keep holidays in memory and let errors end the line rather than the batch
+      Holidays.setRetainHolidays(true);
+      Output.setExitOnFatalError(false);
+      OutputCache.setEnabled(false);
+      Output.setTerminal(null);
+      Output.setWriter(recordWriter);
+
+      try {
+         String line;
+         int lineNumber = 0;
+
+         while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+            String[] argv = trimmed.split("\\s+");
+            if (!CalDaemon.isRenderOnly(argv)) {
+               summary.failed++;
+               System.err.println("Line " + lineNumber + ": only -n, -d, -z, --format, --builtin-holidays and month/year parameters can be used in a batch: '" + trimmed + "'");
+               continue;
+            }
+
+            // Every line starts from the defaults, so the batch options are given again in front of it
+            String[] lineArgs = new String[options.length + argv.length];
+            System.arraycopy(options, 0, lineArgs, 0, options.length);
+            System.arraycopy(argv, 0, lineArgs, options.length, argv.length);
+
+            record.reset();
+            CalDaemon.resetRequestState();
+            try {
+               Main.run(lineArgs, null);
+               recordWriter.flush();
+               record.writeTo(output);
+               output.write(separatorBytes);
+               summary.rendered++;
+
+            } catch (Output.FatalErrorException ex) {
+               summary.failed++;
+               System.err.println("Line " + lineNumber + ": " + ex.getMessage());
+            }
+
+            // A program feeding the batch one request at a time gets each answer before it sends the next
+            if (!lines.ready()) output.flush();
+         }
+
+      } finally {
+         output.flush();
+         Output.setWriter(null);
+         Output.setTerminal(Main.terminal);
+         Output.setExitOnFatalError(true);
+         Holidays.setRetainHolidays(false);
+      }
+
+      return summary;
+   }
+
+   /**
+    * queryBatchOptions: Pick out the options on the cal --batch command line that also apply to each line,
+    * such as -z, -d, -n 4, or --format text. Everything else, including the month and year, is left out.
+    * -D is left out too, since debug messages written into a record would corrupt the output stream
+    *
+    * @param argv The cal --batch command line
+    * @return The options to put in front of every line
+    */
+   public static String[] queryBatchOptions(String[] argv) {
+      List<String> options = new ArrayList<>();
+
+      for (int i = 0; i < argv.length; i++) {
+         if (CalDaemon.DAEMON_FLAGS.contains(argv[i])) {
+            options.add(argv[i]);
+         } else if ((CalDaemon.DAEMON_NUMBER_OPTIONS.contains(argv[i]) || argv[i].equals("--format")) && i + 1 < argv.length) {
+            options.add(argv[i]);
+            options.add(argv[++i]);
+         }
+      }
+
+      return options.toArray(new String[0]);
+   }
+
+   /**
+    * parseSeparator: Convert a separator given on the command line, where \n, \t, \f, \0 and \\ stand for
+    * the characters they name
+    *
+    * @param value The separator as typed, or null for the default
+    * @return The separator to write
+    */
+   public static String parseSeparator(String value) {
+      if (value == null) return DEFAULT_SEPARATOR;
+
+      StringBuilder separator = new StringBuilder(value.length());
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (c != '\\' || i == value.length() - 1) {
+            separator.append(c);
+            continue;
+         }
+
+         char escaped = value.charAt(++i);
+         switch (escaped) {
+            case 'n' -> separator.append('\n');
+            case 't' -> separator.append('\t');
+            case 'f' -> separator.append('\f');
+            case '0' -> separator.append('\0');
+            case '\\' -> separator.append('\\');
+            default -> separator.append('\\').append(escaped);
+         }
+      }
+      return separator.toString();
+   }
+
+}
@@ -0,0 +1,471 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Debug;
+import org.fross.library.Output;
+import org.jline.terminal.Terminal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CalDaemon keeps a warm JVM running in the background so scripts that call cal many times don't pay for
+ * a JVM and JLine start each time. The daemon listens on a Unix domain socket. A client sends its command
+ * line and terminal width and gets back the exact bytes cal would have printed, plus the exit code.
+ * <p>
+ * Each connection is read on its own virtual thread and must send its whole request within READ_TIMEOUT,
+ * so a silent client can't hold up anyone else. Rendering is done one request at a time because the
+ * command line, holiday, and color state in cal are static.
+ * Holidays and the color theme stay loaded between requests. A theme is rebuilt when the stored colors
+ * change, and a year of holidays is reloaded from the cache once it has been held for
+ * Holidays.RETAIN_FOR. The daemon exits after it has been idle for the configured number of minutes.
+ * <pre>
+ * Request:  int version, int argCount, argCount x UTF argument, int columns
+ * Response: int exitCode, int length, byte[length] output
+ * </pre>
+ */
+public class CalDaemon {
+   public static final int DEFAULT_IDLE_MINUTES = 30;
+   private static final int PROTOCOL_VERSION = 1;
+   static final int MAX_ARGUMENTS = 64;
+   static final Duration READ_TIMEOUT = Duration.ofSeconds(2);
+   private static final int MAX_REQUEST_BYTES = 16 * 1024;
+
+   // Only these options can be sent to the daemon. Anything else is run in-process
+   static final Set<String> DAEMON_FLAGS = Set.of("-d", "--display-holidays", "-z", "--no-color", "--builtin-holidays");
+   static final Set<String> DAEMON_NUMBER_OPTIONS = Set.of("-n", "--num");
+
+   private static Path socketFile = HolidayCache.queryDataDirectory().resolve("cal.sock");
+   private static volatile Selector activeSelector = null;
+   private static volatile boolean stopRequested = false;
+   private static final ReentrantLock renderLock = new ReentrantLock();
+
+   /**
+    * Request: A command line read from a client and the width of its terminal
+    */
+   record Request(String[] argv, int columns) {
+   }
+
+   /**
+    * querySocketFile: The socket lives in the cal data directory
+    *
+    * @return Path of the Unix domain socket
+    */
+   public static Path querySocketFile() {
+      return socketFile;
+   }
+
+   /**
+    * setSocketFile: Use a different socket. Used by the tests
+    *
+    * @param file The socket file to use
+    */
+   static void setSocketFile(Path file) {
+      socketFile = file;
+   }
+
+   /**
+    * isDaemonRequest: Check if a command line can be handed to a daemon
+    *
+    * @param argv Command line arguments
+    * @return True if the daemon could render this request and its socket exists
+    */
+   public static boolean isDaemonRequest(String[] argv) {
+      return isRenderOnly(argv) && Files.exists(socketFile);
+   }
+
+   /**
+    * isRenderOnly: Check if a command line only asks for a calendar. Options that print help, change
+    * settings, or exit are always run in-process
+    *
+    * @param argv Command line arguments
+    * @return True if the command line only contains calendar options and parameters
+    */
+   static boolean isRenderOnly(String[] argv) {
+      for (int i = 0; i < argv.length; i++) {
+         if (DAEMON_FLAGS.contains(argv[i])) continue;
+
+         if (DAEMON_NUMBER_OPTIONS.contains(argv[i])) {
+            if (++i < argv.length && argv[i].matches("\\d{1,3}")) continue;
+            return false;
+         }
+
+         if (argv[i].equals("--format")) {
+            if (++i < argv.length && CalendarRenderer.FORMATS.contains(argv[i])) continue;
+            return false;
+         }
+
+         // Month, year, or year range parameters
+         if (!argv[i].matches("\\d{1,9}(-\\d{1,9})?")) return false;
+      }
+
+      return true;
+   }
+
+   /**
+    * hasFixedLayout: Check if the command line sets the months per row, so the terminal width doesn't matter
+    */
+   static boolean hasFixedLayout(String[] argv) {
+      for (String arg : argv) {
+         if (DAEMON_NUMBER_OPTIONS.contains(arg)) return true;
+      }
+      return false;
+   }
+
+   /**
+    * sendRequest: Have the daemon render the command line and copy what it returns to standard out. The
+    * daemon is only used when the terminal width is known or -n fixes the layout, so its output always
+    * matches what cal would print in-process
+    *
+    * @param argv Command line arguments
+    * @return The exit code from the daemon, or -1 if the caller should render in-process
+    */
+   public static int sendRequest(String[] argv) {
+      int columns = queryColumns();
+      if (columns <= 0 && !hasFixedLayout(argv)) return -1;
+
+      return sendRequest(argv, columns);
+   }
+
+   /**
+    * sendRequest: Send a command line and terminal width to the daemon and copy its output to standard out
+    *
+    * @return The exit code from the daemon, or -1 if no daemon could be reached
+    */
+   static int sendRequest(String[] argv, int columns) {
+      try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+         channel.connect(UnixDomainSocketAddress.of(socketFile));
+
+         DataOutputStream request = new DataOutputStream(Channels.newOutputStream(channel));
+         request.writeInt(PROTOCOL_VERSION);
+         request.writeInt(argv.length);
+         for (String arg : argv) {
+            request.writeUTF(arg);
+         }
+         request.writeInt(columns);
+         request.flush();
+
+         DataInputStream response = new DataInputStream(Channels.newInputStream(channel));
+         int exitCode = response.readInt();
+         byte[] output = response.readNBytes(response.readInt());
+
+         System.out.write(output);
+         System.out.flush();
+         return exitCode;
+
+      } catch (IOException ex) {
+         // No daemon is listening (or it went away), so the caller renders in-process
+         return -1;
+      }
+   }
+
+   /**
+    * serve: Listen for requests until the daemon has been idle for the given number of minutes
+    *
+    * @param idleMinutes Minutes without a request before the daemon exits
+    */
+   public static void serve(int idleMinutes) {
+      Duration idleTimeout = Duration.ofMinutes(Math.max(1, idleMinutes));
+
+      try {
+         Files.createDirectories(socketFile.getParent());
+
+         // A socket file left behind by a daemon that didn't shut down cleanly is removed. A live one isn't
+         if (Files.exists(socketFile)) {
+            if (isListening(socketFile)) {
+               Output.fatalError("A cal daemon is already listening on '" + socketFile + "'", 8);
+            }
+            Files.delete(socketFile);
+         }
+      } catch (IOException ex) {
+         Output.fatalError("Unable to prepare the daemon socket '" + socketFile + "': " + ex.getMessage(), 8);
+      }
+
+      // Keep holidays in memory and let errors in a request end that request rather than the daemon
+      Holidays.setRetainHolidays(true);
+      Output.setExitOnFatalError(false);
+      Terminal daemonTerminal = Main.terminal;
+
+      try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+           Selector selector = Selector.open()) {
+         server.bind(UnixDomainSocketAddress.of(socketFile));
+         server.configureBlocking(false);
+         server.register(selector, SelectionKey.OP_ACCEPT);
+         stopRequested = false;
+         activeSelector = selector;
+
+         Output.printColorln(Output.CYAN, "cal daemon listening on '" + socketFile + "'. It will exit after " + idleTimeout.toMinutes() + " idle minutes");
+         AtomicLong lastRequest = new AtomicLong(System.nanoTime());
+         AtomicInteger activeRequests = new AtomicInteger();
+
+         while (!stopRequested && (activeRequests.get() > 0 || System.nanoTime() - lastRequest.get() < idleTimeout.toNanos())) {
+            long remaining = idleTimeout.toMillis() - Duration.ofNanos(System.nanoTime() - lastRequest.get()).toMillis();
+            // Once idle, only wait for the requests that are still running
+            if (selector.select(Math.max(100, remaining)) == 0) continue;
+            selector.selectedKeys().clear();
+
+            SocketChannel client = server.accept();
+            if (client == null) continue;
+
+            activeRequests.incrementAndGet();
+            Thread.ofVirtual().name("cal-daemon-request").start(() -> {
+               try (client) {
+                  handleRequest(client, daemonTerminal);
+               } catch (IOException | RuntimeException ex) {
+                  // The client gets no response and renders in-process instead
+                  Output.debugPrintln("Daemon request failed: " + ex.getMessage());
+               } finally {
+                  lastRequest.set(System.nanoTime());
+                  activeRequests.decrementAndGet();
+               }
+            });
+         }
+
+         // Let requests that are still rendering finish before the socket goes away
+         renderLock.lock();
+         renderLock.unlock();
+
+      } catch (IOException ex) {
+         Output.setTerminal(daemonTerminal);
+         Output.printColorln(Output.RED, "The cal daemon stopped: " + ex.getMessage());
+
+      } finally {
+         activeSelector = null;
+         Output.setTerminal(daemonTerminal);
+         Output.setExitOnFatalError(true);
+         try {
+            Files.deleteIfExists(socketFile);
+         } catch (IOException ex) { /* Nothing more we can do */ }
+      }
+
+      Output.printColorln(Output.CYAN, "cal daemon exiting");
+   }
+
+   /**
+    * stop: Ask a daemon running in this JVM to exit. Used by the tests
+    */
+   static void stop() {
+      stopRequested = true;
+      Selector selector = activeSelector;
+      if (selector != null) selector.wakeup();
+   }
+
+   /**
+    * handleRequest: Read one command line from a client, render it, and send back the output
+    */
+   private static void handleRequest(SocketChannel client, Terminal daemonTerminal) throws IOException {
+      Request request = readRequest(client);
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream(8192);
+      int exitCode;
+      renderLock.lock();
+      try {
+         exitCode = render(request.argv(), request.columns(), output);
+      } finally {
+         Output.setTerminal(daemonTerminal);
+         renderLock.unlock();
+      }
+
+      client.configureBlocking(true);
+      DataOutputStream response = new DataOutputStream(Channels.newOutputStream(client));
+      response.writeInt(exitCode);
+      response.writeInt(output.size());
+      output.writeTo(response);
+      response.flush();
+   }
+
+   /**
+    * readRequest: Read a request without blocking so a client that stops sending is dropped once
+    * READ_TIMEOUT has passed
+    *
+    * @return The command line and terminal width the client sent
+    * @throws IOException If the request is malformed, too large, or doesn't arrive in time
+    */
+   private static Request readRequest(SocketChannel client) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(MAX_REQUEST_BYTES);
+      long deadline = System.nanoTime() + READ_TIMEOUT.toNanos();
+
+      client.configureBlocking(false);
+      try (Selector selector = Selector.open()) {
+         client.register(selector, SelectionKey.OP_READ);
+
+         while (true) {
+            Request request = parseRequest(buffer.array(), buffer.position());
+            if (request != null) return request;
+
+            if (!buffer.hasRemaining()) throw new IOException("Request is larger than " + MAX_REQUEST_BYTES + " bytes");
+
+            long remaining = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remaining <= 0) throw new IOException("Client didn't send a request within " + READ_TIMEOUT.toMillis() + "ms");
+            if (selector.select(remaining) == 0) continue;
+            selector.selectedKeys().clear();
+
+            if (client.read(buffer) < 0) throw new EOFException("Client closed the connection");
+         }
+      }
+   }
+
+   /**
+    * parseRequest: Decode a request from the bytes received so far
+    *
+    * @return The request, or null if more bytes are needed
+    * @throws IOException If the request can never be valid
+    */
+   static Request parseRequest(byte[] data, int length) throws IOException {
+      DataInputStream request = new DataInputStream(new ByteArrayInputStream(data, 0, length));
+
+      try {
+         if (request.readInt() != PROTOCOL_VERSION) {
+            throw new IOException("Client uses a different protocol version");
+         }
+
+         int argCount = request.readInt();
+         if (argCount < 0 || argCount > MAX_ARGUMENTS) {
+            throw new IOException("Request has " + argCount + " arguments. The limit is " + MAX_ARGUMENTS);
+         }
+
+         String[] argv = new String[argCount];
+         for (int i = 0; i < argv.length; i++) {
+            argv[i] = request.readUTF();
+         }
+         return new Request(argv, request.readInt());
+
+      } catch (EOFException ex) {
+         return null;
+      }
+   }
+
+   /**
+    * render: Run a command line in this JVM and capture everything it prints. The command line state is
+    * reset first, but the holidays and the color theme stay loaded
+    *
+    * @param argv    Command line arguments
+    * @param columns Width of the client's terminal, or 0 if it's not known
+    * @param output  Where the rendered bytes are written
+    * @return The exit code for the client
+    */
+   static int render(String[] argv, int columns, ByteArrayOutputStream output) throws IOException {
+      Terminal previous = Main.terminal;
+
+      try (Terminal capture = Frame.captureTerminal(output, "xterm-256color", columns)) {
+
+         resetRequestState();
+         Output.setTerminal(capture);
+
+         try {
+            Main.run(argv, capture);
+            return 0;
+         } catch (Output.FatalErrorException ex) {
+            return ex.errorCode;
+         } finally {
+            capture.flush();
+         }
+
+      } finally {
+         Output.setTerminal(previous);
+      }
+   }
+
+   /**
+    * resetRequestState: Put the command line driven settings back to their defaults between requests
+    */
+   static void resetRequestState() {
+      CommandLineArgs.reset();
+      Debug.disable();
+      Holidays.setDisplayHolidays(false);
+      Holidays.setUseBuiltInRules(false);
+
+      // Only touch the color state when it changed so the theme isn't rebuilt for every request
+      if (!ColorSettings.queryColorEnabled()) {
+         ColorSettings.setColorEnabled(true);
+      }
+      ColorSettings.refreshTheme();
+   }
+
+   /**
+    * isListening: Check if something is accepting connections on a socket file
+    */
+   private static boolean isListening(Path socketFile) {
+      try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+         channel.connect(UnixDomainSocketAddress.of(socketFile));
+         return true;
+      } catch (IOException ex) {
+         return false;
+      }
+   }
+
+   /**
+    * queryColumns: The client doesn't create a terminal, so ask the controlling terminal for its size the
+    * way stty does. Most shells don't export $COLUMNS, so it's only the fallback
+    *
+    * @return Width of the terminal, or 0 if it can't be found
+    */
+   private static int queryColumns() {
+      File tty = new File("/dev/tty");
+
+      if (tty.exists()) {
+         try {
+            Process stty = new ProcessBuilder("stty", "size")
+                  .redirectInput(ProcessBuilder.Redirect.from(tty))
+                  .redirectError(ProcessBuilder.Redirect.DISCARD)
+                  .start();
+            String[] size = new String(stty.getInputStream().readAllBytes()).trim().split("\\s+");
+            if (stty.waitFor() == 0 && size.length == 2 && Integer.parseInt(size[1]) > 0) {
+               return Integer.parseInt(size[1]);
+            }
+         } catch (IOException | NumberFormatException ex) {
+            // No stty or no controlling terminal
+         } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+      try {
+         return Integer.parseInt(System.getenv().getOrDefault("COLUMNS", "0").trim());
+      } catch (NumberFormatException ex) {
+         return 0;
+      }
+   }
+}
@@ -0,0 +1,550 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.fross.library.Output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * CalServer serves calendars over HTTP so a dashboard can show them without starting a cal process
+ * for every request. Each request runs on its own virtual thread.
+ * <pre>
+ * GET /year/{year}           A 12-month grid
+ * GET /month/{year}/{month}  A single month
+ *
+ * Query parameters:
+ *   format=ansi|text|json    ANSI colored text (default), plain text, or the month grids as JSON
+ *   format=html|svg          A standalone HTML page of month tables, or an SVG image
+ *   cols=N                   Months per row for the year view (1-12, default 3)
+ *   holidays=true            Highlight the holidays for the local country
+ *   country=CC               Highlight the holidays for an ISO2 country code
+ * </pre>
+ * The server only listens on the loopback address unless --serve-bind names another one. Holidays are
+ * only loaded for real ISO2 countries and the years MIN_HOLIDAY_YEAR to MAX_HOLIDAY_YEAR, since every new
+ * country and year is a download and an entry in the holiday cache.
+ * Rendering doesn't touch the command line state, so requests can run at the same time. Finished
+ * responses are kept in a bounded LRU cache keyed by everything that changes the output, including
+ * today's date so the highlighted day rolls over at midnight.
+ */
+public class CalServer {
+   public static final int DEFAULT_CACHE_ENTRIES = 512;
+   private static final int DEFAULT_COLUMNS = 3;
+
+   private static final Pattern YEAR_PATH = Pattern.compile("/year/(\\d{1,4})/?");
+   private static final Pattern MONTH_PATH = Pattern.compile("/month/(\\d{1,4})/(\\d{1,2})/?");
+   private static final Pattern COUNTRY_CODE = Pattern.compile("[A-Za-z]{2}");
+   private static final Set<String> COUNTRIES = Set.of(Locale.getISOCountries());
+   static final int MIN_HOLIDAY_YEAR = 1900;
+   static final int MAX_HOLIDAY_YEAR = 2100;
+
+   private final RenderCache cache;
+   private final CountDownLatch stopped = new CountDownLatch(1);
+   private HttpServer server = null;
+
+   /**
+    * Format: The representations a calendar can be returned in
+    */
+   enum Format {
+      ANSI("text/plain; charset=utf-8"),
+      TEXT("text/plain; charset=utf-8"),
+      JSON("application/json; charset=utf-8"),
+      HTML("text/html; charset=utf-8"),
+      SVG("image/svg+xml; charset=utf-8");
+
+      final String contentType;
+
+      Format(String contentType) {
+         this.contentType = contentType;
+      }
+   }
+
+   /**
+    * Key: Everything that changes the rendered output. A month is 0 for the year view. The theme is
+    * compared by identity, so changing a color (which builds a new theme) misses the cache
+    */
+   record Key(String view, int year, int month, int cols, Format format, Theme theme, String country, LocalDate today) {
+   }
+
+   /**
+    * RenderCache: A bounded, access ordered map of rendered responses. Two requests that miss on the
+    * same key at the same time both render it, which is cheaper than making every request wait on a lock
+    * while it renders
+    */
+   static final class RenderCache {
+      private final LinkedHashMap<Key, byte[]> entries;
+      private long hits = 0;
+      private long misses = 0;
+
+      RenderCache(int capacity) {
+         this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+               return size() > capacity;
+            }
+         };
+      }
+
+      synchronized byte[] get(Key key) {
+         byte[] body = entries.get(key);
+         if (body != null) hits++;
+         else misses++;
+         return body;
+      }
+
+      synchronized void put(Key key, byte[] body) {
+         entries.put(key, body);
+      }
+
+      synchronized int size() {
+         return entries.size();
+      }
+
+      synchronized long queryHits() {
+         return hits;
+      }
+
+      synchronized long queryMisses() {
+         return misses;
+      }
+   }
+
+   /**
+    * Constructor for CalServer
+    *
+    * @param cacheEntries The most rendered responses to keep
+    */
+   CalServer(int cacheEntries) {
+      this.cache = new RenderCache(Math.max(1, cacheEntries));
+   }
+
+   /**
+    * serve: Serve calendars on the given port until the process is stopped
+    *
+    * @param port        TCP port to listen on
+    * @param bindAddress Host name or IP address to listen on. If null, only the loopback address is used
+    */
+   public static void serve(int port, String bindAddress) {
+      if (port < 1 || port > 65535) {
+         Output.fatalError("--serve needs a port number from 1 to 65535", 6);
+      }
+
+      InetAddress address = InetAddress.getLoopbackAddress();
+      if (bindAddress != null) {
+         try {
+            address = InetAddress.getByName(bindAddress);
+         } catch (IOException ex) {
+            Output.fatalError("Unable to use '" + bindAddress + "' as the address to serve on: " + ex.getMessage(), 6);
+         }
+      }
+
+      // Keep every year of holidays in memory and let a failed render fail only its request
+      Holidays.setRetainHolidays(true);
+      Output.setExitOnFatalError(false);
+
+      try {
+         CalServer calServer = start(address, port, DEFAULT_CACHE_ENTRIES);
+         String host = address.getHostAddress().contains(":") ? "[" + address.getHostAddress() + "]" : address.getHostAddress();
+         Output.printColorln(Output.CYAN, "cal is serving calendars on http://" + host + ":" + calServer.queryPort() + "/year/{year} and /month/{year}/{month}");
+         calServer.stopped.await();
+
+      } catch (IOException ex) {
+         Output.setExitOnFatalError(true);
+         Output.fatalError("Unable to listen on port " + port + ": " + ex.getMessage(), 8);
+
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+
+      } finally {
+         Output.setExitOnFatalError(true);
+      }
+   }
+
+   /**
+    * start: Start a server on the loopback address in the background. Port 0 picks a free port
+    *
+    * @param port         TCP port to listen on
+    * @param cacheEntries The most rendered responses to keep
+    * @return The running server
+    */
+   static CalServer start(int port, int cacheEntries) throws IOException {
+      return start(InetAddress.getLoopbackAddress(), port, cacheEntries);
+   }
+
+   /**
+    * start: Start a server in the background
+    *
+    * @param address      Address to listen on
+    * @param port         TCP port to listen on. Port 0 picks a free port
+    * @param cacheEntries The most rendered responses to keep
+    * @return The running server
+    */
+   static CalServer start(InetAddress address, int port, int cacheEntries) throws IOException {
+      CalServer calServer = new CalServer(cacheEntries);
+
+      calServer.server = HttpServer.create(new InetSocketAddress(address, port), 0);
+      calServer.server.createContext("/", calServer::handle);
+      calServer.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+      calServer.server.start();
+      return calServer;
+   }
+
+   /**
+    * stop: Stop the server and release serve()
+    */
+   void stop() {
+      server.stop(0);
+      if (server.getExecutor() instanceof ExecutorService executor) executor.shutdown();
+      stopped.countDown();
+   }
+
+   /**
+    * queryCache: The rendered response cache. Used by the tests and the load test
+    *
+    * @return The cache
+    */
+   RenderCache queryCache() {
+      return cache;
+   }
+
+   /**
+    * queryPort: The port the server is listening on
+    *
+    * @return TCP port number
+    */
+   int queryPort() {
+      return server.getAddress().getPort();
+   }
+
+   /**
+    * queryAddress: The address and port the server is listening on
+    *
+    * @return The socket address
+    */
+   InetSocketAddress queryAddress() {
+      return server.getAddress();
+   }
+
+   /**
+    * handle: Answer one HTTP request
+    */
+   private void handle(HttpExchange exchange) throws IOException {
+      try (exchange) {
+         String method = exchange.getRequestMethod();
+         if (!method.equals("GET") && !method.equals("HEAD")) {
+            sendText(exchange, 405, "Only GET and HEAD are supported");
+            return;
+         }
+
+         Key key;
+         try {
+            key = parseRequest(exchange.getRequestURI());
+         } catch (IllegalArgumentException ex) {
+            sendText(exchange, 400, ex.getMessage());
+            return;
+         }
+
+         if (key == null) {
+            sendText(exchange, 404, "Use /year/{year} or /month/{year}/{month}");
+            return;
+         }
+
+         byte[] body = cache.get(key);
+         String cacheStatus = "hit";
+         if (body == null) {
+            try {
+               body = render(key);
+            } catch (IOException ex) {
+               // The holidays couldn't be loaded. Nothing is cached so the next request tries again
+               Output.debugPrintln("Unable to load the holidays for " + exchange.getRequestURI() + ": " + ex.getMessage());
+               sendText(exchange, 503, "Unable to retrieve holidays for " + key.country());
+               return;
+            } catch (RuntimeException ex) {
+               // Includes a fatal error, which only ends this request
+               Output.debugPrintln("Unable to render " + exchange.getRequestURI() + ": " + ex.getMessage());
+               sendText(exchange, 500, "Unable to render the calendar");
+               return;
+            }
+            cache.put(key, body);
+            cacheStatus = "miss";
+         }
+
+         Headers headers = exchange.getResponseHeaders();
+         headers.set("Content-Type", key.format().contentType);
+         headers.set("X-Cal-Cache", cacheStatus);
+         send(exchange, 200, body);
+      }
+   }
+
+   /**
+    * parseRequest: Turn a request path and query into a cache key
+    *
+    * @param uri The request URI
+    * @return The key, or null if the path isn't a calendar
+    * @throws IllegalArgumentException If a value is out of range
+    */
+   Key parseRequest(URI uri) {
+      String view;
+      int year;
+      int month = 0;
+
+      Matcher matcher;
+      if ((matcher = YEAR_PATH.matcher(uri.getPath())).matches()) {
+         view = "year";
+         year = Integer.parseInt(matcher.group(1));
+      } else if ((matcher = MONTH_PATH.matcher(uri.getPath())).matches()) {
+         view = "month";
+         year = Integer.parseInt(matcher.group(1));
+         month = Integer.parseInt(matcher.group(2));
+         if (month < 1 || month > 12) throw new IllegalArgumentException("'" + month + "' is not a valid month number");
+      } else {
+         return null;
+      }
+
+      if (year < 1) throw new IllegalArgumentException("The year must be greater than zero");
+
+      Map<String, String> query = parseQuery(uri.getRawQuery());
+
+      Format format;
+      try {
+         format = Format.valueOf(query.getOrDefault("format", "ansi").toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+         throw new IllegalArgumentException("format must be ansi, text, json, html, or svg");
+      }
+
+      // The month view is always one month wide
+      int cols = 1;
+      if (view.equals("year")) {
+         try {
+            cols = Integer.parseInt(query.getOrDefault("cols", String.valueOf(DEFAULT_COLUMNS)));
+         } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("cols must be a number from 1 to 12");
+         }
+         if (cols < 1 || cols > 12) throw new IllegalArgumentException("cols must be a number from 1 to 12");
+      }
+
+      // A country turns on holidays. An empty country means no holidays
+      String country = "";
+      if (query.containsKey("country")) {
+         country = query.get("country");
+         if (!COUNTRY_CODE.matcher(country).matches()) throw new IllegalArgumentException("country must be an ISO2 country code");
+         country = country.toUpperCase(Locale.ROOT);
+         if (!COUNTRIES.contains(country)) throw new IllegalArgumentException("'" + country + "' is not an ISO2 country code");
+      } else if (Boolean.parseBoolean(query.get("holidays"))) {
+         country = Holidays.queryCountryCode();
+      }
+
+      if (!country.isEmpty() && (year < MIN_HOLIDAY_YEAR || year > MAX_HOLIDAY_YEAR)) {
+         throw new IllegalArgumentException("Holidays are only available from " + MIN_HOLIDAY_YEAR + " to " + MAX_HOLIDAY_YEAR);
+      }
+
+      // Only ANSI uses the colors, so the other formats share one entry no matter what the colors are
+      Theme theme = (format == Format.ANSI) ? ColorSettings.getTheme() : Theme.PLAIN;
+
+      return new Key(view, year, month, cols, format, theme, country, LocalDate.now());
+   }
+
+   /**
+    * parseQuery: Split a raw query string into its parameters. Values are only letters and numbers, so
+    * nothing needs to be decoded
+    */
+   private static Map<String, String> parseQuery(String rawQuery) {
+      Map<String, String> params = new HashMap<>();
+      if (rawQuery == null || rawQuery.isEmpty()) return params;
+
+      for (String param : rawQuery.split("&")) {
+         int equals = param.indexOf('=');
+         if (equals > 0) {
+            params.put(param.substring(0, equals).toLowerCase(Locale.ROOT), param.substring(equals + 1));
+         } else if (!param.isEmpty()) {
+            params.put(param.toLowerCase(Locale.ROOT), "true");
+         }
+      }
+      return params;
+   }
+
+   /**
+    * render: Build the response body for a key
+    *
+    * @param key What to render
+    * @return The UTF-8 encoded body
+    * @throws IOException If the key asks for holidays that could not be retrieved
+    */
+   static byte[] render(Key key) throws IOException {
+      TreeMap<String, String> yearHolidays = null;
+      if (!key.country().isEmpty()) {
+         yearHolidays = Holidays.requireHolidays(key.country(), key.year());
+      }
+
+      if (key.format() == Format.JSON) {
+         return renderJson(key, yearHolidays);
+      }
+
+      Frame frame = new Frame(null);
+      HolidayIndex holidayIndex = HolidayIndex.of(yearHolidays);
+      CalendarRenderer renderer = CalendarRenderer.forFormat(key.format().name().toLowerCase(Locale.ROOT), key.theme(), null);
+
+      if (key.view().equals("month")) {
+         MonthGrid grid = new MonthGrid(key.year(), key.month(), key.today(), holidayIndex);
+         renderer.beginDocument(frame, grid.title(), 1, 1);
+         CalendarView.renderRow(renderer, List.of(grid), frame);
+         renderer.endDocument(frame);
+
+         if (yearHolidays != null && renderer.queryTextLayout()) {
+            frame.println("\nHolidays");
+            String prefix = String.format("%04d-%02d-", key.year(), key.month());
+            for (Map.Entry<String, String> holiday : yearHolidays.entrySet()) {
+               if (holiday.getKey().startsWith(prefix)) frame.println(holiday.getKey() + " | " + holiday.getValue());
+            }
+         }
+
+      } else {
+         List<MonthGrid> months = new ArrayList<>(12);
+         for (int month = 1; month <= 12; month++) {
+            months.add(new MonthGrid(key.year(), month, key.today(), holidayIndex));
+         }
+
+         renderer.beginDocument(frame, String.valueOf(key.year()), (12 + key.cols() - 1) / key.cols(), key.cols());
+         for (int rowStart = 0; rowStart < 12; rowStart += key.cols()) {
+            CalendarView.renderRow(renderer, months.subList(rowStart, Math.min(rowStart + key.cols(), 12)), frame);
+            if (renderer.queryTextLayout()) frame.println("");
+         }
+         renderer.endDocument(frame);
+
+         if (yearHolidays != null && renderer.queryTextLayout()) {
+            int totalWidth = (20 * key.cols()) + (3 * (key.cols() - 1));
+            Holidays.appendHolidayListYear(frame, key.year(), totalWidth, yearHolidays, key.theme(),
+                  Holidays.queryCountry(key.country()));
+         }
+      }
+
+      return frame.toString().getBytes(StandardCharsets.UTF_8);
+   }
+
+   /**
+    * renderJson: Describe the months as JSON. Each week is 7 day numbers starting on Sunday, with 0 for
+    * the days that belong to the months on either side
+    */
+   private static byte[] renderJson(Key key, TreeMap<String, String> yearHolidays) throws IOException {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+
+      try (JsonWriter json = new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+         json.beginObject();
+         json.name("year").value(key.year());
+         if (!key.country().isEmpty()) json.name("country").value(key.country());
+         json.name("today").value(key.today().toString());
+         json.name("months").beginArray();
+
+         int firstMonth = key.view().equals("month") ? key.month() : 1;
+         int lastMonth = key.view().equals("month") ? key.month() : 12;
+
+         for (int month = firstMonth; month <= lastMonth; month++) {
+            YearMonth ym = YearMonth.of(key.year(), month);
+            MonthTemplate template = MonthTemplate.of(ym.atDay(1).getDayOfWeek().getValue() % 7, ym.lengthOfMonth());
+
+            json.beginObject();
+            json.name("month").value(month);
+            json.name("name").value(ym.getMonth().getDisplayName(TextStyle.FULL, Locale.US));
+
+            json.name("weeks").beginArray();
+            for (int[] week : template.weeks) {
+               json.beginArray();
+               for (int day : week) json.value(day);
+               json.endArray();
+            }
+            json.endArray();
+
+            json.name("holidays").beginArray();
+            if (yearHolidays != null) {
+               String prefix = String.format("%04d-%02d-", key.year(), month);
+               for (Map.Entry<String, String> holiday : yearHolidays.entrySet()) {
+                  if (!holiday.getKey().startsWith(prefix)) continue;
+                  json.beginObject();
+                  json.name("date").value(holiday.getKey());
+                  json.name("name").value(holiday.getValue());
+                  json.endObject();
+               }
+            }
+            json.endArray();
+
+            json.endObject();
+         }
+
+         json.endArray();
+         json.endObject();
+      }
+
+      return output.toByteArray();
+   }
+
+   /**
+    * sendText: Send a short plain text response, usually an error
+    */
+   private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+      send(exchange, status, (message + "\n").getBytes(StandardCharsets.UTF_8));
+   }
+
+   /**
+    * send: Send the status and body. A HEAD request only gets the headers
+    */
+   private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+      if (exchange.getRequestMethod().equals("HEAD")) {
+         exchange.sendResponseHeaders(status, -1);
+         return;
+      }
+
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream responseBody = exchange.getResponseBody()) {
+         responseBody.write(body);
+      }
+   }
+}
@@ -0,0 +1,114 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.jline.terminal.Terminal;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * CalendarRenderer draws rows of MonthGrids into an Appendable. A view hands it the months one row at a
+ * time, so a long range of years can be written out as it's rendered, and the backends write each cell
+ * straight into the output rather than building a string for it first.
+ * <p>
+ * A complete document is beginDocument(), any number of render() calls, then endDocument(). The text
+ * backends have nothing to add around the rows, and render() on its own gives a fragment that can be
+ * embedded in a larger page.
+ */
+public interface CalendarRenderer {
+   // The names accepted by forFormat()
+   List<String> FORMATS = List.of("ansi", "text", "html", "svg");
+
+   /**
+    * render: Draw one row of months side by side
+    *
+    * @param row The months in the row, left to right
+    * @param out Where the output is written
+    */
+   void render(List<MonthGrid> row, Appendable out) throws IOException;
+
+   /**
+    * beginDocument: Write whatever comes before the first row
+    *
+    * @param out     Where the output is written
+    * @param title   Title of the document, such as "2026" or "March 2026"
+    * @param rows    Number of rows of months that will be rendered
+    * @param columns The most months in a row
+    */
+   default void beginDocument(Appendable out, String title, int rows, int columns) throws IOException {
+   }
+
+   /**
+    * endDocument: Write whatever comes after the last row
+    *
+    * @param out Where the output is written
+    */
+   default void endDocument(Appendable out) throws IOException {
+   }
+
+   /**
+    * queryTextLayout: Return true if the output is lines of text laid out for a terminal, so other text,
+    * like the holiday list, can follow the rows
+    *
+    * @return True for the ANSI and plain text backends
+    */
+   default boolean queryTextLayout() {
+      return false;
+   }
+
+   /**
+    * forFormat: Create the renderer for a format name. Each document needs its own renderer
+    *
+    * @param format   One of ansi, text, html, or svg
+    * @param theme    The colors used by the ansi format
+    * @param terminal Terminal used to translate the ansi colors. Can be null
+    * @return A new renderer
+    * @throws IllegalArgumentException If the format isn't one of FORMATS
+    */
+   static CalendarRenderer forFormat(String format, Theme theme, Terminal terminal) {
+      return switch (format) {
+         case "ansi" -> new AnsiRenderer(theme, terminal);
+         case "text" -> new PlainRenderer();
+         case "html" -> new HtmlRenderer();
+         case "svg"  -> new SvgRenderer();
+         default     -> throw new IllegalArgumentException("'" + format + "' is not a calendar format. Use ansi, text, html, or svg");
+      };
+   }
+
+   /**
+    * appendNumber: Write a non-negative number as decimal digits without creating a string for it
+    *
+    * @param out   Where the digits are written
+    * @param value The number
+    */
+   static void appendNumber(Appendable out, int value) throws IOException {
+      int divisor = 1;
+      while (value / divisor >= 10) divisor *= 10;
+
+      for (; divisor > 0; divisor /= 10) {
+         out.append((char) ('0' + (value / divisor) % 10));
+      }
+   }
+}
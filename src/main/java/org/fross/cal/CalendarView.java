@@ -23,24 +23,26 @@
  * --------------------------------------------------------------------------------------*/
 package org.fross.cal;
 
-import org.fross.library.Output;
 import org.jline.terminal.Terminal;
-import org.jline.utils.AttributedString;
-import org.jline.utils.AttributedStringBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 /**
  * CalendarView manages the high-level layout of the calendar.
- * It coordinates the creation of MonthBlocks and stitches them into rows
- * for display on the JLine Terminal.
+ * It builds a MonthGrid for each month and hands them, a row at a time, to a
+ * CalendarRenderer that writes them into a Frame for display on the JLine Terminal.
  */
 public class CalendarView {
    private final Terminal terminal;
    private final LocalDate today;
+   private final boolean parallel;
+   private final String format;
 
    /**
     * Constructor for CalendarView
@@ -48,8 +50,31 @@ public class CalendarView {
     * @param today    The current date for highlighting "today"
     */
    public CalendarView(Terminal terminal, LocalDate today) {
+      this(terminal, today, false);
+   }
+
+   /**
+    * Constructor for CalendarView
+    * @param terminal The JLine terminal instance for output
+    * @param today    The current date for highlighting "today"
+    * @param parallel If true, the rows of months in a year are rendered in parallel on the common fork/join pool
+    */
+   public CalendarView(Terminal terminal, LocalDate today, boolean parallel) {
+      this(terminal, today, parallel, "ansi");
+   }
+
+   /**
+    * Constructor for CalendarView
+    * @param terminal The JLine terminal instance for output
+    * @param today    The current date for highlighting "today"
+    * @param parallel If true, the rows of months in a year are rendered in parallel on the common fork/join pool
+    * @param format   The CalendarRenderer format: ansi, text, html, or svg
+    */
+   public CalendarView(Terminal terminal, LocalDate today, boolean parallel, String format) {
       this.terminal = terminal;
       this.today = today;
+      this.parallel = parallel;
+      this.format = format;
    }
 
    /**
@@ -58,6 +83,9 @@ public class CalendarView {
     * @param nCols The number of months to display per row (e.g., 3 or 4)
     */
    public void printFullYear(int year, int nCols) {
+      // Holiday loading and terminal output are timed as their own phases
+      long phaseStart = Timings.begin();
+
       // 1. Fetch holidays once for the entire year
       // This prevents redundant API calls or disk hits during the loop
       TreeMap<String, String> yearHolidays = null;
@@ -65,50 +93,179 @@ public class CalendarView {
          yearHolidays = Holidays.getHolidays(year);
       }
 
-      // 2. Iterate through the 12 months in "chunks" (rows)
-      for (int rowStart = 1; rowStart <= 12; rowStart += nCols) {
-         List<List<AttributedString>> chunk = new ArrayList<>();
+      // Everything is rendered into a single frame and written to the terminal in one shot
+      Frame frame = new Frame(terminal);
+      CalendarRenderer renderer = createRenderer();
 
-         // Create MonthBlock objects for this specific row and grab their lines
-         for (int i = 0; i < nCols && (rowStart + i) <= 12; i++) {
-            MonthBlock mb = new MonthBlock(year, rowStart + i, today, yearHolidays);
-            chunk.add(mb.getLines());
-         }
+      try {
+         renderer.beginDocument(frame, String.valueOf(year), queryRowCount(nCols), nCols);
+         renderYear(frame, renderer, year, nCols, yearHolidays, false);
+         renderer.endDocument(frame);
+      } catch (IOException ex) {
+         // A frame never throws, so this could only come from a renderer
+         throw new UncheckedIOException(ex);
+      }
+
+      // Send the frame to the terminal via Output master gatekeeper
+      frame.flush();
+
+      Timings.end("Render", phaseStart);
+   }
+
+   /**
+    * printYearRange: Renders every year from startYear to endYear one after another.
+    * Each row of months is written as soon as it's built so memory use doesn't grow with the range,
+    * and the holidays for the next year are loaded in the background while the current year prints.
+    *
+    * @param startYear The first year to display
+    * @param endYear   The last year to display (inclusive)
+    * @param nCols     The number of months to display per row
+    */
+   public void printYearRange(int startYear, int endYear, int nCols) {
+      long phaseStart = Timings.begin();
+
+      Frame frame = new Frame(terminal);
+      CalendarRenderer renderer = createRenderer();
+      boolean holidaysEnabled = Holidays.queryHolidaysEnabled();
 
-         // 3. Stitch the lines together horizontally
-         // Each MonthBlock.getLines() returns exactly 8 lines.
-         // We iterate through line 0, then line 1, etc., across all months in the chunk.
-         for (int lineIdx = 0; lineIdx < 8; lineIdx++) {
-            AttributedStringBuilder rowBuilder = new AttributedStringBuilder();
+      if (holidaysEnabled) {
+         Holidays.prefetchHolidays(startYear);
+      }
 
-            for (int mIdx = 0; mIdx < chunk.size(); mIdx++) {
-               List<AttributedString> monthLines = chunk.get(mIdx);
+      try {
+         renderer.beginDocument(frame, startYear + "-" + endYear, (endYear - startYear + 1) * queryRowCount(nCols), nCols);
 
-               // Append the month's line (guaranteed 20 chars wide)
-               rowBuilder.append(monthLines.get(lineIdx));
+         for (int year = startYear; year <= endYear; year++) {
+            TreeMap<String, String> yearHolidays = null;
 
-               // Add a 3-space gap between columns, but not after the last month
-               if (mIdx < chunk.size() - 1) {
-                  rowBuilder.append("   ");
+            if (holidaysEnabled) {
+               // Start loading the following year before we begin printing this one
+               if (year < endYear) {
+                  Holidays.prefetchHolidays(year + 1);
                }
+               // A year that can't be loaded is drawn without holidays, and the years after it still get theirs
+               yearHolidays = Holidays.fetchRangeHolidays(year);
             }
 
-            // Print the fully stitched row to the terminal via Output master gatekeeper
-            Output.println(rowBuilder.toAnsi(terminal));
+            renderYear(frame, renderer, year, nCols, yearHolidays, true);
+            frame.flush();
+         }
+
+         renderer.endDocument(frame);
+      } catch (IOException ex) {
+         throw new UncheckedIOException(ex);
+      }
+
+      frame.flush();
+      Timings.end("Render", phaseStart);
+   }
+
+   /**
+    * renderYear: Adds a 12-month grid, and the holiday legend if enabled, to the frame.
+    *
+    * @param frame        The frame to render into
+    * @param renderer     The renderer drawing the months
+    * @param year         The year to display
+    * @param nCols        The number of months to display per row
+    * @param yearHolidays The holidays for the year, or null if they aren't displayed
+    * @param streamRows   If true, flush the frame after each row of months is complete
+    */
+   private void renderYear(Frame frame, CalendarRenderer renderer, int year, int nCols, TreeMap<String, String> yearHolidays,
+         boolean streamRows) throws IOException {
+      // 2. Build the grids for all 12 months, indexing the holidays once for the whole year
+      HolidayIndex holidayIndex = HolidayIndex.of(yearHolidays);
+      List<MonthGrid> months = new ArrayList<>(12);
+      for (int month = 1; month <= 12; month++) {
+         months.add(new MonthGrid(year, month, today, holidayIndex));
+      }
+
+      // The text renderers only read the grids and their own precomputed styles, so the rows of a year can
+      // be rendered at the same time. An ordered parallel stream keeps the rows in order
+      List<String> parallelRows = null;
+      if (parallel && renderer.queryTextLayout()) {
+         parallelRows = IntStream.range(0, queryRowCount(nCols)).parallel()
+               .mapToObj(row -> renderRowText(renderer, months.subList(row * nCols, Math.min((row + 1) * nCols, 12))))
+               .toList();
+      }
+
+      // 3. Render the months a row at a time
+      for (int row = 0; row < queryRowCount(nCols); row++) {
+         if (parallelRows != null) {
+            frame.print(parallelRows.get(row));
+         } else {
+            renderRow(renderer, months.subList(row * nCols, Math.min((row + 1) * nCols, 12)), frame);
          }
 
          // Add a blank line between rows of months for visual breathing room
-         Output.println("");
+         if (renderer.queryTextLayout()) {
+            frame.println("");
+         }
+
+         if (streamRows) {
+            frame.flush();
+         }
       }
 
       // 4. Print the Holiday Legend at the bottom if enabled
-      if (Holidays.queryHolidaysEnabled() && yearHolidays != null) {
+      if (renderer.queryTextLayout() && yearHolidays != null) {
          // Calculate total width: (20 chars per month) + (3 chars per gap)
          int totalWidth = (20 * nCols) + (3 * (nCols - 1));
-         Holidays.printHolidayListYear(year, totalWidth);
+         Holidays.appendHolidayListYear(frame, year, totalWidth, yearHolidays);
       }
+   }
+
+   /**
+    * renderRow: Have the renderer draw one row of months, recording it for a flight recording
+    *
+    * @param renderer The renderer drawing the months
+    * @param row      The months in the row
+    * @param out      Where the row is written
+    */
+   static void renderRow(CalendarRenderer renderer, List<MonthGrid> row, Appendable out) throws IOException {
+      FlightRecording.RowRender event = new FlightRecording.RowRender();
+      event.begin();
 
-      terminal.writer().flush();
+      renderer.render(row, out);
+
+      if (event.shouldCommit()) {
+         event.renderer = renderer.getClass().getSimpleName();
+         event.year = row.get(0).year();
+         event.months = row.size();
+         event.commit();
+      }
+   }
+
+   /**
+    * renderRowText: Render one row of months into its own string
+    */
+   private static String renderRowText(CalendarRenderer renderer, List<MonthGrid> row) {
+      StringBuilder text = new StringBuilder(2048);
+      try {
+         renderRow(renderer, row, text);
+      } catch (IOException ex) {
+         throw new UncheckedIOException(ex);
+      }
+      return text.toString();
+   }
+
+   /**
+    * createRenderer: The renderer for this view's format. Without color there is nothing to style, so
+    * the ansi format falls back to plain text
+    *
+    * @return A new renderer for one document
+    */
+   CalendarRenderer createRenderer() {
+      if (format.equals("ansi") && !ColorSettings.queryColorEnabled()) {
+         return new PlainRenderer();
+      }
+      return CalendarRenderer.forFormat(format, ColorSettings.getTheme(), terminal);
+   }
+
+   /**
+    * queryRowCount: Number of rows needed for 12 months
+    */
+   private static int queryRowCount(int nCols) {
+      return (12 + nCols - 1) / nCols;
    }
 
    /**
@@ -117,25 +274,35 @@ public class CalendarView {
     * @param month The month (1-12) to display
     */
    public void printMonth(int year, int month) {
+      long phaseStart = Timings.begin();
+
       // Fetch holidays for the year to ensure the grid can be highlighted
       TreeMap<String, String> holidays = null;
       if (Holidays.queryHolidaysEnabled()) {
          holidays = Holidays.getHolidays(year);
       }
 
-      MonthBlock mb = new MonthBlock(year, month, today, holidays);
+      MonthGrid grid = new MonthGrid(year, month, today, HolidayIndex.of(holidays));
+      CalendarRenderer renderer = createRenderer();
+      Frame frame = new Frame(terminal);
 
-      // FIX: Print the actual iterating 'line' item rather than an undefined rowBuilder reference
-      for (AttributedString line : mb.getLines()) {
-         Output.println(line.toAnsi(terminal));
+      try {
+         renderer.beginDocument(frame, grid.title(), 1, 1);
+         renderRow(renderer, List.of(grid), frame);
+         renderer.endDocument(frame);
+      } catch (IOException ex) {
+         throw new UncheckedIOException(ex);
       }
 
       // Print the specific holidays for this month as a list below the grid
-      if (Holidays.queryHolidaysEnabled()) {
-         Output.println("\nHolidays");
-         Output.println(Holidays.queryHolidayListMonth(month).toString());
+      if (renderer.queryTextLayout() && Holidays.queryHolidaysEnabled()) {
+         frame.println("\nHolidays");
+         frame.println(Holidays.queryHolidayListMonth(month).toString());
       }
 
-      terminal.writer().flush();
+      // Send the frame to the terminal via Output master gatekeeper
+      frame.flush();
+
+      Timings.end("Render", phaseStart);
    }
-}
\ No newline at end of file
+}
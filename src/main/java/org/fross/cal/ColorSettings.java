@@ -39,9 +39,65 @@ public class ColorSettings {
    protected static final Preferences prefs = Preferences.userRoot().node("/org/fross/cal/colors");
    private static boolean colorEnabled = true;
 
+   // Snapshot of the current colors. Built on first use and rebuilt when a color or the color state changes
+   private static volatile Theme theme = null;
+   private static volatile String themeFingerprint = null;
+   private static boolean healed = false;
+
+   // Default colors for each component if the preference key is missing
+   private static final String DEFAULT_TODAY_FG = "232";
+   private static final String DEFAULT_TODAY_BG = "154";
+
+   // Every stored color that goes into a theme
+   private static final String[] THEME_KEYS = {"month", "dayofweek", "day", "todayfg", "todaybg", "holtitle", "holtext", "holhighlight"};
+
    // Add a setter for your -z switch to call
    public static void setColorEnabled(boolean value) {
       colorEnabled = value;
+      theme = null;
+
+      // Messages printed through Output follow the same setting
+      org.fross.library.Output.enableColor(value);
+   }
+
+   public static boolean queryColorEnabled() {
+      return colorEnabled;
+   }
+
+   /**
+    * queryThemeFingerprint: A string that changes whenever the rendered colors would change. The stored
+    * colors are read without healing them, so this never writes to the preferences
+    *
+    * @return Fingerprint of the current color settings
+    */
+   public static String queryThemeFingerprint() {
+      if (!colorEnabled) return "plain";
+
+      StringBuilder fingerprint = new StringBuilder(org.fross.library.Output.boldOutput ? "bold" : "normal");
+      for (String key : THEME_KEYS) {
+         fingerprint.append('|').append(prefs.get(key, defaultColor(key)));
+      }
+      return fingerprint.toString();
+   }
+
+   /**
+    * refreshTheme: Drop the theme snapshot if the stored colors have changed since it was built. cal has no
+    * option that sets colors, so this catches edits made to the Java preferences (see Colors in the README)
+    * while the process was running. Used by modes that stay running, once per request rather than per lookup
+    */
+   public static void refreshTheme() {
+      if (theme == null) return;
+
+      // Pick up changes other processes have written to the backing store
+      try {
+         prefs.sync();
+      } catch (BackingStoreException ex) {
+         org.fross.library.Output.debugPrintln("Unable to reload the color preferences: " + ex.getMessage());
+      }
+
+      if (!queryThemeFingerprint().equals(themeFingerprint)) {
+         theme = null;
+      }
    }
 
    /**
@@ -52,91 +108,136 @@ public class ColorSettings {
     * @return The styled JLine object
     */
    public static AttributedStyle getStyle(String key) {
-      // Normalize the incoming key right away
-      key = key.toLowerCase().trim();
+      return getTheme().get(key.toLowerCase().trim());
+   }
 
+   /**
+    * getTheme: Returns the snapshot of all component styles. The preferences are only read when
+    * the snapshot is first built, so callers in the render loop should hold on to the result.
+    *
+    * @return The current Theme, or Theme.PLAIN if colorized output is disabled
+    */
+   public static Theme getTheme() {
       // 1. ABSOLUTE FIRST GATE: Check your internal colorEnabled toggle
       if (!colorEnabled) {
-         return AttributedStyle.DEFAULT;
+         return Theme.PLAIN;
       }
 
-      // Define 'today' defaults
-      String defaultTodayFG = "232";
-      String defaultTodayBG = "154";
-
-      // 2. SPECIAL CASE: "today" is a composite of two other keys
-      if (key.equals("today")) {
-         boolean changed = false;
-
-         // Read the preference values safely
-         String currentFG = prefs.get("todayfg", null);
-         String currentBG = prefs.get("todaybg", null);
-
-         if (currentFG == null) {
-            prefs.put("todayfg", defaultTodayFG);
-            currentFG = defaultTodayFG;
-            changed = true;
-         }
-         if (currentBG == null) {
-            prefs.put("todaybg", defaultTodayBG);
-            currentBG = defaultTodayBG;
-            changed = true;
-         }
-
-         // Flush changes to the OS registry if we healed anything
-         if (changed) {
-            try {
-               prefs.flush();
-            } catch (BackingStoreException e) { /* Ignore */ }
-         }
-
-         // Build the style directly using our verified variables
-         AttributedStyle todayStyle = AttributedStyle.DEFAULT
-               .foreground(getRawColor(currentFG))
-               .background(getRawColor(currentBG));
-
-         if (org.fross.library.Output.boldOutput) {
-            todayStyle = todayStyle.bold();
-         }
-
-         return todayStyle;
+      // 2. Rebuild the snapshot if it doesn't exist or the bold setting has changed since it was built
+      Theme current = theme;
+      if (current == null || current.isBold() != org.fross.library.Output.boldOutput) {
+         current = buildTheme();
+         theme = current;
       }
 
-      // 3. STANDARD CASE: Single-key components
-      String colorValue = prefs.get(key, null);
+      return current;
+   }
 
-      if (colorValue == null) {
-         colorValue = switch (key) {
-            case "todayfg"      -> defaultTodayFG;
-            case "todaybg"      -> defaultTodayBG;
-            case "month"        -> "73";
-            case "dayofweek"    -> "229";
-            case "day"          -> "231";
-            case "holtitle"     -> "73";
-            case "holtext"      -> "244";
-            case "holhighlight" -> "63";
-            default             -> "231"; // This is the defaultColor
-         };
+   /**
+    * buildTheme: Read every component color from the preferences, healing any that are missing,
+    * and build the styles for them in one pass.
+    */
+   private static synchronized Theme buildTheme() {
+      long phaseStart = Timings.begin();
+      healed = false;
 
-         prefs.put(key, colorValue);
+      String todayFG = readColor("todayfg");
+      String todayBG = readColor("todaybg");
+
+      // "today" is a composite of the two today keys
+      AttributedStyle todayStyle = AttributedStyle.DEFAULT
+            .foreground(getRawColor(todayFG))
+            .background(getRawColor(todayBG));
+
+      if (org.fross.library.Output.boldOutput) {
+         todayStyle = todayStyle.bold();
+      }
+
+      Theme newTheme = new Theme(
+            lookupStyle(readColor("month")),
+            lookupStyle(readColor("dayofweek")),
+            lookupStyle(readColor("day")),
+            todayStyle,
+            lookupStyle(todayFG),
+            lookupStyle(todayBG),
+            lookupStyle(readColor("holtitle")),
+            lookupStyle(readColor("holtext")),
+            lookupStyle(readColor("holhighlight")),
+            lookupStyle(defaultColor("")),
+            org.fross.library.Output.boldOutput);
+
+      // Flush changes to the OS registry if we healed anything
+      if (healed) {
          try {
             prefs.flush();
          } catch (BackingStoreException e) { /* Ignore */ }
       }
 
-      // 4. RETURN STYLE: Pass the exact value we resolved above
-      return lookupStyle(colorValue);
+      themeFingerprint = queryThemeFingerprint();
+
+      Timings.end("Color preferences", phaseStart);
+      return newTheme;
+   }
+
+   /**
+    * readColor: Return the color stored for a key, writing the default if it's missing
+    */
+   private static String readColor(String key) {
+      String colorValue = prefs.get(key, null);
+
+      if (colorValue == null) {
+         FlightRecording.PreferenceWrite event = new FlightRecording.PreferenceWrite();
+         event.begin();
+
+         colorValue = defaultColor(key);
+         prefs.put(key, colorValue);
+         healed = true;
+
+         event.key = key;
+         event.value = colorValue;
+         event.healed = true;
+         event.commit();
+      }
+
+      return colorValue;
+   }
+
+   /**
+    * defaultColor: The hardcoded default color for each component
+    */
+   private static String defaultColor(String key) {
+      return switch (key) {
+         case "todayfg"      -> DEFAULT_TODAY_FG;
+         case "todaybg"      -> DEFAULT_TODAY_BG;
+         case "month"        -> "73";
+         case "dayofweek"    -> "229";
+         case "day"          -> "231";
+         case "holtitle"     -> "73";
+         case "holtext"      -> "244";
+         case "holhighlight" -> "63";
+         default             -> "231"; // This is the defaultColor
+      };
    }
 
    /**
     * setColor: Updates a specific component color in the preferences.
     */
    public static void setColor(String component, String colorName) {
+      FlightRecording.PreferenceWrite event = new FlightRecording.PreferenceWrite();
+      event.begin();
+
       // Force BOTH the key and the value string to lowercase
       prefs.put(component.toLowerCase(), colorName.toLowerCase());
       try {
          prefs.flush();
       } catch (BackingStoreException e) { /* Ignore */ }
+
+      event.key = component.toLowerCase();
+      event.value = colorName.toLowerCase();
+      event.commit();
+
+      // The snapshot is now stale
+      theme = null;
    }
 
    /**
@@ -170,19 +271,14 @@ public class ColorSettings {
          } catch (NumberFormatException e) { /* Fall through to name lookup */ }
       }
 
-      // 2. Otherwise, treat it as a named color and look it up via reflection
-      try {
-         if (normalized.startsWith("GREY_")) {
-            normalized = normalized.replace("GREY_", "GRAY_");
-         }
+      // 2. Otherwise, treat it as a named color and look it up in the Output color table
+      if (normalized.startsWith("GREY_")) {
+         normalized = normalized.replace("GREY_", "GRAY_");
+      }
 
-         Class<?> outputClass = org.fross.library.Output.class;
-         java.lang.reflect.Field field = outputClass.getField(normalized);
-         return field.getInt(null);
+      int colorValue = org.fross.library.Output.queryColorValue(normalized);
 
-      } catch (Exception e) {
-         // If it's neither a valid number nor a valid name, default to white
-         return org.fross.library.Output.WHITE;
-      }
+      // If it's neither a valid number nor a valid name, default to white
+      return (colorValue >= 0) ? colorValue : org.fross.library.Output.WHITE;
    }
 }
\ No newline at end of file
@@ -31,10 +31,17 @@ import org.fross.library.GitHub;
 import org.fross.library.Output;
 import org.jline.terminal.Terminal;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.prefs.BackingStoreException;
-import java.util.prefs.Preferences;
+import java.util.Locale;
 
 public class CommandLineArgs {
    static CommandLineArgs cli = new CommandLineArgs();
@@ -42,6 +49,8 @@ public class CommandLineArgs {
    static int monthToUse = org.fross.library.Date.getCurrentMonth();
    static int yearToUse = org.fross.library.Date.getCurrentYear();
    static boolean monthSpecified = false;
+   static int rangeEndYear = 0;
+   static boolean rangeSpecified = false;
 
    // ---------------------------------------------------------------------------------------------
    // Define command line options that can be used
@@ -65,6 +74,54 @@ public class CommandLineArgs {
    @Parameter(names = {"-c", "--clear-cache"}, description = "Clear the holiday cache from the local computer")
    protected boolean clClearCache = false;
 
+   @Parameter(names = {"--builtin-holidays"}, description = "Generate holidays from the built-in rules (US, CA, GB, DE) instead of downloading them")
+   protected boolean clBuiltInHolidays = false;
+
+   @Parameter(names = {"--render-cache"}, description = "Reuse the output of identical earlier runs from a cache on disk")
+   protected boolean clRenderCache = false;
+
+   @Parameter(names = {"--prefetch-holidays"}, description = "Fill the holiday cache for a year or year range (START-END) and exit")
+   protected String clPrefetchHolidays = null;
+
+   @Parameter(names = {"--prefetch-threads"}, description = "Number of downloads --prefetch-holidays runs at the same time")
+   protected int clPrefetchThreads = HolidayPrefetch.DEFAULT_THREADS;
+
+   @Parameter(names = {"--export-ics"}, description = "Write the holidays for the year or START-END range to an iCalendar file and exit")
+   protected String clExportIcs = null;
+
+   @Parameter(names = {"--countries"}, description = "Comma separated ISO country codes used with --prefetch-holidays and --export-ics")
+   protected String clCountries = null;
+
+   @Parameter(names = {"--daemon"}, description = "Stay running in the background and render calendars for other cal commands")
+   protected boolean clDaemon = false;
+
+   @Parameter(names = {"--daemon-idle"}, description = "Minutes without a request before the daemon exits")
+   protected int clDaemonIdle = CalDaemon.DEFAULT_IDLE_MINUTES;
+
+   @Parameter(names = {"--serve"}, description = "Serve calendars over HTTP on the given port")
+   protected int clServe = 0;
+
+   @Parameter(names = {"--serve-bind"}, description = "Address --serve listens on. Defaults to the loopback address")
+   protected String clServeBind = null;
+
+   @Parameter(names = {"--batch"}, description = "Render a calendar for each line of arguments read from standard input")
+   protected boolean clBatch = false;
+
+   @Parameter(names = {"--batch-separator"}, description = "Written after each calendar in --batch mode. Accepts \\n, \\t, \\f and \\0")
+   protected String clBatchSeparator = null;
+
+   @Parameter(names = {"--timings"}, description = "Print how long each phase of the run took to standard error")
+   protected boolean clTimings = false;
+
+   @Parameter(names = {"--timings-json"}, description = "Print the phase timings to standard error as JSON")
+   protected boolean clTimingsJson = false;
+
+   @Parameter(names = {"--jfr"}, description = "Write a Java Flight Recorder recording of the run to the given file")
+   protected String clJfr = null;
+
+   @Parameter(names = {"--format"}, description = "Output format: ansi, text, html, or svg")
+   protected String clFormat = "ansi";
+
    @Parameter(names = {"-n", "--num"}, description = "Number of calendar months to display per row")
    protected int clNum = 0;
 
@@ -76,6 +133,7 @@ public class CommandLineArgs {
    // ---------------------------------------------------------------------------------------------
    public static void ProcessCommandLine(String[] argv, Terminal terminal) {
       // JCommander parses the command line
+      long phaseStart = Timings.begin();
       try {
          jc = JCommander.newBuilder().programName("cal").addObject(cli).build();
          jc.parse(argv);
@@ -84,6 +142,7 @@ public class CommandLineArgs {
          jc.usage();
          System.exit(0);
       }
+      Timings.end("Command line parsing", phaseStart);
 
       // ---------------------------------------------------------------------------------------------
       // Process the parsed command line options
@@ -96,8 +155,8 @@ public class CommandLineArgs {
       // Set the number of months to display per row
       if (cli.clNum == 0) {
          // USER DID NOT PROVIDE -n: Perform Auto-Fit based on terminal width
-         // Check for null terminal to avoid NullPointerException in tests
-         int width = (terminal != null) ? terminal.getSize().getColumns() : 80;
+         // Without a terminal (piped output, or tests) use $COLUMNS like other command line tools do
+         int width = (terminal != null) ? terminal.getSize().getColumns() : queryColumnsVariable();
 
          // Sanitize width: If JLine returns 0 or something weird, default to 80
          if (width <= 0 || width > 500) {
@@ -130,8 +189,14 @@ public class CommandLineArgs {
          System.exit(0);
       }
 
+      // Output format. Plain text is the same as turning off color, which also keeps the holiday list plain
+      cli.clFormat = cli.clFormat.toLowerCase();
+      if (!CalendarRenderer.FORMATS.contains(cli.clFormat)) {
+         Output.fatalError("--format must be ansi, text, html, or svg", 6);
+      }
+
       // Disable Colorized Output Switch
-      if (cli.clNoColor) {
+      if (cli.clNoColor || cli.clFormat.equals("text")) {
          ColorSettings.setColorEnabled(false);
       }
 
@@ -140,12 +205,44 @@ public class CommandLineArgs {
          Holidays.setDisplayHolidays(true);
       }
 
+      // Use the built-in holiday rules instead of the cache or internet
+      if (cli.clBuiltInHolidays) {
+         Holidays.setUseBuiltInRules(true);
+      }
+
+      // Keep rendered calendars on disk and reuse them
+      if (cli.clRenderCache) {
+         OutputCache.setEnabled(true);
+      }
+
       // Clear the holiday cache in the Java preferences system
       if (cli.clClearCache) {
          clearCache();
          System.exit(0);
       }
 
+      // Fill the holiday cache and exit
+      if (cli.clPrefetchHolidays != null) {
+         prefetchHolidays(cli.clPrefetchHolidays, cli.clCountries, cli.clPrefetchThreads);
+      }
+
+      // Run as a daemon until it's been idle too long, then exit
+      if (cli.clDaemon) {
+         CalDaemon.serve(cli.clDaemonIdle);
+         System.exit(0);
+      }
+
+      // Serve calendars over HTTP until the process is stopped
+      if (cli.clServe != 0) {
+         CalServer.serve(cli.clServe, cli.clServeBind);
+         System.exit(0);
+      }
+
+      // Render a calendar for every line on standard input and exit
+      if (cli.clBatch) {
+         runBatch(cli.clBatchSeparator, CalBatch.queryBatchOptions(argv));
+      }
+
       // Show Help and Exit
       if (cli.clHelp) {
          Help.display();
@@ -163,6 +260,21 @@ public class CommandLineArgs {
 
             // Just a Year or Month provided
             case 1:
+               // A range of years is provided as START-END
+               if (cli.clMonthAndOrYear.get(0).matches("\\d+-\\d+")) {
+                  String[] range = cli.clMonthAndOrYear.get(0).split("-");
+                  yearToUse = Integer.parseInt(range[0]);
+                  rangeEndYear = Integer.parseInt(range[1]);
+                  rangeSpecified = true;
+
+                  if (yearToUse <= 0 || rangeEndYear < yearToUse) {
+                     Output.fatalError("A year range must be given as START-END with START greater than zero and not after END", 6);
+                  }
+
+                  Output.debugPrintln("Commandline Year range provided. Showing Years: " + yearToUse + " to " + rangeEndYear);
+                  break;
+               }
+
                int d = Integer.parseInt(cli.clMonthAndOrYear.get(0));
 
                // If the entered number is greater than 12 then it must be a year
@@ -190,10 +302,64 @@ public class CommandLineArgs {
       } catch (NumberFormatException ex) {
          Output.fatalError("Parameters can only be numbers.  Usage '-h' for options", 99);
 
+      } catch (Output.FatalErrorException ex) {
+         // Already reported. Pass it on when running as a daemon
+         throw ex;
+
       } catch (Exception ex) {
          Output.fatalError("Something went very wrong.  You shouldn't really see this.  Eeek!\n" + ex.getMessage(), 99);
       }
 
+      // Write the holidays for the years given to an iCalendar file and exit
+      if (cli.clExportIcs != null) {
+         exportIcs(cli.clExportIcs, cli.clCountries);
+      }
+   }
+
+   /**
+    * queryHolidayPrefetchYear: Take a quick look at the raw arguments before they are parsed to see if
+    * holidays will be displayed, and for which year. This lets the holidays start loading while the
+    * rest of the program starts up. Full validation still happens in ProcessCommandLine().
+    * Only command lines that just draw a calendar qualify, so options such as -c, -h, --daemon, and
+    * --export-ics never have a load running behind them.
+    *
+    * @param argv Command line arguments
+    * @return The year whose holidays will be displayed, or 0 if holidays are not requested
+    */
+   public static int queryHolidayPrefetchYear(String[] argv) {
+      if (!CalDaemon.isRenderOnly(argv)) return 0;
+
+      boolean displayHolidays = false;
+      boolean builtInHolidays = false;
+      List<String> params = new ArrayList<>();
+
+      for (int i = 0; i < argv.length; i++) {
+         switch (argv[i]) {
+            case "-d", "--display-holidays" -> displayHolidays = true;
+            case "--builtin-holidays" -> builtInHolidays = true;
+            case "-n", "--num", "--format" -> i++; // Skip the value that follows
+            default -> {
+               if (!argv[i].startsWith("-")) params.add(argv[i]);
+            }
+         }
+      }
+
+      // The built-in rules are instant so there is nothing to gain by starting early
+      if (!displayHolidays || builtInHolidays) return 0;
+
+      try {
+         if (params.size() == 1 && params.get(0).matches("\\d+-\\d+")) {
+            return Integer.parseInt(params.get(0).split("-")[0]);
+         } else if (params.size() == 1 && Integer.parseInt(params.get(0)) > 12) {
+            return Integer.parseInt(params.get(0));
+         } else if (params.size() == 2) {
+            return Integer.parseInt(params.get(1));
+         }
+      } catch (NumberFormatException ex) {
+         return 0;
+      }
+
+      return org.fross.library.Date.getCurrentYear();
    }
 
    // Determine if user entered a month on the command line
@@ -201,6 +367,20 @@ public class CommandLineArgs {
       return monthSpecified;
    }
 
+   // Determine if user entered a range of years on the command line
+   public static boolean isRangeSpecified() {
+      return rangeSpecified;
+   }
+
+   /**
+    * Return the last year of the range to display after processing the command line
+    *
+    * @return Last year of the range
+    */
+   public static int queryRangeEndYear() {
+      return rangeEndYear;
+   }
+
    /**
     * Return the month to use after processing the command line
     *
@@ -219,6 +399,15 @@ public class CommandLineArgs {
       return yearToUse;
    }
 
+   /**
+    * Return the output format selected with --format
+    *
+    * @return ansi, text, html, or svg
+    */
+   public static String queryFormat() {
+      return cli.clFormat;
+   }
+
    /**
     * Return the number of months per row to display
     *
@@ -229,19 +418,168 @@ public class CommandLineArgs {
    }
 
    /**
-    * clearCache(): Clear the holiday preferences cache
+    * queryColumnsVariable(): Width of the output from the COLUMNS environment variable
+    *
+    * @return The number of columns, or 80 if COLUMNS isn't set
+    */
+   static int queryColumnsVariable() {
+      return parseColumns(System.getenv("COLUMNS"));
+   }
+
+   /**
+    * parseColumns(): Convert a COLUMNS value to a width
+    *
+    * @param value Value of the COLUMNS variable, or null
+    * @return The number of columns, or 80 if the value isn't a number
+    */
+   static int parseColumns(String value) {
+      if (value == null) return 80;
+
+      try {
+         return Integer.parseInt(value.trim());
+      } catch (NumberFormatException ex) {
+         return 80;
+      }
+   }
+
+   /**
+    * clearCache(): Clear the holiday cache
     */
    public static void clearCache() {
-      Preferences prefHolidayCache = Preferences.userRoot().node("/org/fross/cal/holidays");
       try {
-         prefHolidayCache.removeNode();
+         HolidayCache.clear();
+         OutputCache.clear();
          Output.printColorln(Output.CYAN, "Clearing the local holiday cache");
 
-      } catch (BackingStoreException ex) {
+      } catch (IOException ex) {
          Output.printColorln(Output.RED, "ERROR: Could not clear the holiday cache");
       }
    }
 
+   /**
+    * prefetchHolidays(): Fill the holiday cache for the years and countries provided and exit
+    *
+    * @param years     A single year or a START-END range
+    * @param countries Comma separated ISO2 country codes. If null, the local country is used
+    * @param threads   Number of downloads to run at the same time
+    */
+   public static void prefetchHolidays(String years, String countries, int threads) {
+      int startYear = 0;
+      int endYear = 0;
+
+      try {
+         String[] range = years.trim().split("-");
+         startYear = Integer.parseInt(range[0].trim());
+         endYear = (range.length > 1) ? Integer.parseInt(range[1].trim()) : startYear;
+      } catch (NumberFormatException ex) {
+         Output.fatalError("--prefetch-holidays needs a year or a START-END range of years", 6);
+      }
+
+      if (startYear <= 0 || endYear < startYear) {
+         Output.fatalError("A year range must be given as START-END with START greater than zero and not after END", 6);
+      }
+
+      if (threads < 1 || threads > 64) {
+         Output.fatalError("--prefetch-threads must be a number from 1 to 64", 6);
+      }
+
+      List<String> countryList = parseCountries(countries);
+
+      long phaseStart = Timings.begin();
+      HolidayPrefetch.Summary summary = HolidayPrefetch.run(startYear, endYear, countryList, threads);
+      Timings.end("Holiday prefetch", phaseStart);
+
+      exitBulkMode(summary.failed == 0 ? 0 : 1, cli.clTimingsJson);
+   }
+
+   /**
+    * exportIcs(): Write the holidays for the year or range of years on the command line to an iCalendar
+    * file and exit
+    *
+    * @param fileName  The file to write
+    * @param countries Comma separated ISO2 country codes. If null, the local country is used
+    */
+   public static void exportIcs(String fileName, String countries) {
+      int startYear = yearToUse;
+      int endYear = rangeSpecified ? rangeEndYear : yearToUse;
+      List<String> countryList = parseCountries(countries);
+      IcsExport.Summary summary = null;
+
+      if (startYear <= 0) {
+         Output.fatalError("The year to export must be greater than zero", 6);
+      }
+
+      long phaseStart = Timings.begin();
+      try {
+         summary = IcsExport.export(Paths.get(fileName), startYear, endYear, countryList);
+      } catch (IOException ex) {
+         Output.fatalError("Unable to write the iCalendar file '" + fileName + "': " + ex.getMessage(), 8);
+      }
+      Timings.end("iCalendar export", phaseStart);
+
+      Output.printColorln(Output.CYAN, "Exported " + summary.events + " holidays for " + String.join(", ", countryList)
+            + " from " + startYear + " to " + endYear + " to '" + fileName + "'");
+      exitBulkMode(summary.failed == 0 ? 0 : 1, cli.clTimingsJson);
+   }
+
+   /**
+    * parseCountries(): Split a --countries value into upper case ISO2 codes
+    *
+    * @param countries Comma separated ISO2 country codes. If null, the local country is used
+    * @return The country codes
+    */
+   static List<String> parseCountries(String countries) {
+      List<String> countryList = new ArrayList<>();
+
+      if (countries == null) {
+         countryList.add(Holidays.queryCountryCode());
+      } else {
+         for (String country : countries.split(",")) {
+            if (!country.isBlank()) countryList.add(country.trim().toUpperCase(Locale.ROOT));
+         }
+      }
+
+      return countryList;
+   }
+
+   /**
+    * runBatch(): Render the command lines read from standard input and exit
+    *
+    * @param separator The separator given with --batch-separator, or null for the default
+    * @param options   Options given with --batch that apply to every line
+    */
+   public static void runBatch(String separator, String[] options) {
+      CalBatch.Summary summary = null;
+
+      // Each line resets the command line, so remember how the timings should be printed
+      boolean timingsJson = cli.clTimingsJson;
+
+      long phaseStart = Timings.begin();
+      try {
+         OutputStream stdout = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 65536);
+         summary = CalBatch.run(new InputStreamReader(System.in, StandardCharsets.UTF_8), stdout, CalBatch.parseSeparator(separator), options);
+      } catch (IOException ex) {
+         Output.fatalError("Unable to process the batch: " + ex.getMessage(), 8);
+      }
+      Timings.end("Batch", phaseStart);
+
+      exitBulkMode(summary.failed == 0 ? 0 : 1, timingsJson);
+   }
+
+   /**
+    * exitBulkMode(): The bulk modes exit from here rather than returning to Main, so print the phase
+    * timings first if they were asked for
+    *
+    * @param exitCode    The exit code for the process
+    * @param timingsJson True to print the timings as JSON
+    */
+   private static void exitBulkMode(int exitCode, boolean timingsJson) {
+      if (Timings.isEnabled()) {
+         Timings.print(timingsJson);
+      }
+      System.exit(exitCode);
+   }
+
    /**
     * reset: Reset the static variables to their defaults.
     * This is primarily used for unit testing to ensure a clean state.
@@ -251,6 +589,8 @@ public class CommandLineArgs {
       monthToUse = org.fross.library.Date.getCurrentMonth();
       yearToUse = org.fross.library.Date.getCurrentYear();
       monthSpecified = false;
+      rangeEndYear = 0;
+      rangeSpecified = false;
       // Note: jc doesn't strictly need a reset as it's rebuilt in ProcessCommandLine
    }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+import org.fross.library.Output;
+
+/**
+ * FlightRecording holds the Java Flight Recorder events cal emits and starts a recording when --jfr is given.
+ * The events show up under "Cal" in JDK Mission Control next to the JVM's own events, so a slow holiday
+ * lookup or flush can be lined up with GC pauses and class loading. An event that isn't being recorded
+ * costs almost nothing, so they are always emitted.
+ * <p>
+ * The recording is written by the JDK when the JVM exits, which covers the many places cal calls System.exit().
+ */
+public class FlightRecording {
+   private static Recording recording = null;
+
+   /**
+    * HolidayLookup: A read of one year of holidays from the on-disk holiday cache
+    */
+   @Name("org.fross.cal.HolidayLookup")
+   @Label("Holiday Cache Lookup")
+   @Category("Cal")
+   @Description("A read of one year of holidays from the holiday cache")
+   static class HolidayLookup extends Event {
+      @Label("Country")
+      String country;
+
+      @Label("Year")
+      int year;
+
+      @Label("Hit")
+      @Description("True if the year was found in the cache")
+      boolean hit;
+   }
+
+   /**
+    * MonthRender: Building the MonthGrid of one month that the renderers draw from
+    */
+   @Name("org.fross.cal.MonthRender")
+   @Label("Month Render")
+   @Category("Cal")
+   @Description("Building the grid of one month")
+   static class MonthRender extends Event {
+      @Label("Year")
+      int year;
+
+      @Label("Month")
+      int month;
+
+      @Label("Holidays")
+      @Description("True if the days were checked against a holiday list")
+      boolean holidays;
+   }
+
+   /**
+    * RowRender: A CalendarRenderer drawing one row of months
+    */
+   @Name("org.fross.cal.RowRender")
+   @Label("Row Render")
+   @Category("Cal")
+   @Description("A calendar renderer drawing one row of months")
+   static class RowRender extends Event {
+      @Label("Renderer")
+      String renderer;
+
+      @Label("Year")
+      int year;
+
+      @Label("Months")
+      int months;
+   }
+
+   /**
+    * FrameFlush: Writing a rendered frame to the terminal
+    */
+   @Name("org.fross.cal.FrameFlush")
+   @Label("Frame Flush")
+   @Category("Cal")
+   @Description("Writing a rendered frame to the terminal")
+   static class FrameFlush extends Event {
+      @Label("Characters")
+      int characters;
+   }
+
+   /**
+    * PreferenceWrite: Storing a color in the Java preferences
+    */
+   @Name("org.fross.cal.PreferenceWrite")
+   @Label("Preference Write")
+   @Category("Cal")
+   @Description("Storing a color in the Java preferences")
+   static class PreferenceWrite extends Event {
+      @Label("Key")
+      String key;
+
+      @Label("Value")
+      String value;
+
+      @Label("Default")
+      @Description("True if a missing color was filled in with its default")
+      boolean healed;
+   }
+
+   /**
+    * queryRequestedFile: Take a quick look at the raw arguments for --jfr before they are parsed so the
+    * recording covers the whole run
+    *
+    * @param argv Command line arguments
+    * @return The file to write the recording to, or null if --jfr wasn't given
+    */
+   public static String queryRequestedFile(String[] argv) {
+      for (int i = 0; i < argv.length - 1; i++) {
+         if (argv[i].equals("--jfr")) return argv[i + 1];
+      }
+      return null;
+   }
+
+   /**
+    * start: Start recording with the JDK's default settings plus the cal events. The recording is
+    * written to the file when the JVM exits
+    *
+    * @param fileName File to write the recording to
+    */
+   public static synchronized void start(String fileName) {
+      if (recording != null) return;
+
+      Path destination = Paths.get(fileName).toAbsolutePath();
+      try {
+         recording = new Recording(jdk.jfr.Configuration.getConfiguration("default"));
+         recording.setName("cal");
+         recording.setToDisk(true);
+         recording.setDestination(destination);
+         recording.setDumpOnExit(true);
+         recording.enable(HolidayLookup.class);
+         recording.enable(MonthRender.class);
+         recording.enable(RowRender.class);
+         recording.enable(FrameFlush.class);
+         recording.enable(PreferenceWrite.class);
+         recording.enable(org.fross.library.HttpFetch.FetchEvent.class);
+         recording.start();
+
+      } catch (IOException | java.text.ParseException | RuntimeException ex) {
+         Output.printColorln(Output.RED, "Unable to start the flight recording: " + ex.getMessage());
+         recording = null;
+         return;
+      }
+
+      Output.debugPrintln("Flight recording will be written to '" + destination + "'");
+   }
+
+   /**
+    * stop: Stop the recording and write it to its file now rather than waiting for the JVM to exit
+    */
+   public static synchronized void stop() {
+      if (recording == null) return;
+
+      try {
+         // Stopping writes the recording to the destination given in start()
+         recording.stop();
+      } catch (RuntimeException ex) {
+         System.err.println("Unable to write the flight recording: " + ex.getMessage());
+      } finally {
+         recording.close();
+         recording = null;
+      }
+   }
+
+}
@@ -0,0 +1,157 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+import org.jline.utils.AttributedCharSequence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frame collects everything a view prints into a single buffer so it can be sent to the terminal
+ * with one write and one flush instead of a flush for every line. It's an Appendable so a CalendarRenderer
+ * can write straight into the buffer.
+ */
+public class Frame implements Appendable {
+   private final Terminal terminal;
+   private final StringBuilder buffer;
+   private static final String NEWLINE = System.lineSeparator();
+
+   /**
+    * Constructor for Frame
+    *
+    * @param terminal The JLine terminal used to translate styles into ANSI codes. Can be null
+    */
+   public Frame(Terminal terminal) {
+      this.terminal = terminal;
+      this.buffer = new StringBuilder(4096);
+   }
+
+   /**
+    * print: Add text to the frame
+    *
+    * @param msg Text to add (can contain ANSI codes)
+    * @return This frame
+    */
+   public Frame print(String msg) {
+      buffer.append(msg);
+      return this;
+   }
+
+   /**
+    * println: Add text and a line separator to the frame
+    *
+    * @param msg Text to add (can contain ANSI codes)
+    * @return This frame
+    */
+   public Frame println(String msg) {
+      buffer.append(msg).append(NEWLINE);
+      return this;
+   }
+
+   /**
+    * println: Add a styled line to the frame, converting it to ANSI for the terminal
+    *
+    * @param line Styled text to add
+    * @return This frame
+    */
+   public Frame println(AttributedCharSequence line) {
+      return println(line.toAnsi(terminal));
+   }
+
+   @Override
+   public Frame append(CharSequence csq) {
+      buffer.append(csq);
+      return this;
+   }
+
+   @Override
+   public Frame append(CharSequence csq, int start, int end) {
+      buffer.append(csq, start, end);
+      return this;
+   }
+
+   @Override
+   public Frame append(char c) {
+      buffer.append(c);
+      return this;
+   }
+
+   /**
+    * length: Number of characters currently in the frame
+    *
+    * @return Buffered character count
+    */
+   public int length() {
+      return buffer.length();
+   }
+
+   /**
+    * flush: Write the frame to the terminal in one operation and empty the buffer
+    */
+   public void flush() {
+      if (buffer.isEmpty()) return;
+
+      long phaseStart = Timings.begin();
+      FlightRecording.FrameFlush event = new FlightRecording.FrameFlush();
+      event.begin();
+
+      event.characters = buffer.length();
+      Output.print(buffer.toString());
+      buffer.setLength(0);
+
+      event.commit();
+      Timings.end("Terminal output", phaseStart);
+   }
+
+   /**
+    * captureTerminal: A terminal that writes UTF-8 to a stream instead of the screen. Point Output at it
+    * to capture exactly what a view would have displayed
+    *
+    * @param output  Where the terminal writes
+    * @param type    Terminal type, which decides how styles are translated into ANSI codes
+    * @param columns Width of the terminal
+    * @return The new terminal. The caller closes it
+    */
+   static Terminal captureTerminal(OutputStream output, String type, int columns) throws IOException {
+      return TerminalBuilder.builder()
+            .system(false)
+            .streams(InputStream.nullInputStream(), output)
+            .type(type)
+            .encoding(StandardCharsets.UTF_8)
+            .size(new Size(columns, 24))
+            .build();
+   }
+
+   @Override
+   public String toString() {
+      return buffer.toString();
+   }
+}
@@ -49,6 +49,32 @@ public class Help {
       Output.printColorln(Output.WHITE, " -n #        Number of calendars per row in Year view. Will autoscale to your term");
       Output.printColorln(Output.WHITE, " -d          Display local country holidays in the calendar");
       Output.printColorln(Output.WHITE, " -c          Clear the holiday cache on the local computer and exit");
+      Output.printColorln(Output.WHITE, " --builtin-holidays");
+      Output.printColorln(Output.WHITE, "             Use the built-in holiday rules (US, CA, GB, DE) instead of downloading");
+      Output.printColorln(Output.WHITE, " --render-cache");
+      Output.printColorln(Output.WHITE, "             Reuse the output of identical earlier runs from a cache on disk");
+      Output.printColorln(Output.WHITE, " --prefetch-holidays START-END");
+      Output.printColorln(Output.WHITE, "             Fill the holiday cache for the years given and exit");
+      Output.printColorln(Output.WHITE, " --prefetch-threads #");
+      Output.printColorln(Output.WHITE, "             Downloads --prefetch-holidays runs at the same time. Default is " + HolidayPrefetch.DEFAULT_THREADS);
+      Output.printColorln(Output.WHITE, " --export-ics FILE");
+      Output.printColorln(Output.WHITE, "             Write the holidays for the YEAR or START-END given to an iCalendar file");
+      Output.printColorln(Output.WHITE, " --countries US,CA,GB");
+      Output.printColorln(Output.WHITE, "             Countries to use with --prefetch-holidays and --export-ics. Defaults to the local country");
+      Output.printColorln(Output.WHITE, " --daemon    Stay running in the background so other cal commands start instantly");
+      Output.printColorln(Output.WHITE, " --daemon-idle MINUTES");
+      Output.printColorln(Output.WHITE, "             Minutes without a request before the daemon exits. Default is 30");
+      Output.printColorln(Output.WHITE, " --serve PORT");
+      Output.printColorln(Output.WHITE, "             Serve calendars over HTTP at /year/{year} and /month/{year}/{month}");
+      Output.printColorln(Output.WHITE, " --serve-bind ADDRESS");
+      Output.printColorln(Output.WHITE, "             Address --serve listens on. Default is only this computer (loopback)");
+      Output.printColorln(Output.WHITE, " --batch     Render a calendar for each line of arguments read from standard input");
+      Output.printColorln(Output.WHITE, " --batch-separator SEP");
+      Output.printColorln(Output.WHITE, "             Written after each calendar in --batch mode. Default is a form feed (\\f)");
+      Output.printColorln(Output.WHITE, " --format FORMAT");
+      Output.printColorln(Output.WHITE, "             Write the calendar as ansi (default), text, html, or svg");
+      Output.printColorln(Output.WHITE, " --timings   Show how long each phase of the run took. --timings-json for JSON");
+      Output.printColorln(Output.WHITE, " --jfr FILE  Write a Java Flight Recorder recording of the run to FILE");
       Output.printColorln(Output.WHITE, " -D          Start in debug mode");
       Output.printColorln(Output.WHITE, " -v          Display the program version and latest GitHub Cal release");
       Output.printColorln(Output.WHITE, " -z          Disable colorized output");
@@ -57,6 +83,7 @@ public class Help {
       Output.printColorln(Output.YELLOW, "\nParameters:");
       Output.printColorln(Output.WHITE, "<None>       Display the current year");
       Output.printColorln(Output.WHITE, "YEAR         Display the entire YEAR");
+      Output.printColorln(Output.WHITE, "START-END    Display every year from START to END");
       Output.printColorln(Output.WHITE, "MONTH        Display the MONTH in the current year");
       Output.printColorln(Output.WHITE, "MONTH YEAR   Display the MONTH and YEAR provided");
 
@@ -66,6 +93,7 @@ public class Help {
       Output.printColorln(Output.WHITE, "  java -jar cal.jar 9       Display September of the current year");
       Output.printColorln(Output.WHITE, "  java -jar cal.jar 2022    Display the entire year 2022");
       Output.printColorln(Output.WHITE, "  java -jar cal.jar 9 2022  Display only September of 2022");
+      Output.printColorln(Output.WHITE, "  java -jar cal.jar 2020-2030 Display every year from 2020 through 2030");
       Output.printColorln(Output.WHITE, "  java -jar cal.jar -D 6    Display June of current year in debug mode");
       Output.printColorln(Output.WHITE, "  java -jar cal.jar -h      Show this help information");
       Output.printColorln(Output.WHITE, "  java -jar cal.jar -v      Show current version and latest GitHub Cal release");
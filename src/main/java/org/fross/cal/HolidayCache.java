@@ -0,0 +1,480 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * HolidayCache stores downloaded holidays in a single compact binary file. The file starts with an index
+ * of (country, year) entries pointing at the data block for each year, so a lookup only needs to read the
+ * small index and map the one block it's after.
+ *
+ * <pre>
+ * Header: int MAGIC, int VERSION, int entryCount
+ * Index:  entryCount x [byte[2] country, int year, int offset, int length]
+ * Blocks: long fetchedMillis, short eTagLength, byte[] eTag, short lastModifiedLength, byte[] lastModified,
+ *         short holidayCount, then holidayCount x [byte month, byte day, short nameLength, byte[] UTF-8 name]
+ * </pre>
+ * <p>
+ * The ETag and Last-Modified values returned by the server are kept with each year so a stale entry can
+ * be revalidated with a conditional request. Holidays cached in the Java preferences system by older versions of cal are migrated on first use.
+ * <p>
+ * Writers read the whole file, change it, and move a new copy into place. They hold a lock on a
+ * holidays.dat.lock file next to the cache while they do, so cal processes running at the same time (a
+ * daemon and a prefetch, say) don't lose each other's years. Readers don't need the lock since the file
+ * is always replaced in one move.
+ */
+public class HolidayCache {
+   private static final int MAGIC = 0x43414C48;   // "CALH"
+   private static final int VERSION = 2;
+   private static final int HEADER_SIZE = 12;
+   private static final int INDEX_ENTRY_SIZE = 14;
+   protected static final String LEGACY_PREFS_NODE = "/org/fross/cal/holidays";
+   private static final boolean IS_WINDOWS = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+   // Cached years older than this are revalidated with the server
+   public static final Duration REVALIDATE_AFTER = Duration.ofDays(30);
+
+   private static Path cacheFile = defaultCacheFile();
+   private static boolean migrated = false;
+
+   /**
+    * Entry: A cached year of holidays and the details needed to revalidate it
+    */
+   public static class Entry {
+      public final TreeMap<String, String> holidays;
+      public final long fetchedMillis;
+      public final String eTag;
+      public final String lastModified;
+
+      public Entry(TreeMap<String, String> holidays, long fetchedMillis, String eTag, String lastModified) {
+         this.holidays = holidays;
+         this.fetchedMillis = fetchedMillis;
+         this.eTag = eTag;
+         this.lastModified = lastModified;
+      }
+
+      /**
+       * isStale: True if the entry is old enough that it should be checked with the server
+       *
+       * @return True if the entry should be revalidated
+       */
+      public boolean isStale() {
+         return System.currentTimeMillis() - fetchedMillis > REVALIDATE_AFTER.toMillis();
+      }
+   }
+
+   /**
+    * defaultCacheFile: The cache lives in the cal data directory
+    */
+   private static Path defaultCacheFile() {
+      return queryDataDirectory().resolve("holidays.dat");
+   }
+
+   /**
+    * queryDataDirectory: Where cal keeps its files. This is the snap's user data directory when running
+    * as a snap, otherwise a .cal directory in the user's home
+    *
+    * @return The data directory. It may not exist yet
+    */
+   static Path queryDataDirectory() {
+      String snapUserData = System.getenv("SNAP_USER_DATA");
+      return (snapUserData != null) ? Path.of(snapUserData) : Path.of(System.getProperty("user.home"), ".cal");
+   }
+
+   /**
+    * setCacheFile: Point the cache at a different file. Used by the tests and benchmarks.
+    *
+    * @param file The cache file to use
+    */
+   static synchronized void setCacheFile(Path file) {
+      cacheFile = file;
+      migrated = true;
+   }
+
+   /**
+    * queryCacheFile: Return the location of the cache file
+    *
+    * @return Cache file path
+    */
+   public static Path queryCacheFile() {
+      return cacheFile;
+   }
+
+   /**
+    * get: Return the cached holidays for a country and year
+    *
+    * @param countryCode ISO2 country code
+    * @param year        The year
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names, or null if the year is not cached
+    */
+   public static TreeMap<String, String> get(String countryCode, int year) {
+      Entry entry = getEntry(countryCode, year);
+      return (entry == null) ? null : entry.holidays;
+   }
+
+   /**
+    * getEntry: Return the cached holidays for a country and year along with their revalidation details
+    *
+    * @param countryCode ISO2 country code
+    * @param year        The year
+    * @return The cache entry, or null if the year is not cached
+    */
+   public static synchronized Entry getEntry(String countryCode, int year) {
+      FlightRecording.HolidayLookup event = new FlightRecording.HolidayLookup();
+      event.begin();
+
+      Entry entry = readEntry(countryCode, year);
+
+      event.country = countryCode;
+      event.year = year;
+      event.hit = entry != null;
+      event.commit();
+      return entry;
+   }
+
+   /**
+    * readEntry: Find and decode a year in the cache file
+    */
+   private static Entry readEntry(String countryCode, int year) {
+      migrateLegacyCache();
+      if (!Files.exists(cacheFile) || countryCode.length() != 2) return null;
+
+      try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+         int[] block = findBlock(channel, countryCode, year);
+         if (block == null) return null;
+
+         // Windows won't let us replace a file while any part of it is mapped, so read the block instead
+         ByteBuffer data = IS_WINDOWS ? readFully(channel, block[0], block[1]) : channel.map(FileChannel.MapMode.READ_ONLY, block[0], block[1]);
+         return decodeBlock(data, year);
+
+      } catch (IOException | RuntimeException ex) {
+         Output.debugPrintln("Unable to read the holiday cache '" + cacheFile + "': " + ex.getMessage());
+         return null;
+      }
+   }
+
+   /**
+    * put: Add or replace a year of holidays in the cache
+    *
+    * @param countryCode  ISO2 country code
+    * @param year         The year
+    * @param yearHolidays TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    */
+   public static void put(String countryCode, int year, TreeMap<String, String> yearHolidays) {
+      put(countryCode, year, yearHolidays, null, null);
+   }
+
+   /**
+    * put: Add or replace a year of holidays in the cache along with the server's validators for it
+    *
+    * @param countryCode  ISO2 country code
+    * @param year         The year
+    * @param yearHolidays TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    * @param eTag         ETag returned by the server, or null
+    * @param lastModified Last-Modified value returned by the server, or null
+    */
+   public static synchronized void put(String countryCode, int year, TreeMap<String, String> yearHolidays, String eTag, String lastModified) {
+      if (countryCode.length() != 2) return;
+
+      putAll(Map.of(entryKey(countryCode, year), new Entry(yearHolidays, System.currentTimeMillis(), eTag, lastModified)));
+   }
+
+   /**
+    * putAll: Add or replace many years at once with a single rewrite of the cache file
+    *
+    * @param newEntries Entries keyed by entryKey(countryCode, year)
+    */
+   public static synchronized void putAll(Map<String, Entry> newEntries) {
+      migrateLegacyCache();
+      if (newEntries.isEmpty()) return;
+
+      try (FileChannel lockChannel = openLockFile(); FileLock lock = lockChannel.lock()) {
+         TreeMap<String, Entry> entries = readAll();
+         entries.putAll(newEntries);
+         write(entries);
+
+      } catch (IOException ex) {
+         Output.debugPrintln("Unable to write the holiday cache '" + cacheFile + "': " + ex.getMessage());
+      }
+   }
+
+   /**
+    * openLockFile: Open the file every cal process locks while it rewrites the cache. It's separate from
+    * the cache file because that file is replaced by each write
+    */
+   private static FileChannel openLockFile() throws IOException {
+      Path lockFile = cacheFile.toAbsolutePath().resolveSibling(cacheFile.getFileName() + ".lock");
+      Files.createDirectories(lockFile.getParent());
+      return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+   }
+
+   /**
+    * clear: Remove the cache file and any holidays still in the legacy preferences cache
+    *
+    * @throws IOException If the cache file could not be removed
+    */
+   public static synchronized void clear() throws IOException {
+      Files.deleteIfExists(cacheFile);
+
+      try {
+         Preferences.userRoot().node(LEGACY_PREFS_NODE).removeNode();
+      } catch (BackingStoreException | IllegalStateException ex) {
+         Output.debugPrintln("Unable to remove the legacy holiday cache: " + ex.getMessage());
+      }
+   }
+
+   /**
+    * findBlock: Search the index for the country and year
+    *
+    * @return {offset, length} of the data block, or null if it's not in the index
+    */
+   private static int[] findBlock(FileChannel channel, String countryCode, int year) throws IOException {
+      ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+         throw new IOException("Unrecognized cache file format");
+      }
+
+      int count = header.getInt();
+      ByteBuffer index = readFully(channel, HEADER_SIZE, count * INDEX_ENTRY_SIZE);
+      byte c1 = (byte) countryCode.charAt(0);
+      byte c2 = (byte) countryCode.charAt(1);
+
+      for (int i = 0; i < count; i++) {
+         int pos = i * INDEX_ENTRY_SIZE;
+         if (index.get(pos) == c1 && index.get(pos + 1) == c2 && index.getInt(pos + 2) == year) {
+            return new int[]{index.getInt(pos + 6), index.getInt(pos + 10)};
+         }
+      }
+      return null;
+   }
+
+   /**
+    * decodeBlock: Turn one data block back into a cache entry
+    */
+   private static Entry decodeBlock(ByteBuffer data, int year) {
+      long fetchedMillis = data.getLong();
+      String eTag = readString(data);
+      String lastModified = readString(data);
+
+      TreeMap<String, String> yearHolidays = new TreeMap<>();
+      int count = data.getShort();
+
+      for (int i = 0; i < count; i++) {
+         int month = data.get();
+         int day = data.get();
+         yearHolidays.put(LocalDate.of(year, month, day).toString(), readString(data));
+      }
+      return new Entry(yearHolidays, fetchedMillis, eTag.isEmpty() ? null : eTag, lastModified.isEmpty() ? null : lastModified);
+   }
+
+   /**
+    * readString: Read a length prefixed UTF-8 string from a data block
+    */
+   private static String readString(ByteBuffer data) {
+      byte[] bytes = new byte[data.getShort()];
+      data.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * writeString: Write a length prefixed UTF-8 string to a data block. Null is written as an empty string
+    */
+   private static void writeString(DataOutputStream out, String value) throws IOException {
+      byte[] bytes = (value == null) ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+      out.writeShort(bytes.length);
+      out.write(bytes);
+   }
+
+   /**
+    * readAll: Load every entry in the cache file. Keys are built with entryKey()
+    */
+   private static TreeMap<String, Entry> readAll() {
+      TreeMap<String, Entry> entries = new TreeMap<>();
+      if (!Files.exists(cacheFile)) return entries;
+
+      try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+         ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+         if (header.getInt() != MAGIC || header.getInt() != VERSION) return entries;
+
+         int count = header.getInt();
+         ByteBuffer index = readFully(channel, HEADER_SIZE, count * INDEX_ENTRY_SIZE);
+
+         for (int i = 0; i < count; i++) {
+            String country = new String(new byte[]{index.get(), index.get()}, StandardCharsets.US_ASCII);
+            int year = index.getInt();
+            int offset = index.getInt();
+            int length = index.getInt();
+            entries.put(entryKey(country, year), decodeBlock(readFully(channel, offset, length), year));
+         }
+
+      } catch (IOException | RuntimeException ex) {
+         Output.debugPrintln("Ignoring unreadable holiday cache '" + cacheFile + "': " + ex.getMessage());
+      }
+      return entries;
+   }
+
+   /**
+    * write: Replace the cache file with the provided entries. The file is written to a temporary file
+    * first and then moved into place so a reader never sees a half written cache.
+    */
+   private static void write(TreeMap<String, Entry> entries) throws IOException {
+      // Encode the data blocks first so the index offsets are known
+      ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+      DataOutputStream blockOut = new DataOutputStream(blocks);
+      int[] offsets = new int[entries.size()];
+      int[] lengths = new int[entries.size()];
+      int dataStart = HEADER_SIZE + (entries.size() * INDEX_ENTRY_SIZE);
+
+      int i = 0;
+      for (Entry entry : entries.values()) {
+         offsets[i] = dataStart + blockOut.size();
+         blockOut.writeLong(entry.fetchedMillis);
+         writeString(blockOut, entry.eTag);
+         writeString(blockOut, entry.lastModified);
+         blockOut.writeShort(entry.holidays.size());
+         for (Map.Entry<String, String> holiday : entry.holidays.entrySet()) {
+            LocalDate date = LocalDate.parse(holiday.getKey());
+            blockOut.writeByte(date.getMonthValue());
+            blockOut.writeByte(date.getDayOfMonth());
+            writeString(blockOut, holiday.getValue());
+         }
+         lengths[i] = dataStart + blockOut.size() - offsets[i];
+         i++;
+      }
+
+      ByteArrayOutputStream file = new ByteArrayOutputStream(dataStart + blocks.size());
+      DataOutputStream out = new DataOutputStream(file);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+
+      i = 0;
+      for (String key : entries.keySet()) {
+         out.writeBytes(key.substring(0, 2));
+         out.writeInt(Integer.parseInt(key.substring(3)));
+         out.writeInt(offsets[i]);
+         out.writeInt(lengths[i]);
+         i++;
+      }
+      blocks.writeTo(out);
+      out.flush();
+
+      Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+      Path tempFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), "holidays", ".tmp");
+      try {
+         Files.write(tempFile, file.toByteArray());
+         Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+         Files.deleteIfExists(tempFile);
+      }
+   }
+
+   /**
+    * migrateLegacyCache: Move holidays cached in the Java preferences system by older versions of cal
+    * into the cache file, then remove them from the preferences
+    */
+   private static void migrateLegacyCache() {
+      if (migrated) return;
+      migrated = true;
+
+      try {
+         if (!Preferences.userRoot().nodeExists(LEGACY_PREFS_NODE)) return;
+      } catch (BackingStoreException | RuntimeException ex) {
+         Output.debugPrintln("Unable to migrate the legacy holiday cache: " + ex.getMessage());
+         return;
+      }
+
+      // When the legacy years were downloaded isn't known, so they are stamped as stale and revalidated on first use
+      long staleMillis = System.currentTimeMillis() - REVALIDATE_AFTER.toMillis() - 1;
+
+      try (FileChannel lockChannel = openLockFile(); FileLock lock = lockChannel.lock()) {
+         Preferences legacy = Preferences.userRoot().node(LEGACY_PREFS_NODE);
+         TreeMap<String, Entry> entries = readAll();
+
+         for (String country : legacy.childrenNames()) {
+            for (String yearName : legacy.node(country).childrenNames()) {
+               Preferences yearNode = legacy.node(country).node(yearName);
+               TreeMap<String, String> yearHolidays = new TreeMap<>();
+
+               for (String key : yearNode.keys()) {
+                  // Only keep keys that are real dates
+                  if (key.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                     yearHolidays.put(key, yearNode.get(key, "Error"));
+                  }
+               }
+
+               if (country.length() == 2 && yearName.matches("\\d+") && !yearHolidays.isEmpty()) {
+                  entries.putIfAbsent(entryKey(country, Integer.parseInt(yearName)), new Entry(yearHolidays, staleMillis, null, null));
+               }
+            }
+         }
+
+         write(entries);
+         legacy.removeNode();
+         Output.debugPrintln("Migrated the legacy holiday cache to '" + cacheFile + "'");
+
+      } catch (BackingStoreException | IOException | RuntimeException ex) {
+         Output.debugPrintln("Unable to migrate the legacy holiday cache: " + ex.getMessage());
+      }
+   }
+
+   /**
+    * entryKey: Key used for an entry when the whole cache is loaded, e.g. "US-2025"
+    */
+   static String entryKey(String countryCode, int year) {
+      return countryCode + "-" + year;
+   }
+
+   /**
+    * readFully: Read a range of the file into a heap buffer
+    */
+   private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      while (buffer.hasRemaining()) {
+         if (channel.read(buffer, position + buffer.position()) < 0) {
+            throw new IOException("Unexpected end of cache file");
+         }
+      }
+      return buffer.flip();
+   }
+}
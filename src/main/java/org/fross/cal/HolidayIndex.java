@@ -0,0 +1,138 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * HolidayIndex is a read-only lookup of holidays by epoch day. A bit per day answers "is this a holiday?"
+ * in constant time without creating any objects, and the names are kept in a parallel array sorted by day.
+ * It's built once from the yyyy-MM-dd holiday map and can be shared between threads.
+ */
+public final class HolidayIndex {
+   public static final HolidayIndex EMPTY = new HolidayIndex(new long[0], new String[0]);
+
+   private final long firstDay;
+   private final long[] days;
+   private final String[] names;
+   private final BitSet flags;
+
+   private HolidayIndex(long[] days, String[] names) {
+      this.days = days;
+      this.names = names;
+      this.firstDay = (days.length > 0) ? days[0] : 0;
+      this.flags = new BitSet();
+
+      for (long day : days) {
+         flags.set((int) (day - firstDay));
+      }
+   }
+
+   /**
+    * of: Build an index from a map of ISO date strings (yyyy-MM-dd) to holiday names
+    *
+    * @param holidayMap The holidays, or null
+    * @return The index, or EMPTY if there are no holidays
+    */
+   public static HolidayIndex of(Map<String, String> holidayMap) {
+      if (holidayMap == null || holidayMap.isEmpty()) return EMPTY;
+
+      long[] days = new long[holidayMap.size()];
+      String[] names = new String[holidayMap.size()];
+      int count = 0;
+
+      for (Map.Entry<String, String> entry : holidayMap.entrySet()) {
+         try {
+            days[count] = LocalDate.parse(entry.getKey()).toEpochDay();
+            names[count] = entry.getValue();
+            count++;
+         } catch (DateTimeParseException ex) { /* Ignore malformed keys */ }
+      }
+
+      if (count == 0) return EMPTY;
+
+      // TreeMap keys are already in date order, but other maps may not be
+      days = Arrays.copyOf(days, count);
+      names = Arrays.copyOf(names, count);
+      if (!isSorted(days)) {
+         Integer[] order = new Integer[count];
+         for (int i = 0; i < count; i++) order[i] = i;
+         final long[] unsorted = days;
+         Arrays.sort(order, (a, b) -> Long.compare(unsorted[a], unsorted[b]));
+
+         long[] sortedDays = new long[count];
+         String[] sortedNames = new String[count];
+         for (int i = 0; i < count; i++) {
+            sortedDays[i] = days[order[i]];
+            sortedNames[i] = names[order[i]];
+         }
+         days = sortedDays;
+         names = sortedNames;
+      }
+
+      return new HolidayIndex(days, names);
+   }
+
+   /**
+    * isHoliday: Constant time check that doesn't allocate
+    *
+    * @param epochDay Day to check (LocalDate.toEpochDay())
+    * @return True if the day is a holiday
+    */
+   public boolean isHoliday(long epochDay) {
+      long offset = epochDay - firstDay;
+      return offset >= 0 && offset < flags.length() && flags.get((int) offset);
+   }
+
+   /**
+    * nameOf: Return the name of the holiday on a day
+    *
+    * @param epochDay Day to check (LocalDate.toEpochDay())
+    * @return The holiday name, or null if the day isn't a holiday
+    */
+   public String nameOf(long epochDay) {
+      int idx = Arrays.binarySearch(days, epochDay);
+      return (idx >= 0) ? names[idx] : null;
+   }
+
+   /**
+    * size: Number of holidays in the index
+    *
+    * @return Holiday count
+    */
+   public int size() {
+      return days.length;
+   }
+
+   private static boolean isSorted(long[] values) {
+      for (int i = 1; i < values.length; i++) {
+         if (values[i] < values[i - 1]) return false;
+      }
+      return true;
+   }
+}
@@ -0,0 +1,167 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.HttpFetch;
+import org.fross.library.Output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HolidayPrefetch fills the holiday cache for a range of years and a list of countries so that later runs
+ * never have to go to the internet. Downloads run on a small fixed pool of threads, DEFAULT_THREADS unless
+ * --prefetch-threads says otherwise, and years that are already cached are skipped.
+ */
+public class HolidayPrefetch {
+   public static final int DEFAULT_THREADS = 4;
+
+   // Downloaded years are written to the cache file in batches rather than one rewrite per year
+   private static final int BATCH_SIZE = 50;
+
+   /**
+    * Summary: Counts of what happened during a prefetch run
+    */
+   public static class Summary {
+      public int downloaded = 0;
+      public int cached = 0;
+      public int failed = 0;
+      public long elapsedNanos = 0;
+
+      public int total() {
+         return downloaded + cached + failed;
+      }
+   }
+
+   private final Map<String, HolidayCache.Entry> pending = new TreeMap<>();
+   private final Summary summary = new Summary();
+
+   /**
+    * run: Fill the holiday cache for every country and year, reporting the status of each as it finishes
+    *
+    * @param startYear First year to fetch
+    * @param endYear   Last year to fetch (inclusive)
+    * @param countries ISO2 country codes
+    * @param threads   Maximum number of downloads to run at the same time
+    * @return A summary of the run
+    */
+   public static Summary run(int startYear, int endYear, List<String> countries, int threads) {
+      return new HolidayPrefetch().fetchAll(startYear, endYear, countries, Math.max(1, threads));
+   }
+
+   private Summary fetchAll(int startYear, int endYear, List<String> countries, int threads) {
+      long startTime = System.nanoTime();
+      List<Future<?>> tasks = new ArrayList<>();
+
+      Output.printColorln(Output.CYAN, "Prefetching holidays for " + String.join(",", countries) + " from " + startYear + " to " + endYear);
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+         for (String country : countries) {
+            for (int year = startYear; year <= endYear; year++) {
+               final int taskYear = year;
+               tasks.add(executor.submit(() -> fetchOne(country, taskYear)));
+            }
+         }
+
+         for (Future<?> task : tasks) {
+            try {
+               task.get();
+            } catch (Exception ex) {
+               Output.debugPrintln("Prefetch task failed: " + ex.getMessage());
+            }
+         }
+      } finally {
+         executor.shutdown();
+      }
+
+      // Save whatever is left over from the last batch
+      HolidayCache.putAll(takeBatch(0));
+
+      summary.elapsedNanos = System.nanoTime() - startTime;
+      double seconds = summary.elapsedNanos / 1_000_000_000.0;
+
+      Output.printColorln(Output.CYAN, String.format("Prefetch complete: %d downloaded, %d already cached, %d failed in %.2f seconds (%.1f per second)",
+            summary.downloaded, summary.cached, summary.failed, seconds, seconds > 0 ? summary.total() / seconds : 0.0));
+
+      return summary;
+   }
+
+   /**
+    * fetchOne: Download a single country and year unless it's already in the cache
+    */
+   private void fetchOne(String country, int year) {
+      if (HolidayCache.getEntry(country, year) != null) {
+         report(country, year, "cached", Output.WHITE, () -> summary.cached++);
+         return;
+      }
+
+      long startTime = System.nanoTime();
+      try {
+         HttpFetch.Response<TreeMap<String, String>> response = HttpFetch.get(Holidays.queryHolidayURL(country, year), null, null, Holidays::parseHolidays);
+         TreeMap<String, String> yearHolidays = response.body;
+         long millis = (System.nanoTime() - startTime) / 1_000_000;
+
+         Map<String, HolidayCache.Entry> batch;
+         synchronized (this) {
+            pending.put(HolidayCache.entryKey(country, year), new HolidayCache.Entry(yearHolidays, System.currentTimeMillis(), response.eTag, response.lastModified));
+            batch = takeBatch(BATCH_SIZE);
+         }
+
+         // Rewrite the cache file outside the lock so the other threads can keep reporting
+         HolidayCache.putAll(batch);
+
+         report(country, year, "downloaded " + yearHolidays.size() + " holidays in " + millis + "ms", Output.GREEN, () -> summary.downloaded++);
+
+      } catch (Exception ex) {
+         report(country, year, "FAILED: " + ex.getMessage(), Output.RED, () -> summary.failed++);
+      }
+   }
+
+   /**
+    * takeBatch: Hand over the pending entries once there are at least minSize of them
+    *
+    * @return The entries to write, which may be empty
+    */
+   private synchronized Map<String, HolidayCache.Entry> takeBatch(int minSize) {
+      if (pending.isEmpty() || pending.size() < minSize) return Map.of();
+
+      Map<String, HolidayCache.Entry> batch = new TreeMap<>(pending);
+      pending.clear();
+      return batch;
+   }
+
+   /**
+    * report: Print the status of one item and update the summary
+    */
+   private synchronized void report(String country, int year, String status, int color, Runnable count) {
+      count.run();
+      Output.printColorln(color, String.format("  %s %d  %s", country, year, status));
+   }
+}
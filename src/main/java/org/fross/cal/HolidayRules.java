@@ -0,0 +1,267 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import static java.time.DayOfWeek.MONDAY;
+import static java.time.DayOfWeek.THURSDAY;
+
+/**
+ * HolidayRules generates the national holidays of a few common countries from built-in rules with no
+ * network or disk access. Rules can be a fixed date, the nth or last weekday of a month, a weekday on or
+ * before a date, or an offset from Easter Sunday. Holidays that land on a weekend can be moved to an
+ * observed weekday the way each country does.
+ * <p>
+ * Only holidays the nager.at API marks as global are included, using the same local names, so the
+ * result can stand in for a download. The rules describe the current calendar and do not include one-off
+ * changes such as moved bank holidays.
+ */
+public class HolidayRules {
+   private static final Map<String, List<Rule>> RULES = new TreeMap<>();
+
+   /**
+    * Observed: How a holiday that lands on a weekend is moved to a weekday
+    */
+   enum Observed {
+      NONE,             // The holiday stays on the weekend
+      NEAREST_WEEKDAY,  // Saturday moves back to Friday, Sunday moves forward to Monday
+      NEXT_WEEKDAY      // Moves forward to the next weekday that isn't already a holiday
+   }
+
+   /**
+    * Rule: A single holiday and how to find its date in a given year
+    */
+   private static class Rule {
+      final String name;
+      final IntFunction<LocalDate> date;
+      final Observed observed;
+      final int firstYear;
+
+      Rule(String name, IntFunction<LocalDate> date, Observed observed, int firstYear) {
+         this.name = name;
+         this.date = date;
+         this.observed = observed;
+         this.firstYear = firstYear;
+      }
+   }
+
+   static {
+      RULES.put("US", List.of(
+            new Rule("New Year's Day", fixed(1, 1), Observed.NEAREST_WEEKDAY, 0),
+            new Rule("Martin Luther King, Jr. Day", nthWeekday(3, MONDAY, 1), Observed.NONE, 1986),
+            new Rule("Washington's Birthday", nthWeekday(3, MONDAY, 2), Observed.NONE, 0),
+            new Rule("Memorial Day", lastWeekday(MONDAY, 5), Observed.NONE, 0),
+            new Rule("Juneteenth National Independence Day", fixed(6, 19), Observed.NEAREST_WEEKDAY, 2021),
+            new Rule("Independence Day", fixed(7, 4), Observed.NEAREST_WEEKDAY, 0),
+            new Rule("Labor Day", nthWeekday(1, MONDAY, 9), Observed.NONE, 0),
+            new Rule("Veterans Day", fixed(11, 11), Observed.NEAREST_WEEKDAY, 0),
+            new Rule("Thanksgiving Day", nthWeekday(4, THURSDAY, 11), Observed.NONE, 0),
+            new Rule("Christmas Day", fixed(12, 25), Observed.NEAREST_WEEKDAY, 0)));
+
+      RULES.put("CA", List.of(
+            new Rule("New Year's Day", fixed(1, 1), Observed.NONE, 0),
+            new Rule("Good Friday", easter(-2), Observed.NONE, 0),
+            new Rule("Victoria Day", weekdayOnOrBefore(MONDAY, 5, 24), Observed.NONE, 0),
+            new Rule("Canada Day", fixed(7, 1), Observed.NONE, 0),
+            new Rule("Labour Day", nthWeekday(1, MONDAY, 9), Observed.NONE, 0),
+            new Rule("National Day for Truth and Reconciliation", fixed(9, 30), Observed.NONE, 2021),
+            new Rule("Thanksgiving", nthWeekday(2, MONDAY, 10), Observed.NONE, 0),
+            new Rule("Christmas Day", fixed(12, 25), Observed.NONE, 0)));
+
+      RULES.put("GB", List.of(
+            new Rule("New Year's Day", fixed(1, 1), Observed.NEXT_WEEKDAY, 0),
+            new Rule("Good Friday", easter(-2), Observed.NONE, 0),
+            new Rule("Early May Bank Holiday", nthWeekday(1, MONDAY, 5), Observed.NONE, 1978),
+            new Rule("Spring Bank Holiday", lastWeekday(MONDAY, 5), Observed.NONE, 1971),
+            new Rule("Christmas Day", fixed(12, 25), Observed.NEXT_WEEKDAY, 0),
+            new Rule("Boxing Day", fixed(12, 26), Observed.NEXT_WEEKDAY, 0)));
+
+      RULES.put("DE", List.of(
+            new Rule("Neujahr", fixed(1, 1), Observed.NONE, 0),
+            new Rule("Karfreitag", easter(-2), Observed.NONE, 0),
+            new Rule("Ostermontag", easter(1), Observed.NONE, 0),
+            new Rule("Tag der Arbeit", fixed(5, 1), Observed.NONE, 0),
+            new Rule("Christi Himmelfahrt", easter(39), Observed.NONE, 0),
+            new Rule("Pfingstmontag", easter(50), Observed.NONE, 0),
+            new Rule("Tag der Deutschen Einheit", fixed(10, 3), Observed.NONE, 1990),
+            new Rule("Erster Weihnachtstag", fixed(12, 25), Observed.NONE, 0),
+            new Rule("Zweiter Weihnachtstag", fixed(12, 26), Observed.NONE, 0)));
+   }
+
+   /**
+    * isSupported: Check if there are built-in rules for a country
+    *
+    * @param countryCode ISO2 country code
+    * @return True if holidays can be generated for the country
+    */
+   public static boolean isSupported(String countryCode) {
+      return countryCode != null && RULES.containsKey(countryCode.toUpperCase(Locale.ROOT));
+   }
+
+   /**
+    * queryCountries: The countries that have built-in rules
+    *
+    * @return ISO2 country codes in alphabetical order
+    */
+   public static Set<String> queryCountries() {
+      return RULES.keySet();
+   }
+
+   /**
+    * generate: Build a year of holidays for a country from the built-in rules
+    *
+    * @param countryCode ISO2 country code
+    * @param year        The year to generate
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names, or null if the country isn't supported
+    */
+   public static TreeMap<String, String> generate(String countryCode, int year) {
+      if (!isSupported(countryCode)) return null;
+      List<Rule> rules = RULES.get(countryCode.toUpperCase(Locale.ROOT));
+
+      // Work out the actual dates first so a moved holiday never lands on top of another one
+      List<Rule> active = new ArrayList<>();
+      List<LocalDate> actual = new ArrayList<>();
+      Set<LocalDate> taken = new HashSet<>();
+      for (Rule rule : rules) {
+         if (year < rule.firstYear) continue;
+         LocalDate date = rule.date.apply(year);
+         active.add(rule);
+         actual.add(date);
+         if (rule.observed == Observed.NONE || !isWeekend(date)) taken.add(date);
+      }
+
+      TreeMap<String, String> generated = new TreeMap<>();
+      for (int i = 0; i < active.size(); i++) {
+         Rule rule = active.get(i);
+         LocalDate date = actual.get(i);
+
+         if (rule.observed != Observed.NONE && isWeekend(date)) {
+            LocalDate observed = observedDate(date, rule.observed, taken);
+
+            // Don't move a holiday into a different year
+            if (observed.getYear() == year) date = observed;
+            taken.add(date);
+         }
+
+         generated.merge(date.toString(), rule.name, (a, b) -> a + ", " + b);
+      }
+
+      return generated;
+   }
+
+   /**
+    * easterSunday: Calculate the date of Easter Sunday in the Gregorian calendar using the anonymous
+    * Gregorian computus (Meeus/Jones/Butcher)
+    *
+    * @param year The year
+    * @return Easter Sunday
+    */
+   public static LocalDate easterSunday(int year) {
+      int a = year % 19;
+      int b = year / 100;
+      int c = year % 100;
+      int d = b / 4;
+      int e = b % 4;
+      int f = (b + 8) / 25;
+      int g = (b - f + 1) / 3;
+      int h = (19 * a + b - d - g + 15) % 30;
+      int i = c / 4;
+      int k = c % 4;
+      int l = (32 + 2 * e + 2 * i - h - k) % 7;
+      int m = (a + 11 * h + 22 * l) / 451;
+      int month = (h + l - 7 * m + 114) / 31;
+      int day = ((h + l - 7 * m + 114) % 31) + 1;
+
+      return LocalDate.of(year, month, day);
+   }
+
+   /**
+    * observedDate: Move a weekend holiday to the weekday it's observed on
+    */
+   private static LocalDate observedDate(LocalDate date, Observed observed, Set<LocalDate> taken) {
+      if (observed == Observed.NEAREST_WEEKDAY) {
+         return (date.getDayOfWeek() == DayOfWeek.SATURDAY) ? date.minusDays(1) : date.plusDays(1);
+      }
+
+      LocalDate candidate = date.plusDays(1);
+      while (isWeekend(candidate) || taken.contains(candidate)) {
+         candidate = candidate.plusDays(1);
+      }
+      return candidate;
+   }
+
+   private static boolean isWeekend(LocalDate date) {
+      return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+   }
+
+   // ---------------------------------------------------------------------------------------------
+   // Rule types
+   // ---------------------------------------------------------------------------------------------
+
+   /**
+    * fixed: The same month and day every year
+    */
+   private static IntFunction<LocalDate> fixed(int month, int day) {
+      return year -> LocalDate.of(year, month, day);
+   }
+
+   /**
+    * nthWeekday: The nth occurrence of a weekday in a month, e.g. the 4th Thursday of November
+    */
+   private static IntFunction<LocalDate> nthWeekday(int n, DayOfWeek dayOfWeek, int month) {
+      return year -> LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, dayOfWeek));
+   }
+
+   /**
+    * lastWeekday: The last occurrence of a weekday in a month, e.g. the last Monday of May
+    */
+   private static IntFunction<LocalDate> lastWeekday(DayOfWeek dayOfWeek, int month) {
+      return year -> LocalDate.of(year, month, 1).with(TemporalAdjusters.lastInMonth(dayOfWeek));
+   }
+
+   /**
+    * weekdayOnOrBefore: The last occurrence of a weekday on or before a date, e.g. the Monday before May 25
+    */
+   private static IntFunction<LocalDate> weekdayOnOrBefore(DayOfWeek dayOfWeek, int month, int day) {
+      return year -> LocalDate.of(year, month, day).with(TemporalAdjusters.previousOrSame(dayOfWeek));
+   }
+
+   /**
+    * easter: A number of days before or after Easter Sunday
+    */
+   private static IntFunction<LocalDate> easter(int offset) {
+      return year -> easterSunday(year).plusDays(offset);
+   }
+}
@@ -23,103 +23,432 @@
  * --------------------------------------------------------------------------------------*/
 package org.fross.cal;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.fross.library.HttpFetch;
 import org.fross.library.Output;
-import org.fross.library.URLOperations;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TreeMap;
-import java.util.prefs.BackingStoreException;
-import java.util.prefs.Preferences;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Holidays {
    private static boolean holidaysAreEnabled = false;
+   private static boolean useBuiltInRules = false;
+   private static boolean retainHolidays = false;
    private static final Locale locale = Locale.getDefault();
-   protected static TreeMap<String, String> countryMap = new TreeMap<>();
    protected static TreeMap<String, String> holidays = new TreeMap<>();
+   protected static String holidayAPI = "https://date.nager.at/api/v3/publicholidays/";
+   private static final Map<Integer, CompletableFuture<TreeMap<String, String>>> prefetched = new ConcurrentHashMap<>();
+   private static final Map<String, Retained> retained = new ConcurrentHashMap<>();
+
+   // Retained years older than this are loaded again so cache changes made by other processes are seen.
+   // Past MAX_RETAINED years, the one loaded longest ago is dropped to make room
+   public static final Duration RETAIN_FOR = Duration.ofMinutes(15);
+   static final int MAX_RETAINED = 256;
+   private static Duration retainFor = RETAIN_FOR;
+
+   /**
+    * Retained: A year of holidays kept in memory and when it was loaded
+    */
+   private record Retained(TreeMap<String, String> holidays, long loadedNanos) {
+      boolean isExpired() {
+         return System.nanoTime() - loadedNanos >= retainFor.toNanos();
+      }
+   }
 
    /**
     * getHolidays(int year): Wrapper for the main app.
     * Uses the default system locale to determine the country.
     */
    public static TreeMap<String, String> getHolidays(int year) {
-      buildCountryCodeMap();
-      String countryCode = countryMap.get(locale.getISO3Country());
-
-      // If we can't find a mapping for the current locale, default to US
-      if (countryCode == null) countryCode = "US";
-
-      return getHolidays(countryCode, year);
+      return setCurrentHolidays(fetchHolidays(year));
    }
 
    /**
     * getHolidays(String countryCode, int year): The primary logic.
     * This allows the test to pass "CA" while the app uses the system default.
+    * The result is also kept as the current holiday list used by the query and print methods.
     */
    public static TreeMap<String, String> getHolidays(String countryCode, int year) {
-      String URL = "https://date.nager.at/api/v3/publicholidays/" + year + "/" + countryCode;
-      String holidayRawData;
+      return setCurrentHolidays(fetchHolidays(countryCode, year));
+   }
 
+   /**
+    * setCurrentHolidays: Make the provided year the current holiday list
+    */
+   private static TreeMap<String, String> setCurrentHolidays(TreeMap<String, String> yearHolidays) {
       holidays.clear();
-      buildCountryCodeMap();
+      if (yearHolidays == null) return null;
+
+      holidays.putAll(yearHolidays);
+      return holidays;
+   }
+
+   /**
+    * prefetchHolidays: Start loading a year of holidays for the default system locale on a background
+    * thread. The next fetchHolidays() or getHolidays() call for that year waits for it instead of
+    * loading the year again. A failure is only reported when that call collects the result, so nothing is
+    * printed before the output is set up.
+    *
+    * @param year The year to load
+    */
+   public static void prefetchHolidays(int year) {
+      String countryCode = queryCountryCode();
+      prefetched.computeIfAbsent(year, y -> CompletableFuture.supplyAsync(() -> {
+         try {
+            return requireHolidays(countryCode, y);
+         } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+         }
+      }));
+   }
+
+   /**
+    * fetchHolidays(int year): Load a year of holidays for the default system locale into a new map
+    * without touching the current holiday list. Safe to call from a background thread.
+    */
+   public static TreeMap<String, String> fetchHolidays(int year) {
+      try {
+         return requireHolidays(year);
+      } catch (IOException ex) {
+         reportUnavailable(ex);
+         return null;
+      }
+   }
+
+   /**
+    * fetchRangeHolidays: Load one year of a range for the default system locale. A failure is reported for
+    * that year only and the holiday display stays on, so the other years still show their holidays
+    *
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names, or null if they could not be retrieved
+    */
+   public static TreeMap<String, String> fetchRangeHolidays(int year) {
+      try {
+         return requireHolidays(year);
+      } catch (IOException ex) {
+         Output.printColorln(Output.RED, "Unable to retrieve the " + year + " holidays: " + ex.getMessage());
+         return null;
+      }
+   }
+
+   /**
+    * requireHolidays(int year): Collect the background load for the year if one was started, otherwise
+    * load it for the default system locale
+    *
+    * @throws IOException If the holidays could not be retrieved
+    */
+   private static TreeMap<String, String> requireHolidays(int year) throws IOException {
+      long phaseStart = Timings.begin();
+      try {
+         // Use the background load if one was started for this year
+         CompletableFuture<TreeMap<String, String>> future = prefetched.remove(year);
+         if (future != null) {
+            try {
+               return future.join();
+            } catch (CompletionException ex) {
+               throw (ex.getCause() instanceof UncheckedIOException io) ? io.getCause() : new IOException(ex.getCause());
+            }
+         }
+
+         return requireHolidays(queryCountryCode(), year);
+
+      } finally {
+         Timings.end("Holiday fetch", phaseStart);
+      }
+   }
 
-      // Determine if we have a holiday cache
-      Preferences prefHolidayCache = Preferences.userRoot().node("/org/fross/cal/holidays/" + countryCode + "/" + year);
-      String[] cacheKeys = {};
+   /**
+    * fetchHolidays(String countryCode, int year): Load a year of holidays from the cache, or from the
+    * internet if they have not been cached yet, into a new map.
+    *
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names, or null if they could not be retrieved.
+    * A failure is reported and turns off the holiday display
+    */
+   public static TreeMap<String, String> fetchHolidays(String countryCode, int year) {
       try {
-         cacheKeys = prefHolidayCache.keys();
-      } catch (BackingStoreException ex) {
-         Output.debugPrintln("Unable to access holiday cache: " + ex.getMessage());
+         return requireHolidays(countryCode, year);
+      } catch (IOException ex) {
+         reportUnavailable(ex);
+         return null;
+      }
+   }
+
+   /**
+    * requireHolidays: Load a year of holidays like fetchHolidays(), but throw when they can't be retrieved
+    * instead of reporting it. Nothing shared is changed, so the caller decides what a failure means. Used
+    * by the server and the background loads
+    *
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    * @throws IOException If the holidays could not be retrieved and there is no older copy or built-in rule to use
+    */
+   static TreeMap<String, String> requireHolidays(String countryCode, int year) throws IOException {
+      return requireHolidays(countryCode, year, null);
+   }
+
+   /**
+    * requireHolidays: Load a year of holidays, and when cacheWrites isn't null, leave any download in it
+    * instead of writing it to the cache. Bulk loads use this to save many years with one HolidayCache.putAll()
+    *
+    * @param cacheWrites Collects the cache entries to write, keyed by HolidayCache.entryKey(). Null writes them right away
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    * @throws IOException If the holidays could not be retrieved and there is no older copy or built-in rule to use
+    */
+   static TreeMap<String, String> requireHolidays(String countryCode, int year, Map<String, HolidayCache.Entry> cacheWrites) throws IOException {
+      TreeMap<String, String> yearHolidays;
+
+      // The built-in rules need no I/O at all
+      if (useBuiltInRules && HolidayRules.isSupported(countryCode)) {
+         Output.debugPrintln("Generating " + countryCode + " holidays from the built-in rules");
+         return HolidayRules.generate(countryCode, year);
+      }
+
+      // Long running modes keep every year they load in memory
+      if (retainHolidays) {
+         String key = HolidayCache.entryKey(countryCode, year);
+         Retained kept = retained.get(key);
+         if (kept != null && !kept.isExpired()) return kept.holidays();
+
+         yearHolidays = loadHolidays(countryCode, year, cacheWrites);
+         if (kept == null && retained.size() >= MAX_RETAINED) evictOldestRetained();
+         retained.put(key, new Retained(yearHolidays, System.nanoTime()));
+         return yearHolidays;
+      }
+
+      return loadHolidays(countryCode, year, cacheWrites);
+   }
+
+   /**
+    * evictOldestRetained: Drop the retained year that was loaded longest ago
+    */
+   private static void evictOldestRetained() {
+      String oldestKey = null;
+      long oldestNanos = 0;
+
+      for (Map.Entry<String, Retained> entry : retained.entrySet()) {
+         if (oldestKey == null || entry.getValue().loadedNanos() - oldestNanos < 0) {
+            oldestKey = entry.getKey();
+            oldestNanos = entry.getValue().loadedNanos();
+         }
       }
+      if (oldestKey != null) retained.remove(oldestKey);
+   }
+
+   /**
+    * queryRetainedCount: How many years of holidays are held in memory. Used by the tests
+    */
+   static int queryRetainedCount() {
+      return retained.size();
+   }
+
+   /**
+    * loadHolidays: Read a year of holidays from the cache, revalidating or downloading them as needed
+    *
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    * @throws IOException If the holidays could not be retrieved and there is no fallback
+    */
+   private static TreeMap<String, String> loadHolidays(String countryCode, int year, Map<String, HolidayCache.Entry> cacheWrites) throws IOException {
+      String URL = queryHolidayURL(countryCode, year);
+      TreeMap<String, String> yearHolidays;
 
       // Load from Cache or Internet
-      if (cacheKeys.length > 0) {
+      HolidayCache.Entry cached = HolidayCache.getEntry(countryCode, year);
+      if (cached != null && !cached.isStale()) {
          Output.debugPrintln("Holiday cache exists - reading from cache...");
-         for (String key : cacheKeys) {
-            holidays.put(key, prefHolidayCache.get(key, "Error"));
+         return cached.holidays;
+      }
+
+      try {
+         // The holidays are decoded straight from the response stream
+         HttpFetch.Response<TreeMap<String, String>> response;
+         if (cached != null) {
+            // The cached copy is old. Ask the server if it has changed since we stored it
+            Output.debugPrintln("Holiday cache is stale - revalidating with the server...");
+            response = HttpFetch.get(URL, cached.eTag, cached.lastModified, Holidays::parseHolidays);
+         } else {
+            Output.debugPrintln("Holiday cache does not exist - reading from internet and building cache...");
+            response = HttpFetch.get(URL, null, null, Holidays::parseHolidays);
          }
-      } else {
-         Output.debugPrintln("Holiday cache does not exist - reading from internet and building cache...");
-         try {
-            holidayRawData = URLOperations.ReadURL(URL);
 
-            Gson gson = new GsonBuilder().create();
-            @SuppressWarnings("unchecked")
-            TreeMap<String, Object>[] gsonMap = gson.fromJson(holidayRawData, TreeMap[].class);
+         if (response.isNotModified()) {
+            Output.debugPrintln("Holidays have not changed - keeping the cached copy");
+            yearHolidays = cached.holidays;
+         } else {
+            yearHolidays = response.body;
+         }
+
+         // Store the holidays (or the new revalidation time) in the cache
+         if (cacheWrites != null) {
+            cacheWrites.put(HolidayCache.entryKey(countryCode, year), new HolidayCache.Entry(yearHolidays, System.currentTimeMillis(), response.eTag, response.lastModified));
+         } else {
+            HolidayCache.put(countryCode, year, yearHolidays, response.eTag, response.lastModified);
+         }
+
+      } catch (Exception ex) {
+         // If we have an older copy, it's better than nothing
+         if (cached != null) {
+            Output.debugPrintln("Unable to revalidate holidays, using the cached copy: " + ex.getMessage());
+            return cached.holidays;
+         }
+
+         // Fall back to the built-in rules if we have them for this country. They are not cached so the
+         // real list is downloaded the next time we're online
+         if (HolidayRules.isSupported(countryCode)) {
+            Output.debugPrintln("Unable to retrieve holidays, using the built-in rules: " + ex.getMessage());
+            return HolidayRules.generate(countryCode, year);
+         }
+
+         throw (ex instanceof IOException ioException) ? ioException : new IOException(ex.getMessage(), ex);
+      }
+      return yearHolidays;
+   }
+
+   /**
+    * reportUnavailable: Tell the user the holidays could not be retrieved and stop trying to display them
+    */
+   private static void reportUnavailable(IOException ex) {
+      Holidays.setDisplayHolidays(false);
+      Output.printColorln(Output.RED, "Unable to retrieve holidays: " + ex.getMessage());
+   }
+
+   /**
+    * queryHolidayURL: The holiday API address for a country and year
+    */
+   public static String queryHolidayURL(String countryCode, int year) {
+      return holidayAPI + year + "/" + countryCode;
+   }
+
+   /**
+    * parseHolidays: Convert the raw JSON returned by the nager.at API into a map of dates to names.
+    * Only global holidays are included.
+    *
+    * @param holidayRawData JSON array returned by the holiday API
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    */
+   protected static TreeMap<String, String> parseHolidays(String holidayRawData) {
+      try {
+         return parseHolidays(new StringReader(holidayRawData));
+      } catch (IOException ex) {
+         throw new JsonSyntaxException(ex);
+      }
+   }
+
+   /**
+    * parseHolidays: Decode the nager.at JSON array as it's read. Only the date, localName, and global
+    * fields are kept and everything else is skipped, so the payload is never built into an object graph.
+    * The reader is not closed.
+    *
+    * @param holidayData JSON array returned by the holiday API
+    * @return TreeMap of ISO date strings (yyyy-MM-dd) to holiday names
+    * @throws IOException If the data could not be read or is not the expected JSON
+    */
+   protected static TreeMap<String, String> parseHolidays(Reader holidayData) throws IOException {
+      TreeMap<String, String> parsed = new TreeMap<>();
+      JsonReader reader = new JsonReader(holidayData);
 
-            for (TreeMap<String, Object> entry : gsonMap) {
-               // Only include global holidays
-               if (entry.get("global") != null && entry.get("global").toString().equals("true")) {
-                  String date = entry.get("date").toString();
-                  String name = entry.get("localName").toString();
+      try {
+         reader.beginArray();
+         while (reader.hasNext()) {
+            String date = null;
+            String name = null;
+            boolean global = false;
 
-                  holidays.put(date, name);
-                  prefHolidayCache.put(date, name);
+            reader.beginObject();
+            while (reader.hasNext()) {
+               switch (reader.nextName()) {
+                  case "date" -> date = nextStringOrNull(reader);
+                  case "localName" -> name = nextStringOrNull(reader);
+                  case "global" -> {
+                     if (reader.peek() == JsonToken.BOOLEAN) {
+                        global = reader.nextBoolean();
+                     } else {
+                        reader.skipValue();
+                     }
+                  }
+                  default -> reader.skipValue();
                }
             }
-         } catch (Exception ex) {
-            Holidays.setDisplayHolidays(false);
-            Output.printColorln(Output.RED, "Unable to retrieve holidays: " + ex.getMessage());
-            return null;
+            reader.endObject();
+
+            // Only include global holidays
+            if (global && date != null && name != null) {
+               parsed.put(date, name);
+            }
          }
+         reader.endArray();
+      } catch (IllegalStateException ex) {
+         // JsonReader reports JSON that isn't shaped like the holiday array this way
+         throw new IOException("Unexpected holiday data: " + ex.getMessage());
       }
-      return holidays;
+
+      return parsed;
+   }
+
+   /**
+    * nextStringOrNull: Read a string value, returning null for a JSON null
+    */
+   private static String nextStringOrNull(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+         reader.nextNull();
+         return null;
+      }
+      return reader.nextString();
    }
 
    /**
     * printHolidayListYear: Prints a 2-column holiday legend that matches the calendar width
     */
    public static void printHolidayListYear(int year, int displayWidth) {
+      Frame frame = new Frame(null);
+      appendHolidayListYear(frame, year, displayWidth);
+      frame.flush();
+   }
+
+   /**
+    * appendHolidayListYear: Adds a 2-column holiday legend that matches the calendar width to the frame
+    */
+   public static void appendHolidayListYear(Frame frame, int year, int displayWidth) {
+      appendHolidayListYear(frame, year, displayWidth, holidays);
+   }
+
+   /**
+    * appendHolidayListYear: Adds a 2-column legend for the provided holiday map to the frame
+    */
+   public static void appendHolidayListYear(Frame frame, int year, int displayWidth, TreeMap<String, String> holidays) {
+      appendHolidayListYear(frame, year, displayWidth, holidays, ColorSettings.getTheme());
+   }
+
+   /**
+    * appendHolidayListYear: Adds a 2-column legend for the provided holiday map to the frame using the provided theme
+    */
+   public static void appendHolidayListYear(Frame frame, int year, int displayWidth, TreeMap<String, String> holidays, Theme theme) {
+      appendHolidayListYear(frame, year, displayWidth, holidays, theme, Holidays.queryCountry());
+   }
+
+   /**
+    * appendHolidayListYear: Adds a 2-column legend for the provided holiday map to the frame using the provided
+    * theme, titled with the name of the country the holidays belong to
+    */
+   public static void appendHolidayListYear(Frame frame, int year, int displayWidth, TreeMap<String, String> holidays, Theme theme,
+         String countryName) {
       Object[] keySet = holidays.keySet().toArray();
       int totalHolidays = holidays.size();
       int rowsNeeded = (totalHolidays + 1) / 2;
       int colWidth = displayWidth / 2;
-      String header = year + " holidays for " + Holidays.queryCountry();
+      String header = year + " holidays for " + countryName;
 
       // DYNAMIC: Use holtitle style for the header line
-      org.jline.utils.AttributedString styledHeader = new org.jline.utils.AttributedString("\n" + center(header, displayWidth), ColorSettings.getStyle("holtitle"));
-      System.out.println(styledHeader.toAnsi());
+      frame.println(styled("\n" + center(header, displayWidth), theme.holTitle, theme));
 
       for (int i = 0; i < rowsNeeded; i++) {
          // Left Column
@@ -128,9 +457,8 @@ public class Holidays {
          if (outLeft.length() > colWidth - 2) outLeft = outLeft.substring(0, colWidth - 5) + "..>";
 
          // DYNAMIC: Use holtext style for the left column holiday item
-         org.jline.utils.AttributedString styledLeft = new org.jline.utils.AttributedString(outLeft, ColorSettings.getStyle("holtext"));
-         System.out.print(styledLeft.toAnsi());
-         System.out.print(" ".repeat(Math.max(0, colWidth - outLeft.length())));
+         frame.print(styled(outLeft, theme.holText, theme));
+         frame.print(" ".repeat(Math.max(0, colWidth - outLeft.length())));
 
          // Right Column
          int rightIdx = i + rowsNeeded;
@@ -140,14 +468,21 @@ public class Holidays {
             if (outRight.length() > colWidth - 2) outRight = outRight.substring(0, colWidth - 5) + "..>";
 
             // DYNAMIC: Use holtext style for the right column holiday item
-            org.jline.utils.AttributedString styledRight = new org.jline.utils.AttributedString(outRight, ColorSettings.getStyle("holtext"));
-            System.out.println(styledRight.toAnsi());
+            frame.println(styled(outRight, theme.holText, theme));
          } else {
-            Output.println("");
+            frame.println("");
          }
       }
    }
 
+   /**
+    * styled: Return the text in ANSI for the style. The plain theme has no styles, so its text is used as is
+    */
+   private static String styled(String text, org.jline.utils.AttributedStyle style, Theme theme) {
+      if (theme == Theme.PLAIN) return text;
+      return new org.jline.utils.AttributedString(text, style).toAnsi();
+   }
+
    private static String center(String text, int width) {
       if (text.length() >= width) return text;
       int leftPadding = (width - text.length()) / 2;
@@ -174,6 +509,13 @@ public class Holidays {
       return locale.getDisplayCountry();
    }
 
+   /**
+    * queryCountry: The display name of an ISO2 country code, such as "Germany" for DE
+    */
+   public static String queryCountry(String countryCode) {
+      return Locale.of("", countryCode).getDisplayCountry();
+   }
+
    public static void setDisplayHolidays(boolean state) {
       holidaysAreEnabled = state;
    }
@@ -182,18 +524,66 @@ public class Holidays {
       return holidaysAreEnabled;
    }
 
+   /**
+    * setUseBuiltInRules: Generate holidays from the built-in rules instead of the cache or internet for
+    * the countries that have them
+    */
+   public static void setUseBuiltInRules(boolean state) {
+      useBuiltInRules = state;
+   }
+
+   public static boolean queryUseBuiltInRules() {
+      return useBuiltInRules;
+   }
+
+   /**
+    * setRetainHolidays: Keep every year of holidays loaded in memory so later requests don't touch the
+    * cache file. Used by modes that stay running and render many calendars
+    */
+   public static void setRetainHolidays(boolean state) {
+      retainHolidays = state;
+      if (!state) retained.clear();
+   }
+
+   /**
+    * setRetainFor: Change how long a retained year is used before it's loaded again. Tests use this to
+    * expire years without waiting
+    */
+   static void setRetainFor(Duration age) {
+      retainFor = age;
+   }
+
+   /**
+    * queryCountryCode: Return the ISO2 country code for the system locale, defaulting to US if it can't be mapped
+    */
+   public static String queryCountryCode() {
+      String countryCode = queryISO2CountryCode();
+
+      // If we can't find a mapping for the current locale, default to US
+      if (countryCode == null) countryCode = "US";
+
+      return countryCode;
+   }
+
    public static String queryISO2CountryCode() {
-      buildCountryCodeMap();
-      return countryMap.get(locale.getISO3Country());
+      return CountryCodes.ISO3_TO_ISO2.get(locale.getISO3Country());
    }
 
-   private static void buildCountryCodeMap() {
-      if (!countryMap.isEmpty()) return;
+   /**
+    * CountryCodes: The ISO3 to ISO2 country code table. The JVM builds it once, the first time it's used,
+    * and it can't change afterwards, so any thread can read it without locking
+    */
+   private static final class CountryCodes {
+      static final Map<String, String> ISO3_TO_ISO2 = build();
 
-      String[] ISO3 = {"ABW", "AFG", "AGO", "AIA", "ALA", "ALB", "AND", "ARE", "ARG", "ARM", "ASM", "ATA", "ATF", "ATG", "AUS", "AUT", "AZE", "BDI", "BEL", "BEN", "BES", "BFA", "BGD", "BGR", "BHR", "BHS", "BIH", "BLM", "BLR", "BLZ", "BMU", "BOL", "BRA", "BRB", "BRN", "BTN", "BVT", "BWA", "CAF", "CAN", "CCK", "CHE", "CHL", "CHN", "CIV", "CMR", "COD", "COG", "COK", "COL", "COM", "CPV", "CRI", "CUB", "CUW", "CXR", "CYM", "CYP", "CZE", "DEU", "DJI", "DMA", "DNK", "DOM", "DZA", "ECU", "EGY", "ERI", "ESH", "ESP", "EST", "ETH", "FIN", "FJI", "FLK", "FRA", "FRO", "FSM", "GAB", "GBR", "GEO", "GGY", "GHA", "GIB", "GIN", "GLP", "GMB", "GNB", "GNQ", "GRC", "GRD", "GRL", "GTM", "GUF", "GUM", "GUY", "HKG", "HMD", "HND", "HRV", "HTI", "HUN", "IDN", "IMN", "IND", "IOT", "IRL", "IRN", "IRQ", "ISL", "ISR", "ITA", "JAM", "JEY", "JOR", "JPN", "KAZ", "KEN", "KGZ", "KHM", "KIR", "KNA", "KOR", "KWT", "LAO", "LBN", "LBR", "LBY", "LCA", "LIE", "LKA", "LSO", "LTU", "LUX", "LVA", "MAC", "MAF", "MAR", "MCO", "MDA", "MDG", "MDV", "MEX", "MHL", "MKD", "MLI", "MLT", "MMR", "MNE", "MNG", "MNP", "MOZ", "MRT", "MSR", "MTQ", "MUS", "MWI", "MYS", "MYT", "NAM", "NCL", "NER", "NFK", "NGA", "NIC", "NIU", "NLD", "NOR", "NPL", "NRU", "NZL", "OMN", "PAK", "PAN", "PCN", "PER", "PHL", "PLW", "PNG", "POL", "PRI", "PRK", "PRT", "PRY", "PSE", "PYF", "QAT", "REU", "ROU", "RUS", "RWA", "SAU", "SDN", "SEN", "SGP", "SGS", "SHN", "SJM", "SLB", "SLE", "SLV", "SMR", "SOM", "SPM", "SRB", "SSD", "STP", "SUR", "SVK", "SVN", "SWE", "SWZ", "SXM", "SYC", "SYR", "TCA", "TCD", "TGO", "THA", "TJK", "TKL", "TKM", "TLS", "TON", "TTO", "TUN", "TUR", "TUV", "TWN", "TZA", "UGA", "UKR", "UMI", "URY", "USA", "UZB", "VAT", "VCT", "VEN", "VGB", "VIR", "VNM", "VUT", "WLF", "WSM", "YEM", "ZAF", "ZMB", "ZWE"};
-      String[] ISO2 = {"AW", "AF", "AO", "AI", "AX", "AL", "AD", "AE", "AR", "AM", "AS", "AQ", "TF", "AG", "AU", "AT", "AZ", "BI", "BE", "BJ", "BQ", "BF", "BD", "BG", "BH", "BS", "BA", "BL", "BY", "BZ", "BM", "BO", "BR", "BB", "BN", "BT", "BV", "BW", "CF", "CA", "CC", "CH", "CL", "CN", "CI", "CM", "CD", "CG", "CK", "CO", "KM", "CV", "CR", "CU", "CW", "CX", "KY", "CY", "CZ", "DE", "DJ", "DM", "DK", "DO", "DZ", "EC", "EG", "ER", "EH", "ES", "EE", "ET", "FI", "FJ", "FK", "FR", "FO", "FM", "GA", "GB", "GE", "GG", "GH", "GI", "GN", "GP", "GM", "GW", "GQ", "GR", "GD", "GL", "GT", "GF", "GU", "GY", "HK", "HM", "HN", "HR", "HT", "HU", "ID", "IM", "IN", "IO", "IE", "IR", "IQ", "IS", "IL", "IT", "JM", "JE", "JO", "JP", "KZ", "KE", "KG", "KH", "KI", "KN", "KR", "KW", "LA", "LB", "LR", "LY", "LC", "LI", "LK", "LS", "LT", "LU", "LV", "MO", "MF", "MA", "MC", "MD", "MG", "MV", "MX", "MH", "MK", "ML", "MT", "MM", "ME", "MN", "MP", "MZ", "MR", "MS", "MQ", "MU", "MW", "MY", "YT", "NA", "NC", "NE", "NF", "NG", "NI", "NU", "NL", "NO", "NP", "NR", "NZ", "OM", "PK", "PA", "PN", "PE", "PH", "PW", "PG", "PL", "PR", "KP", "PT", "PY", "PS", "PF", "QA", "RE", "RO", "RU", "RW", "SA", "SD", "SN", "SG", "GS", "SH", "SJ", "SB", "SL", "SV", "SM", "SO", "PM", "RS", "SS", "ST", "SR", "SK", "SI", "SE", "SZ", "SX", "SC", "SY", "TC", "TD", "TG", "TH", "TJ", "TK", "TM", "TL", "TO", "TT", "TN", "TR", "TV", "TW", "TZ", "UG", "UA", "UM", "UY", "US", "UZ", "VA", "VC", "VE", "VG", "VI", "VN", "VU", "WF", "WS", "YE", "ZA", "ZM", "ZW"};
-      for (int i = 0; i < ISO3.length; i++) {
-         countryMap.put(ISO3[i], ISO2[i]);
+      private static Map<String, String> build() {
+         String[] ISO3 = {"ABW", "AFG", "AGO", "AIA", "ALA", "ALB", "AND", "ARE", "ARG", "ARM", "ASM", "ATA", "ATF", "ATG", "AUS", "AUT", "AZE", "BDI", "BEL", "BEN", "BES", "BFA", "BGD", "BGR", "BHR", "BHS", "BIH", "BLM", "BLR", "BLZ", "BMU", "BOL", "BRA", "BRB", "BRN", "BTN", "BVT", "BWA", "CAF", "CAN", "CCK", "CHE", "CHL", "CHN", "CIV", "CMR", "COD", "COG", "COK", "COL", "COM", "CPV", "CRI", "CUB", "CUW", "CXR", "CYM", "CYP", "CZE", "DEU", "DJI", "DMA", "DNK", "DOM", "DZA", "ECU", "EGY", "ERI", "ESH", "ESP", "EST", "ETH", "FIN", "FJI", "FLK", "FRA", "FRO", "FSM", "GAB", "GBR", "GEO", "GGY", "GHA", "GIB", "GIN", "GLP", "GMB", "GNB", "GNQ", "GRC", "GRD", "GRL", "GTM", "GUF", "GUM", "GUY", "HKG", "HMD", "HND", "HRV", "HTI", "HUN", "IDN", "IMN", "IND", "IOT", "IRL", "IRN", "IRQ", "ISL", "ISR", "ITA", "JAM", "JEY", "JOR", "JPN", "KAZ", "KEN", "KGZ", "KHM", "KIR", "KNA", "KOR", "KWT", "LAO", "LBN", "LBR", "LBY", "LCA", "LIE", "LKA", "LSO", "LTU", "LUX", "LVA", "MAC", "MAF", "MAR", "MCO", "MDA", "MDG", "MDV", "MEX", "MHL", "MKD", "MLI", "MLT", "MMR", "MNE", "MNG", "MNP", "MOZ", "MRT", "MSR", "MTQ", "MUS", "MWI", "MYS", "MYT", "NAM", "NCL", "NER", "NFK", "NGA", "NIC", "NIU", "NLD", "NOR", "NPL", "NRU", "NZL", "OMN", "PAK", "PAN", "PCN", "PER", "PHL", "PLW", "PNG", "POL", "PRI", "PRK", "PRT", "PRY", "PSE", "PYF", "QAT", "REU", "ROU", "RUS", "RWA", "SAU", "SDN", "SEN", "SGP", "SGS", "SHN", "SJM", "SLB", "SLE", "SLV", "SMR", "SOM", "SPM", "SRB", "SSD", "STP", "SUR", "SVK", "SVN", "SWE", "SWZ", "SXM", "SYC", "SYR", "TCA", "TCD", "TGO", "THA", "TJK", "TKL", "TKM", "TLS", "TON", "TTO", "TUN", "TUR", "TUV", "TWN", "TZA", "UGA", "UKR", "UMI", "URY", "USA", "UZB", "VAT", "VCT", "VEN", "VGB", "VIR", "VNM", "VUT", "WLF", "WSM", "YEM", "ZAF", "ZMB", "ZWE"};
+         String[] ISO2 = {"AW", "AF", "AO", "AI", "AX", "AL", "AD", "AE", "AR", "AM", "AS", "AQ", "TF", "AG", "AU", "AT", "AZ", "BI", "BE", "BJ", "BQ", "BF", "BD", "BG", "BH", "BS", "BA", "BL", "BY", "BZ", "BM", "BO", "BR", "BB", "BN", "BT", "BV", "BW", "CF", "CA", "CC", "CH", "CL", "CN", "CI", "CM", "CD", "CG", "CK", "CO", "KM", "CV", "CR", "CU", "CW", "CX", "KY", "CY", "CZ", "DE", "DJ", "DM", "DK", "DO", "DZ", "EC", "EG", "ER", "EH", "ES", "EE", "ET", "FI", "FJ", "FK", "FR", "FO", "FM", "GA", "GB", "GE", "GG", "GH", "GI", "GN", "GP", "GM", "GW", "GQ", "GR", "GD", "GL", "GT", "GF", "GU", "GY", "HK", "HM", "HN", "HR", "HT", "HU", "ID", "IM", "IN", "IO", "IE", "IR", "IQ", "IS", "IL", "IT", "JM", "JE", "JO", "JP", "KZ", "KE", "KG", "KH", "KI", "KN", "KR", "KW", "LA", "LB", "LR", "LY", "LC", "LI", "LK", "LS", "LT", "LU", "LV", "MO", "MF", "MA", "MC", "MD", "MG", "MV", "MX", "MH", "MK", "ML", "MT", "MM", "ME", "MN", "MP", "MZ", "MR", "MS", "MQ", "MU", "MW", "MY", "YT", "NA", "NC", "NE", "NF", "NG", "NI", "NU", "NL", "NO", "NP", "NR", "NZ", "OM", "PK", "PA", "PN", "PE", "PH", "PW", "PG", "PL", "PR", "KP", "PT", "PY", "PS", "PF", "QA", "RE", "RO", "RU", "RW", "SA", "SD", "SN", "SG", "GS", "SH", "SJ", "SB", "SL", "SV", "SM", "SO", "PM", "RS", "SS", "ST", "SR", "SK", "SI", "SE", "SZ", "SX", "SC", "SY", "TC", "TD", "TG", "TH", "TJ", "TK", "TM", "TL", "TO", "TT", "TN", "TR", "TV", "TW", "TZ", "UG", "UA", "UM", "UY", "US", "UZ", "VA", "VC", "VE", "VG", "VI", "VN", "VU", "WF", "WS", "YE", "ZA", "ZM", "ZW"};
+         Map<String, String> countryMap = new HashMap<>(ISO3.length * 2);
+         for (int i = 0; i < ISO3.length; i++) {
+            countryMap.put(ISO3[i], ISO2[i]);
+         }
+         return Map.copyOf(countryMap);
       }
    }
 }
\ No newline at end of file
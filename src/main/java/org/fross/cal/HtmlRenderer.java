@@ -0,0 +1,133 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * HtmlRenderer draws each month as an HTML table. A row of months is a div of tables, and the days carry
+ * CSS classes for today, holidays, and weekends so a page can restyle them:
+ * <pre>
+ * cal-row                      A row of months
+ * cal-month                    A month table, with the month name and year as its caption
+ * cal-dayofweek                The day of week headers
+ * cal-day                      Every day, plus cal-today, cal-holiday, and cal-weekend as they apply
+ * </pre>
+ * render() on its own writes just the tables for embedding in another page. beginDocument() and
+ * endDocument() wrap them in a standalone page that uses DEFAULT_CSS.
+ */
+public final class HtmlRenderer implements CalendarRenderer {
+   public static final String DEFAULT_CSS = ""
+         + ".cal-row { display: flex; flex-wrap: wrap; gap: 1.5em; margin-bottom: 1.5em; }\n"
+         + ".cal-month { border-collapse: collapse; font-family: monospace; }\n"
+         + ".cal-month caption { font-weight: bold; padding-bottom: 0.2em; }\n"
+         + ".cal-month th, .cal-month td { width: 2em; padding: 0.1em 0.2em; text-align: right; }\n"
+         + ".cal-dayofweek { color: #555; }\n"
+         + ".cal-weekend { color: #777; }\n"
+         + ".cal-holiday { color: #c00; font-weight: bold; }\n"
+         + ".cal-today { background: #1565c0; color: #fff; }\n";
+
+   private static final String DAY_LABEL_ROW;
+
+   // The opening td tag for a day, indexed by its MonthGrid flags
+   private static final String[] CELL_TAGS = new String[8];
+
+   static {
+      StringBuilder labels = new StringBuilder("<thead><tr>");
+      for (String name : MonthGrid.DAY_NAMES) {
+         labels.append("<th class=\"cal-dayofweek\">").append(name).append("</th>");
+      }
+      DAY_LABEL_ROW = labels.append("</tr></thead>\n").toString();
+
+      for (int flags = 0; flags < 8; flags++) {
+         StringBuilder tag = new StringBuilder("<td class=\"cal-day");
+         if ((flags & MonthGrid.WEEKEND) != 0) tag.append(" cal-weekend");
+         if ((flags & MonthGrid.HOLIDAY) != 0) tag.append(" cal-holiday");
+         if ((flags & MonthGrid.TODAY) != 0) tag.append(" cal-today");
+         CELL_TAGS[flags] = tag.append("\">").toString();
+      }
+   }
+
+   @Override
+   public void beginDocument(Appendable out, String title, int rows, int columns) throws IOException {
+      out.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n<title>");
+      appendEscaped(out, title);
+      out.append("</title>\n<style>\n").append(DEFAULT_CSS).append("</style>\n</head>\n<body>\n");
+   }
+
+   @Override
+   public void render(List<MonthGrid> row, Appendable out) throws IOException {
+      out.append("<div class=\"cal-row\">\n");
+
+      for (MonthGrid grid : row) {
+         out.append("<table class=\"cal-month\">\n<caption>").append(grid.monthName()).append(' ');
+         CalendarRenderer.appendNumber(out, grid.year());
+         out.append("</caption>\n").append(DAY_LABEL_ROW).append("<tbody>\n");
+
+         for (int week = 0; week < grid.weekCount(); week++) {
+            out.append("<tr>");
+            for (int c = 0; c < 7; c++) {
+               int day = grid.day(week, c);
+               if (day == 0) {
+                  out.append("<td></td>");
+               } else {
+                  out.append(CELL_TAGS[grid.flags(week, c)]);
+                  CalendarRenderer.appendNumber(out, day);
+                  out.append("</td>");
+               }
+            }
+            out.append("</tr>\n");
+         }
+
+         out.append("</tbody>\n</table>\n");
+      }
+
+      out.append("</div>\n");
+   }
+
+   @Override
+   public void endDocument(Appendable out) throws IOException {
+      out.append("</body>\n</html>\n");
+   }
+
+   /**
+    * appendEscaped: Write text with the characters that are special in HTML and XML replaced by entities
+    *
+    * @param out  Where the text is written
+    * @param text The text to write
+    */
+   static void appendEscaped(Appendable out, String text) throws IOException {
+      for (int i = 0; i < text.length(); i++) {
+         char ch = text.charAt(i);
+         switch (ch) {
+            case '&' -> out.append("&amp;");
+            case '<' -> out.append("&lt;");
+            case '>' -> out.append("&gt;");
+            case '"' -> out.append("&quot;");
+            default  -> out.append(ch);
+         }
+      }
+   }
+}
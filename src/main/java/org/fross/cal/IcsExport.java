@@ -0,0 +1,129 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * IcsExport writes the holidays for a range of years and a list of countries to an iCalendar file that other
+ * calendars and schedulers can import. The holidays come from the same cache, download, or built-in rules
+ * the calendar uses. One year of one country is loaded at a time and written straight to the file, so
+ * decades of dozens of countries take no more memory than a single year. Downloaded years are saved to
+ * the holiday cache CACHE_BATCH at a time rather than rewriting the cache file for each one.
+ * <p>
+ * Each event's UID is made from the country and the date, so importing a new export updates the events
+ * from the last one instead of adding copies.
+ */
+public class IcsExport {
+   static final int CACHE_BATCH = 50;
+
+   /**
+    * Summary: Counts of what happened during an export
+    */
+   public static class Summary {
+      public int events = 0;
+      public int years = 0;
+      public int failed = 0;
+   }
+
+   /**
+    * export: Write the holidays to an iCalendar file
+    *
+    * @param file      The file to write. It's replaced if it exists
+    * @param startYear First year to export
+    * @param endYear   Last year to export (inclusive)
+    * @param countries ISO2 country codes
+    * @return Counts of the events written and the years that couldn't be loaded
+    * @throws IOException If the file can't be written
+    */
+   public static Summary export(Path file, int startYear, int endYear, List<String> countries) throws IOException {
+      Summary summary = new Summary();
+      boolean showCountry = countries.size() > 1;
+      Map<String, HolidayCache.Entry> cacheWrites = new TreeMap<>();
+
+      try (IcsWriter ics = new IcsWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), Instant.now())) {
+         ics.beginCalendar("-//Michael Fross//cal " + Main.VERSION + "//EN", "Holidays " + String.join(", ", countries));
+
+         for (String country : countries) {
+            String countryName = Locale.of("", country).getDisplayCountry(Locale.ENGLISH);
+
+            for (int year = startYear; year <= endYear; year++) {
+               // Loaded into a new map that's dropped once the year is written
+               TreeMap<String, String> yearHolidays;
+               try {
+                  yearHolidays = Holidays.requireHolidays(country, year, cacheWrites);
+               } catch (IOException ex) {
+                  summary.failed++;
+                  Output.printColorln(Output.RED, "Unable to export the " + year + " holidays for " + country + ": " + ex.getMessage());
+                  continue;
+               }
+
+               if (cacheWrites.size() >= CACHE_BATCH) {
+                  HolidayCache.putAll(cacheWrites);
+                  cacheWrites.clear();
+               }
+
+               for (Map.Entry<String, String> holiday : yearHolidays.entrySet()) {
+                  String summaryText = showCountry ? holiday.getValue() + " (" + country + ")" : holiday.getValue();
+                  ics.writeAllDayEvent(queryUID(country, holiday.getKey()), LocalDate.parse(holiday.getKey()),
+                        summaryText, "Public holiday in " + countryName, "Holidays");
+                  summary.events++;
+               }
+               summary.years++;
+            }
+         }
+
+         ics.endCalendar();
+
+      } finally {
+         HolidayCache.putAll(cacheWrites);
+      }
+
+      return summary;
+   }
+
+   /**
+    * queryUID: The UID of a holiday. It only depends on the country and the date so it's the same in
+    * every export
+    *
+    * @param countryCode ISO2 country code
+    * @param isoDate     Date of the holiday as yyyy-MM-dd
+    * @return The UID
+    */
+   static String queryUID(String countryCode, String isoDate) {
+      return "cal-holiday-" + countryCode.toLowerCase(Locale.ROOT) + "-" + isoDate.replace("-", "");
+   }
+
+}
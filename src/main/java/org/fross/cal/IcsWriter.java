@@ -0,0 +1,194 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * IcsWriter writes an iCalendar (RFC 5545) file one event at a time so a calendar of any size can be written
+ * without holding it in memory. Each content line is built in a reused buffer, text values are escaped, and
+ * lines longer than 75 octets are folded without splitting a UTF-8 character. Lines end with CRLF as the
+ * RFC requires.
+ */
+public class IcsWriter implements Closeable {
+   private static final int MAX_LINE_OCTETS = 75;
+   private static final DateTimeFormatter STAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+   private final Writer out;
+   private final String dtStamp;
+   private final StringBuilder line = new StringBuilder(256);
+   private char[] chars = new char[256];
+
+   /**
+    * IcsWriter: Write a calendar to the provided writer
+    *
+    * @param out   Destination. It should encode as UTF-8
+    * @param stamp Time the events were created, written as the DTSTAMP of every event
+    */
+   public IcsWriter(Writer out, Instant stamp) {
+      this.out = out;
+      this.dtStamp = STAMP_FORMAT.format(stamp);
+   }
+
+   /**
+    * beginCalendar: Write the calendar header
+    *
+    * @param productId    Identifies the program that wrote the file, e.g. -//Michael Fross//cal 1.0//EN
+    * @param calendarName Name shown for the calendar by programs that support X-WR-CALNAME
+    * @throws IOException If the calendar can't be written
+    */
+   public void beginCalendar(String productId, String calendarName) throws IOException {
+      writeProperty("BEGIN", "VCALENDAR");
+      writeProperty("VERSION", "2.0");
+      writeProperty("PRODID", productId);
+      writeProperty("CALSCALE", "GREGORIAN");
+      writeProperty("METHOD", "PUBLISH");
+      writeTextProperty("X-WR-CALNAME", calendarName);
+   }
+
+   /**
+    * writeAllDayEvent: Write a VEVENT that covers one whole day and doesn't block time
+    *
+    * @param uid         Identifier that stays the same every time this event is exported
+    * @param date        The day of the event
+    * @param summary     Title of the event
+    * @param description Longer description, or null for none
+    * @param category    Category of the event, or null for none
+    * @throws IOException If the calendar can't be written
+    */
+   public void writeAllDayEvent(String uid, LocalDate date, String summary, String description, String category) throws IOException {
+      writeProperty("BEGIN", "VEVENT");
+      writeTextProperty("UID", uid);
+      writeProperty("DTSTAMP", dtStamp);
+      writeDateProperty("DTSTART", date);
+      writeDateProperty("DTEND", date.plusDays(1));
+      writeTextProperty("SUMMARY", summary);
+      if (description != null) writeTextProperty("DESCRIPTION", description);
+      if (category != null) writeTextProperty("CATEGORIES", category);
+      writeProperty("TRANSP", "TRANSPARENT");
+      writeProperty("END", "VEVENT");
+   }
+
+   /**
+    * endCalendar: Write the calendar footer
+    *
+    * @throws IOException If the calendar can't be written
+    */
+   public void endCalendar() throws IOException {
+      writeProperty("END", "VCALENDAR");
+   }
+
+   /**
+    * close: Flush and close the underlying writer
+    */
+   @Override
+   public void close() throws IOException {
+      out.close();
+   }
+
+   /**
+    * writeProperty: Write a property whose value needs no escaping
+    */
+   private void writeProperty(String name, String value) throws IOException {
+      line.setLength(0);
+      line.append(name).append(':').append(value);
+      writeLine();
+   }
+
+   /**
+    * writeDateProperty: Write a DATE valued property as name;VALUE=DATE:yyyyMMdd
+    */
+   private void writeDateProperty(String name, LocalDate date) throws IOException {
+      line.setLength(0);
+      line.append(name).append(";VALUE=DATE:");
+      appendPadded(date.getYear(), 4);
+      appendPadded(date.getMonthValue(), 2);
+      appendPadded(date.getDayOfMonth(), 2);
+      writeLine();
+   }
+
+   /**
+    * writeTextProperty: Write a TEXT valued property, escaping the characters RFC 5545 reserves
+    */
+   private void writeTextProperty(String name, String value) throws IOException {
+      line.setLength(0);
+      line.append(name).append(':');
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         switch (c) {
+            case '\\', ';', ',' -> line.append('\\').append(c);
+            case '\n' -> line.append("\\n");
+            case '\r' -> { /* Dropped. A line break is written as \n */ }
+            default -> line.append(c);
+         }
+      }
+      writeLine();
+   }
+
+   /**
+    * appendPadded: Append a number with leading zeros
+    */
+   private void appendPadded(int value, int width) {
+      String digits = Integer.toString(value);
+      for (int i = digits.length(); i < width; i++) line.append('0');
+      line.append(digits);
+   }
+
+   /**
+    * writeLine: Write the line buffer followed by CRLF, folding it so no line is longer than 75 octets.
+    * A folded line continues on the next line after a single space
+    */
+   private void writeLine() throws IOException {
+      int length = line.length();
+      if (chars.length < length) chars = new char[Math.max(length, chars.length * 2)];
+      line.getChars(0, length, chars, 0);
+
+      int start = 0;
+      int octets = 0;
+      for (int i = 0; i < length; ) {
+         int codePoint = Character.codePointAt(chars, i, length);
+         int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+
+         if (octets + size > MAX_LINE_OCTETS) {
+            out.write(chars, start, i - start);
+            out.write("\r\n ");
+            start = i;
+            octets = 1;
+         }
+
+         octets += size;
+         i += Character.charCount(codePoint);
+      }
+
+      out.write(chars, start, length - start);
+      out.write("\r\n");
+   }
+
+}
@@ -28,8 +28,17 @@ import org.fross.library.Output;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
 
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.Locale;
 import java.util.Properties;
@@ -52,6 +61,60 @@ public class Main {
     * @param args Command Line Arguments
     */
    public static void main(String[] args) {
+      // Start the clock first when the phase timings were asked for
+      Timings.setEnabled(Timings.isRequested(args));
+
+      // Start a flight recording before anything else runs so it covers the whole run
+      String jfrFile = FlightRecording.queryRequestedFile(args);
+      if (jfrFile != null) {
+         FlightRecording.start(jfrFile);
+      }
+
+      // If a cal daemon is running, let it do the work and skip starting up here
+      long phaseStart = Timings.begin();
+      if (CalDaemon.isDaemonRequest(args)) {
+         int exitCode = CalDaemon.sendRequest(args);
+         if (exitCode >= 0) {
+            System.exit(exitCode);
+         }
+      }
+      Timings.end("Daemon check", phaseStart);
+
+      // If holidays will be displayed, start loading them now so the cache read or download overlaps
+      // with the terminal setup and argument processing below
+      int holidayYear = CommandLineArgs.queryHolidayPrefetchYear(args);
+      if (holidayYear > 0) {
+         Holidays.prefetchHolidays(holidayYear);
+      }
+
+      // When the output is piped or redirected there is no terminal to probe, so skip JLine and write
+      // UTF-8 straight to standard out. The width comes from $COLUMNS or -n
+      phaseStart = Timings.begin();
+      if (isOutputTerminal()) {
+         createTerminal();
+      } else {
+         Output.setWriter(createStandardOutWriter());
+      }
+      Timings.end("Terminal creation", phaseStart);
+
+      // Process application level properties file. The values are updated via the Gradle processResources task
+      phaseStart = Timings.begin();
+      loadProperties();
+      Timings.end("Properties file", phaseStart);
+
+      // Display the calendar
+      run(args, terminal);
+
+      // Report where the time went
+      if (Timings.isEnabled()) {
+         Timings.print(CommandLineArgs.cli.clTimingsJson);
+      }
+   }
+
+   /**
+    * createTerminal(): Start JLine on the system terminal and point Output at it
+    */
+   private static void createTerminal() {
       // Force JLine to assume the terminal supports ANSI color and movement
       System.setProperty("org.jline.terminal.type", "xterm-256color");
 
@@ -77,8 +140,42 @@ public class Main {
          // Note: Since terminal failed, Output will use System.out as a fallback
          Output.println("Unable to create a terminal. Visuals may be impacted");
       }
+   }
 
-      // Process application level properties file. The values are updated via the Gradle processResources task
+   /**
+    * isOutputTerminal(): Return true if standard out is a terminal. System.console() is null when either
+    * standard in or standard out is redirected, so on Linux /proc is checked to tell the two apart. Setting
+    * the cal.terminal system property to "jline" always uses a terminal
+    *
+    * @return True if JLine should be started
+    */
+   static boolean isOutputTerminal() {
+      if ("jline".equalsIgnoreCase(System.getProperty("cal.terminal"))) return true;
+      if (System.console() != null) return true;
+
+      Path stdout = Paths.get("/proc/self/fd/1");
+      try {
+         String target = Files.readSymbolicLink(stdout).toString();
+         return target.startsWith("/dev/pts/") || target.startsWith("/dev/tty");
+      } catch (IOException | UnsupportedOperationException | SecurityException ex) {
+         return false;
+      }
+   }
+
+   /**
+    * createStandardOutWriter(): A buffered UTF-8 writer on standard out. It's used instead of System.out,
+    * which encodes with the platform charset and can turn holiday names into question marks
+    *
+    * @return The writer. It's never closed because that would close standard out
+    */
+   static PrintWriter createStandardOutWriter() {
+      return new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 16384));
+   }
+
+   /**
+    * loadProperties(): Read the version and copyright from the application properties file
+    */
+   static void loadProperties() {
       try {
          InputStream iStream = Main.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE);
          Properties prop = new Properties();
@@ -88,7 +185,16 @@ public class Main {
       } catch (IOException ex) {
          Output.fatalError("Unable to read property file '" + PROPERTIES_FILE + "'", 3);
       }
+   }
 
+   /**
+    * run(): Process the command line and display the requested calendar on the terminal. The cal daemon
+    * calls this for each request it receives
+    *
+    * @param args     Command Line Arguments
+    * @param terminal Terminal to display on
+    */
+   static void run(String[] args, Terminal terminal) {
       // Process the command line arguments and switches
       CommandLineArgs.ProcessCommandLine(args, terminal);
 
@@ -107,8 +213,8 @@ public class Main {
          Output.fatalError("There can not be more than 2 parameters given on the commandline.\nPlease see Help (-h)", 6);
       }
 
-      // Ensure the Month / Year is a valid integer
-      for (int i = 0; i < CommandLineArgs.cli.clMonthAndOrYear.size(); i++) {
+      // Ensure the Month / Year is a valid integer. A year range has already been validated
+      for (int i = 0; i < CommandLineArgs.cli.clMonthAndOrYear.size() && !CommandLineArgs.isRangeSpecified(); i++) {
          int monthAndOrYear = 0;
          try {
             monthAndOrYear = Integer.parseInt(CommandLineArgs.cli.clMonthAndOrYear.get(i));
@@ -122,27 +228,57 @@ public class Main {
                Output.fatalError(String.format("'%d' is not a valid month number", CommandLineArgs.queryMonthToUse()), 7);
             }
 
+         } catch (Output.FatalErrorException ex) {
+            // Already reported. Pass it on when running as a daemon
+            throw ex;
+
          } catch (Exception ex) {
             Output.fatalError("Invalid Month and/or Year provided: '" + monthAndOrYear + "'", 6);
          }
       }
 
-      // Start with a blank line to give cal some elbow room
-      Output.println("");
+      LocalDate today = LocalDate.now();
+
+      // An identical earlier run may have left its output in the render cache. Ranges stream as they render
+      if (OutputCache.isEnabled() && !CommandLineArgs.isRangeSpecified() && !Debug.query()) {
+         long phaseStart = Timings.begin();
+         OutputCache.display(terminal, today, () -> display(terminal, today));
+         Timings.end("Render cache", phaseStart);
+      } else {
+         display(terminal, today);
+      }
+   }
+
+   /**
+    * display(): Show the calendar selected by the command line
+    *
+    * @param terminal Terminal to display on
+    * @param today    The current date for highlighting "today"
+    */
+   static void display(Terminal terminal, LocalDate today) {
+      // Start with a blank line to give cal some elbow room. HTML and SVG documents start right away
+      String format = CommandLineArgs.queryFormat();
+      if (format.equals("ansi") || format.equals("text")) {
+         Output.println("");
+      }
 
       // Logic variables for the display
       int year = CommandLineArgs.queryYearToUse();
       int month = CommandLineArgs.queryMonthToUse();
       int cols = CommandLineArgs.queryNumToUse();
-      LocalDate today = LocalDate.now();
 
-      CalendarView view = new CalendarView(terminal, today);
+      // Only a range of years has enough months to make rendering them in parallel worthwhile
+      CalendarView view = new CalendarView(terminal, today, CommandLineArgs.isRangeSpecified(), format);
 
       // Decide which view to show
       if (CommandLineArgs.isMonthSpecified()) {
          // Month was provided (either "cal 12" or "cal 12 2028")
          view.printMonth(year, month);
 
+      } else if (CommandLineArgs.isRangeSpecified()) {
+         // Range of years provided (cal 2020-2040)
+         view.printYearRange(year, CommandLineArgs.queryRangeEndYear(), cols);
+
       } else {
          // No month provided (either "cal" or "cal 2028")
          view.printFullYear(year, cols);
@@ -0,0 +1,202 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * MonthGrid is the neutral model of one month that every CalendarRenderer draws from. It holds the weeks of
+ * the month as a 7 column grid starting on Sunday, and for each cell the day number, flags for today,
+ * holidays, and weekends, and the name of the color used to draw it. Nothing in it depends on how the month
+ * will be displayed, so the same grid can be drawn as ANSI text, plain text, HTML, or SVG.
+ */
+public final class MonthGrid {
+   // Cell flags. A cell can have several of them at once
+   public static final int TODAY = 1;
+   public static final int HOLIDAY = 2;
+   public static final int WEEKEND = 4;
+
+   public static final String DAY_LABELS = "Su Mo Tu We Th Fr Sa";
+   static final String[] DAY_NAMES = {"Su", "Mo", "Tu", "We", "Th", "Fr", "Sa"};
+   private static final String[] MONTH_NAMES = new String[12];
+
+   private final int year;
+   private final int month;
+   private final MonthTemplate template;
+   private final byte[] dayFlags = new byte[32];
+
+   static {
+      for (Month m : Month.values()) {
+         MONTH_NAMES[m.ordinal()] = m.getDisplayName(TextStyle.FULL, Locale.US);
+      }
+   }
+
+   /**
+    * Constructor for MonthGrid
+    *
+    * @param year         The year of the month
+    * @param month        The month (1-12)
+    * @param today        Current date for highlighting, or null for no highlight
+    * @param holidayIndex Holidays indexed by day, or null. Build it once and share it between the months of a year
+    */
+   public MonthGrid(int year, int month, LocalDate today, HolidayIndex holidayIndex) {
+      FlightRecording.MonthRender event = new FlightRecording.MonthRender();
+      event.begin();
+
+      this.year = year;
+      this.month = month;
+
+      YearMonth ym = YearMonth.of(year, month);
+      this.template = MonthTemplate.of(ym.atDay(1).getDayOfWeek().getValue() % 7, ym.lengthOfMonth());
+
+      // Look up today and the holidays once per day here so the renderers only read the flags
+      if (holidayIndex != null) {
+         long firstEpochDay = ym.atDay(1).toEpochDay() - 1;
+         for (int day = 1; day <= template.length; day++) {
+            if (holidayIndex.isHoliday(firstEpochDay + day)) dayFlags[day] |= HOLIDAY;
+         }
+      }
+
+      if (today != null && today.getYear() == year && today.getMonthValue() == month) {
+         dayFlags[today.getDayOfMonth()] |= TODAY;
+      }
+
+      if (event.shouldCommit()) {
+         event.year = year;
+         event.month = month;
+         event.holidays = holidayIndex != null;
+         event.commit();
+      }
+   }
+
+   /**
+    * year: The year of the month
+    *
+    * @return Year
+    */
+   public int year() {
+      return year;
+   }
+
+   /**
+    * month: The month number
+    *
+    * @return Month (1-12)
+    */
+   public int month() {
+      return month;
+   }
+
+   /**
+    * monthName: The full English name of the month
+    *
+    * @return Month name, such as "March"
+    */
+   public String monthName() {
+      return MONTH_NAMES[month - 1];
+   }
+
+   /**
+    * title: The month name and year shown above the grid
+    *
+    * @return Title, such as "March 2026"
+    */
+   public String title() {
+      return MONTH_NAMES[month - 1] + " " + year;
+   }
+
+   /**
+    * weekCount: Number of weeks (rows) in the grid
+    *
+    * @return 4 to 6 weeks
+    */
+   public int weekCount() {
+      return template.weeks.length;
+   }
+
+   /**
+    * day: The day number in a cell
+    *
+    * @param week The week (row), starting at 0
+    * @param col  The column, 0 for Sunday through 6 for Saturday
+    * @return The day of the month, or 0 for a cell belonging to the month before or after
+    */
+   public int day(int week, int col) {
+      return template.weeks[week][col];
+   }
+
+   /**
+    * flags: The TODAY, HOLIDAY, and WEEKEND flags of a cell
+    *
+    * @param week The week (row), starting at 0
+    * @param col  The column, 0 for Sunday through 6 for Saturday
+    * @return The flags or'd together, or 0 for an empty cell
+    */
+   public int flags(int week, int col) {
+      int day = template.weeks[week][col];
+      if (day == 0) return 0;
+
+      return (col == 0 || col == 6) ? (dayFlags[day] | WEEKEND) : dayFlags[day];
+   }
+
+   /**
+    * styleKey: The color preference used to draw a cell, using the same key names as the Theme
+    *
+    * @param week The week (row), starting at 0
+    * @param col  The column, 0 for Sunday through 6 for Saturday
+    * @return "today", "holhighlight", or "day", or null for an empty cell
+    */
+   public String styleKey(int week, int col) {
+      if (template.weeks[week][col] == 0) return null;
+      return styleKey(flags(week, col));
+   }
+
+   /**
+    * styleKey: The color preference for a set of cell flags. Today wins over a holiday, and the theme
+    * has no weekend color, so weekends use the normal day color
+    *
+    * @param flags Cell flags
+    * @return "today", "holhighlight", or "day"
+    */
+   public static String styleKey(int flags) {
+      if ((flags & TODAY) != 0) return "today";
+      if ((flags & HOLIDAY) != 0) return "holhighlight";
+      return "day";
+   }
+
+   /**
+    * weekText: A week of the grid as plain text, with each day right justified in 2 characters and a
+    * space between them. The text is shared with every month of the same shape
+    *
+    * @param week The week (row), starting at 0
+    * @return The 20 character line
+    */
+   public String weekText(int week) {
+      return template.weekText[week];
+   }
+}
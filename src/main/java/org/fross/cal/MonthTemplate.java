@@ -0,0 +1,97 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+/**
+ * MonthTemplate holds the laid-out day grid for one month "shape". A month grid only depends on the
+ * weekday of the 1st and the number of days, so every month in every year maps onto one of these
+ * shared, immutable templates. MonthGrid only has to add the flags for each day on top of it.
+ */
+final class MonthTemplate {
+   // Pre-formatted day cells. Index 0 is an empty cell, 1-31 are the right justified day numbers
+   static final String[] CELLS = new String[32];
+
+   // 7 possible starting weekdays x 4 possible month lengths (28-31)
+   private static final MonthTemplate[] CACHE = new MonthTemplate[7 * 4];
+
+   final int offset;
+   final int length;
+   final int[][] weeks;
+   final String[] weekText;
+
+   static {
+      CELLS[0] = "  ";
+      for (int i = 1; i < CELLS.length; i++) {
+         CELLS[i] = String.format("%2d", i);
+      }
+   }
+
+   /**
+    * Constructor for MonthTemplate
+    *
+    * @param offset Number of blank cells before the 1st (0 = Sunday)
+    * @param length Number of days in the month (28-31)
+    */
+   private MonthTemplate(int offset, int length) {
+      this.offset = offset;
+      this.length = length;
+
+      int numWeeks = (offset + length + 6) / 7;
+      weeks = new int[numWeeks][7];
+      weekText = new String[numWeeks];
+
+      for (int w = 0; w < numWeeks; w++) {
+         StringBuilder sb = new StringBuilder(20);
+         for (int c = 0; c < 7; c++) {
+            int day = (w * 7) + c + 1 - offset;
+            if (day < 1 || day > length) day = 0;
+
+            weeks[w][c] = day;
+            sb.append(CELLS[day]);
+            if (c < 6) sb.append(' ');
+         }
+         weekText[w] = sb.toString();
+      }
+   }
+
+   /**
+    * of: Return the shared template for the given month shape, building it on first use
+    *
+    * @param offset Number of blank cells before the 1st (0 = Sunday)
+    * @param length Number of days in the month (28-31)
+    * @return The template for that shape
+    */
+   static MonthTemplate of(int offset, int length) {
+      int idx = (offset * 4) + (length - 28);
+
+      // Templates are immutable, so a race here only means one gets built twice
+      MonthTemplate template = CACHE[idx];
+      if (template == null) {
+         template = new MonthTemplate(offset, length);
+         CACHE[idx] = template;
+      }
+
+      return template;
+   }
+}
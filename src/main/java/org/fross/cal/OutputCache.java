@@ -0,0 +1,304 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+import org.jline.terminal.Terminal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * OutputCache keeps the bytes of recent calendars on disk so an identical run can send the file straight
+ * to standard out instead of rendering it again. The file name is a hash of everything that changes the
+ * output: the view, the months per row, the terminal type, the colors, the holiday country and the age
+ * of its data, the cal version, and today's date. Files that haven't been used recently are removed when
+ * the directory grows past its size limit.
+ * <p>
+ * The cache is off unless --render-cache is given. Year ranges are streamed as they render and are never
+ * cached.
+ */
+public class OutputCache {
+   public static final long MAX_CACHE_BYTES = 4L * 1024 * 1024;
+
+   private static boolean enabled = false;
+   private static Path cacheDirectory = HolidayCache.queryDataDirectory().resolve("render");
+   private static long maxCacheBytes = MAX_CACHE_BYTES;
+
+   public static void setEnabled(boolean state) {
+      enabled = state;
+   }
+
+   public static boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * setCacheDirectory: Use a different directory and size limit. Used by the tests
+    *
+    * @param directory Where the rendered files are kept
+    * @param maxBytes  Largest total size of the files before the least recently used are removed
+    */
+   static void setCacheDirectory(Path directory, long maxBytes) {
+      cacheDirectory = directory;
+      maxCacheBytes = maxBytes;
+   }
+
+   /**
+    * queryCacheDirectory: Return the location of the rendered output files
+    *
+    * @return Cache directory path
+    */
+   public static Path queryCacheDirectory() {
+      return cacheDirectory;
+   }
+
+   /**
+    * display: Send the cached output for the current command line to standard out, or render it, send
+    * it, and store it for next time
+    *
+    * @param terminal The terminal cal would have displayed on
+    * @param today    The current date for highlighting "today"
+    * @param render   Displays the calendar through Output
+    */
+   public static void display(Terminal terminal, LocalDate today, Runnable render) {
+      String key = queryKey(terminal, today);
+      Path cachedFile = cacheDirectory.resolve(key);
+
+      if (Files.isRegularFile(cachedFile)) {
+         try {
+            sendFile(terminal, cachedFile);
+            Files.setLastModifiedTime(cachedFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return;
+         } catch (IOException ex) {
+            Output.debugPrintln("Unable to use the cached output, rendering it: " + ex.getMessage());
+         }
+      }
+
+      byte[] rendered = capture(terminal, render);
+      try {
+         sendBytes(terminal, rendered);
+      } catch (IOException ex) {
+         Output.fatalError("Unable to write the calendar: " + ex.getMessage(), 8);
+      }
+
+      // Loading the holidays can change their data version, or fail and switch them off. Only keep the
+      // output when the key still describes it
+      if (key.equals(queryKey(terminal, today))) {
+         store(key, rendered);
+      }
+   }
+
+   /**
+    * queryKey: Hash everything that changes the output of the current command line
+    *
+    * @param terminal The terminal cal displays on
+    * @param today    The current date
+    * @return Hex SHA-256 of the inputs
+    */
+   static String queryKey(Terminal terminal, LocalDate today) {
+      StringBuilder inputs = new StringBuilder(128);
+      inputs.append(Main.VERSION)
+            .append('|').append(CommandLineArgs.isMonthSpecified() ? "month" : "year")
+            .append('|').append(CommandLineArgs.queryYearToUse())
+            .append('|').append(CommandLineArgs.isMonthSpecified() ? CommandLineArgs.queryMonthToUse() : 0)
+            .append('|').append(CommandLineArgs.queryNumToUse())
+            .append('|').append(CommandLineArgs.queryFormat())
+            .append('|').append(terminal != null ? terminal.getType() : "none")
+            .append('|').append(ColorSettings.queryThemeFingerprint())
+            .append('|').append(queryHolidayVersion())
+            .append('|').append(today);
+
+      try {
+         byte[] hash = MessageDigest.getInstance("SHA-256").digest(inputs.toString().getBytes(StandardCharsets.UTF_8));
+         return HexFormat.of().formatHex(hash);
+      } catch (NoSuchAlgorithmException ex) {
+         // Every Java runtime is required to provide SHA-256
+         throw new IllegalStateException(ex);
+      }
+   }
+
+   /**
+    * queryHolidayVersion: Describe the holidays that will be displayed. Cached holidays are identified by
+    * when their (country, year) entry was fetched and the server's validators for it, so caching other
+    * countries or years leaves the key alone. The built-in rules are identified by the cal version in the key
+    */
+   private static String queryHolidayVersion() {
+      if (!Holidays.queryHolidaysEnabled()) return "none";
+
+      String country = Holidays.queryCountryCode();
+      if (country == null) return "none";
+      if (Holidays.queryUseBuiltInRules() && HolidayRules.isSupported(country)) return country + ":rules";
+
+      int year = CommandLineArgs.queryYearToUse();
+      HolidayCache.Entry entry = HolidayCache.getEntry(country, year);
+      if (entry == null) return country + ":" + year + ":0";
+
+      return country + ":" + year + ":" + entry.fetchedMillis + ":" + entry.eTag + ":" + entry.lastModified;
+   }
+
+   /**
+    * capture: Run the render with Output pointed at a terminal that writes into memory
+    */
+   private static byte[] capture(Terminal terminal, Runnable render) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(8192);
+      String type = (terminal != null) ? terminal.getType() : "xterm-256color";
+      int columns = (terminal != null) ? terminal.getSize().getColumns() : 80;
+
+      try (Terminal capture = Frame.captureTerminal(output, type, columns)) {
+         Output.setTerminal(capture);
+         render.run();
+         capture.flush();
+      } catch (IOException ex) {
+         Output.setTerminal(terminal);
+         Output.fatalError("Unable to capture the calendar: " + ex.getMessage(), 8);
+      } finally {
+         Output.setTerminal(terminal);
+      }
+
+      return output.toByteArray();
+   }
+
+   /**
+    * sendFile: Copy a cached file to standard out. transferTo lets the operating system copy the file
+    * without passing it through the Java heap
+    */
+   private static void sendFile(Terminal terminal, Path file) throws IOException {
+      if (terminal != null) terminal.flush();
+
+      try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+         FileChannel stdout = standardOut();
+         long size = source.size();
+         for (long position = 0; position < size; ) {
+            position += source.transferTo(position, size - position, stdout);
+         }
+      }
+   }
+
+   /**
+    * sendBytes: Write freshly rendered output to standard out the same way a cached file is sent
+    */
+   private static void sendBytes(Terminal terminal, byte[] rendered) throws IOException {
+      if (terminal != null) terminal.flush();
+
+      ByteBuffer buffer = ByteBuffer.wrap(rendered);
+      FileChannel stdout = standardOut();
+      while (buffer.hasRemaining()) {
+         stdout.write(buffer);
+      }
+   }
+
+   /**
+    * standardOut: A channel on the process's standard out. It's never closed because that would close
+    * standard out itself
+    */
+   @SuppressWarnings("resource")
+   private static FileChannel standardOut() {
+      System.out.flush();
+      return new FileOutputStream(FileDescriptor.out).getChannel();
+   }
+
+   /**
+    * store: Save rendered output under its key, then trim the cache back under its size limit. Nothing
+    * is lost if this fails, the next run just renders again
+    */
+   private static void store(String key, byte[] rendered) {
+      try {
+         Files.createDirectories(cacheDirectory);
+
+         // Write to a temporary file first so another cal never reads a half written file
+         Path tempFile = Files.createTempFile(cacheDirectory, key, ".tmp");
+         Files.write(tempFile, rendered);
+         Files.move(tempFile, cacheDirectory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+         evict();
+
+      } catch (IOException ex) {
+         Output.debugPrintln("Unable to save the rendered output: " + ex.getMessage());
+      }
+   }
+
+   /**
+    * evict: Remove the least recently used files until the cache fits in its size limit
+    */
+   static void evict() throws IOException {
+      List<Path> files;
+      try (Stream<Path> listing = Files.list(cacheDirectory)) {
+         files = new ArrayList<>(listing.filter(Files::isRegularFile).toList());
+      }
+
+      long totalBytes = 0;
+      for (Path file : files) {
+         totalBytes += Files.size(file);
+      }
+      if (totalBytes <= maxCacheBytes) return;
+
+      files.sort(Comparator.comparingLong(OutputCache::lastModifiedMillis));
+      for (Path file : files) {
+         if (totalBytes <= maxCacheBytes) break;
+
+         long fileBytes = Files.size(file);
+         if (Files.deleteIfExists(file)) totalBytes -= fileBytes;
+      }
+   }
+
+   /**
+    * clear: Remove every cached file
+    */
+   public static void clear() throws IOException {
+      if (!Files.isDirectory(cacheDirectory)) return;
+
+      try (Stream<Path> listing = Files.list(cacheDirectory)) {
+         for (Path file : listing.toList()) {
+            Files.deleteIfExists(file);
+         }
+      }
+   }
+
+   private static long lastModifiedMillis(Path file) {
+      try {
+         return Files.getLastModifiedTime(file).toMillis();
+      } catch (IOException ex) {
+         return 0;
+      }
+   }
+}
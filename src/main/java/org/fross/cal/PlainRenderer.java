@@ -0,0 +1,48 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.IOException;
+
+/**
+ * PlainRenderer draws months as plain text with no colors. Today and the holidays look like any other day,
+ * so every week comes straight from the text shared by all months of the same shape.
+ */
+public final class PlainRenderer extends TextRenderer {
+
+   @Override
+   void appendTitle(Appendable out, MonthGrid grid) throws IOException {
+      appendCentered(out, grid.title());
+   }
+
+   @Override
+   void appendDayLabels(Appendable out) throws IOException {
+      out.append(MonthGrid.DAY_LABELS);
+   }
+
+   @Override
+   void appendWeek(Appendable out, MonthGrid grid, int week) throws IOException {
+      out.append(grid.weekText(week));
+   }
+}
@@ -0,0 +1,154 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * SvgRenderer draws months as an SVG image. Each month is a group moved into place with a transform, so
+ * the cells inside it always use the same coordinates, and the colors come from CSS classes that match the
+ * HtmlRenderer ones. The renderer remembers how many rows it has drawn to place the next one, so use a new
+ * renderer for each image.
+ */
+public final class SvgRenderer implements CalendarRenderer {
+   static final int MARGIN = 12;
+   static final int CELL_WIDTH = 28;
+   static final int CELL_HEIGHT = 20;
+   static final int MONTH_WIDTH = 7 * CELL_WIDTH;
+   static final int MONTH_HEIGHT = 44 + (6 * CELL_HEIGHT);
+   static final int COLUMN_GAP = 24;
+   static final int ROW_GAP = 20;
+
+   public static final String DEFAULT_CSS = ""
+         + "text { font-family: monospace; font-size: 13px; }\n"
+         + ".cal-title { font-weight: bold; text-anchor: middle; }\n"
+         + ".cal-dayofweek { fill: #555; text-anchor: end; }\n"
+         + ".cal-day { fill: #000; text-anchor: end; }\n"
+         + ".cal-weekend { fill: #777; }\n"
+         + ".cal-holiday { fill: #c00; font-weight: bold; }\n"
+         + ".cal-today { fill: #fff; }\n"
+         + ".cal-today-bg { fill: #1565c0; }\n";
+
+   private static final String DAY_LABELS;
+
+   // Cell coordinates inside a month, and the start of a day's text tag indexed by its MonthGrid flags
+   private static final String[] CELL_X = new String[7];
+   private static final String[] CELL_Y = new String[6];
+   private static final String[] BACKGROUND_X = new String[7];
+   private static final String[] BACKGROUND_Y = new String[6];
+   private static final String[] CELL_TAGS = new String[8];
+
+   private int rowCount = 0;
+
+   static {
+      for (int c = 0; c < 7; c++) {
+         CELL_X[c] = String.valueOf(((c + 1) * CELL_WIDTH) - 5);
+         BACKGROUND_X[c] = String.valueOf(c * CELL_WIDTH);
+      }
+
+      for (int w = 0; w < 6; w++) {
+         CELL_Y[w] = String.valueOf(58 + (w * CELL_HEIGHT));
+         BACKGROUND_Y[w] = String.valueOf(44 + (w * CELL_HEIGHT));
+      }
+
+      StringBuilder labels = new StringBuilder();
+      for (int c = 0; c < 7; c++) {
+         labels.append("<text class=\"cal-dayofweek\" x=\"").append(CELL_X[c]).append("\" y=\"38\">")
+               .append(MonthGrid.DAY_NAMES[c]).append("</text>\n");
+      }
+      DAY_LABELS = labels.toString();
+
+      for (int flags = 0; flags < 8; flags++) {
+         StringBuilder tag = new StringBuilder("<text class=\"cal-day");
+         if ((flags & MonthGrid.WEEKEND) != 0) tag.append(" cal-weekend");
+         if ((flags & MonthGrid.HOLIDAY) != 0) tag.append(" cal-holiday");
+         if ((flags & MonthGrid.TODAY) != 0) tag.append(" cal-today");
+         CELL_TAGS[flags] = tag.append("\" x=\"").toString();
+      }
+   }
+
+   @Override
+   public void beginDocument(Appendable out, String title, int rows, int columns) throws IOException {
+      int width = (2 * MARGIN) + (columns * MONTH_WIDTH) + ((columns - 1) * COLUMN_GAP);
+      int height = (2 * MARGIN) + (rows * MONTH_HEIGHT) + ((rows - 1) * ROW_GAP);
+
+      out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+      CalendarRenderer.appendNumber(out, width);
+      out.append("\" height=\"");
+      CalendarRenderer.appendNumber(out, height);
+      out.append("\" viewBox=\"0 0 ");
+      CalendarRenderer.appendNumber(out, width);
+      out.append(' ');
+      CalendarRenderer.appendNumber(out, height);
+      out.append("\">\n<title>");
+      HtmlRenderer.appendEscaped(out, title);
+      out.append("</title>\n<style>\n").append(DEFAULT_CSS).append("</style>\n");
+   }
+
+   @Override
+   public void render(List<MonthGrid> row, Appendable out) throws IOException {
+      int y = MARGIN + (rowCount * (MONTH_HEIGHT + ROW_GAP));
+
+      for (int m = 0; m < row.size(); m++) {
+         MonthGrid grid = row.get(m);
+
+         out.append("<g class=\"cal-month\" transform=\"translate(");
+         CalendarRenderer.appendNumber(out, MARGIN + (m * (MONTH_WIDTH + COLUMN_GAP)));
+         out.append(',');
+         CalendarRenderer.appendNumber(out, y);
+         out.append(")\">\n<text class=\"cal-title\" x=\"");
+         CalendarRenderer.appendNumber(out, MONTH_WIDTH / 2);
+         out.append("\" y=\"16\">").append(grid.monthName()).append(' ');
+         CalendarRenderer.appendNumber(out, grid.year());
+         out.append("</text>\n").append(DAY_LABELS);
+
+         for (int week = 0; week < grid.weekCount(); week++) {
+            for (int c = 0; c < 7; c++) {
+               int day = grid.day(week, c);
+               if (day == 0) continue;
+
+               int flags = grid.flags(week, c);
+               if ((flags & MonthGrid.TODAY) != 0) {
+                  out.append("<rect class=\"cal-today-bg\" x=\"").append(BACKGROUND_X[c])
+                        .append("\" y=\"").append(BACKGROUND_Y[week]).append("\" width=\"28\" height=\"20\"/>\n");
+               }
+
+               out.append(CELL_TAGS[flags]).append(CELL_X[c]).append("\" y=\"").append(CELL_Y[week]).append("\">");
+               CalendarRenderer.appendNumber(out, day);
+               out.append("</text>\n");
+            }
+         }
+
+         out.append("</g>\n");
+      }
+
+      rowCount++;
+   }
+
+   @Override
+   public void endDocument(Appendable out) throws IOException {
+      out.append("</svg>\n");
+   }
+}
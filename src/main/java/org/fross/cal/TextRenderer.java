@@ -0,0 +1,99 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * TextRenderer lays months out as fixed width text for a terminal. Every month is 8 lines of 20 characters
+ * (title, day labels, up to 6 weeks, then blank padding) and the months in a row are joined line by line
+ * with a 3 space gap. The subclasses only decide how each line of a month is drawn.
+ */
+abstract class TextRenderer implements CalendarRenderer {
+   static final int MONTH_WIDTH = 20;
+   static final int MONTH_HEIGHT = 8;
+   static final String GAP = "   ";
+   static final String BLANK_LINE = " ".repeat(MONTH_WIDTH);
+   private static final String NEWLINE = System.lineSeparator();
+
+   @Override
+   public void render(List<MonthGrid> row, Appendable out) throws IOException {
+      for (int line = 0; line < MONTH_HEIGHT; line++) {
+         for (int m = 0; m < row.size(); m++) {
+            // Add a 3-space gap between columns, but not after the last month
+            if (m > 0) out.append(GAP);
+
+            MonthGrid grid = row.get(m);
+            if (line == 0) {
+               appendTitle(out, grid);
+            } else if (line == 1) {
+               appendDayLabels(out);
+            } else if (line - 2 < grid.weekCount()) {
+               appendWeek(out, grid, line - 2);
+            } else {
+               out.append(BLANK_LINE);
+            }
+         }
+         out.append(NEWLINE);
+      }
+   }
+
+   @Override
+   public boolean queryTextLayout() {
+      return true;
+   }
+
+   /**
+    * appendTitle: Write the month name and year centered in the month's width
+    */
+   abstract void appendTitle(Appendable out, MonthGrid grid) throws IOException;
+
+   /**
+    * appendDayLabels: Write the "Su Mo Tu We Th Fr Sa" line
+    */
+   abstract void appendDayLabels(Appendable out) throws IOException;
+
+   /**
+    * appendWeek: Write one week of the grid
+    */
+   abstract void appendWeek(Appendable out, MonthGrid grid, int week) throws IOException;
+
+   /**
+    * appendCentered: Write text centered in the width of a month, cutting it off if it's too long
+    *
+    * @param out  Where the text is written
+    * @param text The text to center
+    */
+   static void appendCentered(Appendable out, String text) throws IOException {
+      if (text.length() >= MONTH_WIDTH) {
+         out.append(text, 0, MONTH_WIDTH);
+         return;
+      }
+
+      int leftPad = (MONTH_WIDTH - text.length()) / 2;
+      int rightPad = MONTH_WIDTH - text.length() - leftPad;
+      out.append(BLANK_LINE, 0, leftPad).append(text).append(BLANK_LINE, 0, rightPad);
+   }
+}
@@ -0,0 +1,96 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.jline.utils.AttributedStyle;
+
+/**
+ * Theme is an immutable snapshot of the calendar colors. ColorSettings builds it once from the user
+ * preferences so the render loop only reads final fields instead of querying the preferences system
+ * for every day it draws.
+ */
+public final class Theme {
+   // Used when colorized output is disabled. Every component is plain text
+   public static final Theme PLAIN = new Theme(AttributedStyle.DEFAULT, AttributedStyle.DEFAULT, AttributedStyle.DEFAULT,
+         AttributedStyle.DEFAULT, AttributedStyle.DEFAULT, AttributedStyle.DEFAULT, AttributedStyle.DEFAULT,
+         AttributedStyle.DEFAULT, AttributedStyle.DEFAULT, AttributedStyle.DEFAULT, false);
+
+   public final AttributedStyle month;
+   public final AttributedStyle dayOfWeek;
+   public final AttributedStyle day;
+   public final AttributedStyle today;
+   public final AttributedStyle todayFG;
+   public final AttributedStyle todayBG;
+   public final AttributedStyle holTitle;
+   public final AttributedStyle holText;
+   public final AttributedStyle holHighlight;
+   public final AttributedStyle other;
+   private final boolean bold;
+
+   Theme(AttributedStyle month, AttributedStyle dayOfWeek, AttributedStyle day, AttributedStyle today, AttributedStyle todayFG,
+         AttributedStyle todayBG, AttributedStyle holTitle, AttributedStyle holText, AttributedStyle holHighlight,
+         AttributedStyle other, boolean bold) {
+      this.month = month;
+      this.dayOfWeek = dayOfWeek;
+      this.day = day;
+      this.today = today;
+      this.todayFG = todayFG;
+      this.todayBG = todayBG;
+      this.holTitle = holTitle;
+      this.holText = holText;
+      this.holHighlight = holHighlight;
+      this.other = other;
+      this.bold = bold;
+   }
+
+   /**
+    * get: Return the style for a component using the same key names stored in the preferences
+    *
+    * @param key The lowercase UI element name (month, dayofweek, day, today, etc.)
+    * @return The matching style or the default day color if the key is unknown
+    */
+   public AttributedStyle get(String key) {
+      return switch (key) {
+         case "month"        -> month;
+         case "dayofweek"    -> dayOfWeek;
+         case "day"          -> day;
+         case "today"        -> today;
+         case "todayfg"      -> todayFG;
+         case "todaybg"      -> todayBG;
+         case "holtitle"     -> holTitle;
+         case "holtext"      -> holText;
+         case "holhighlight" -> holHighlight;
+         default             -> other;
+      };
+   }
+
+   /**
+    * isBold: Return true if the styles in this snapshot were built with bold output enabled
+    *
+    * @return Bold state at the time the theme was built
+    */
+   public boolean isBold() {
+      return bold;
+   }
+}
@@ -0,0 +1,223 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings records how long each phase of a run takes so a slow host can be narrowed down to the terminal,
+ * the preferences, the command line, the holidays, rendering, or output. Phases nest: the time spent in an
+ * inner phase is only counted there, so the table adds up to the time since main() started. A phase that
+ * runs more than once (the output of a year range, for example) is added up with a count.
+ * <p>
+ * Only the thread that turned timings on is recorded, so work on background threads (the holiday prefetch
+ * or a parallel render) shows up as the time the main thread waited for it. Recording costs nothing when
+ * timings are off.
+ */
+public class Timings {
+   private static boolean enabled = false;
+   private static Thread owner = null;
+   private static long mainStartNanos = System.nanoTime();
+   private static final Map<String, long[]> phases = new LinkedHashMap<>();
+   private static final Deque<long[]> childNanos = new ArrayDeque<>();
+
+   /**
+    * setEnabled: Turn recording on or off. Turning it on starts the clock for the run
+    *
+    * @param state True to record the phases
+    */
+   public static void setEnabled(boolean state) {
+      enabled = state;
+      owner = Thread.currentThread();
+      phases.clear();
+      childNanos.clear();
+      mainStartNanos = System.nanoTime();
+   }
+
+   public static boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * isRequested: Take a quick look at the raw arguments for --timings before they are parsed so the
+    * phases before the command line is processed are recorded too
+    *
+    * @param argv Command line arguments
+    * @return True if --timings or --timings-json was given
+    */
+   public static boolean isRequested(String[] argv) {
+      for (String arg : argv) {
+         if (arg.equals("--timings") || arg.equals("--timings-json")) return true;
+      }
+      return false;
+   }
+
+   /**
+    * begin: Start timing a phase
+    *
+    * @return The start time to give to end(), or 0 if timings are off
+    */
+   public static long begin() {
+      if (!enabled || Thread.currentThread() != owner) return 0;
+
+      childNanos.push(new long[1]);
+      return System.nanoTime();
+   }
+
+   /**
+    * end: Finish timing a phase started with begin()
+    *
+    * @param phase Name of the phase shown in the report
+    * @param start The value returned by begin()
+    */
+   public static void end(String phase, long start) {
+      if (!enabled || Thread.currentThread() != owner || childNanos.isEmpty()) return;
+
+      long elapsed = System.nanoTime() - start;
+      long selfNanos = elapsed - childNanos.pop()[0];
+
+      // The enclosing phase doesn't count this time again
+      if (!childNanos.isEmpty()) childNanos.peek()[0] += elapsed;
+
+      long[] totals = phases.computeIfAbsent(phase, k -> new long[2]);
+      totals[0] += selfNanos;
+      totals[1]++;
+   }
+
+   /**
+    * queryPhaseNanos: Time recorded for a phase
+    *
+    * @param phase Name of the phase
+    * @return Nanoseconds spent in the phase, or 0 if it never ran
+    */
+   public static long queryPhaseNanos(String phase) {
+      long[] totals = phases.get(phase);
+      return (totals != null) ? totals[0] : 0;
+   }
+
+   /**
+    * print: Write the report as a table, or as JSON for collecting across machines. It goes to standard
+    * error so it never mixes with the calendar
+    *
+    * @param json True for JSON, false for a table
+    */
+   public static void print(boolean json) {
+      PrintStream out = System.err;
+      out.print(json ? toJson() : toTable());
+      out.flush();
+   }
+
+   /**
+    * toTable: The phases, the time the JVM took to reach main(), and the total as a table
+    */
+   static String toTable() {
+      long totalNanos = System.nanoTime() - mainStartNanos;
+      long otherNanos = totalNanos - recordedNanos();
+      StringBuilder table = new StringBuilder(1024);
+
+      table.append(String.format("%n%-28s %10s %8s %6s%n", "Phase", "ms", "%", "Count"));
+      table.append("-".repeat(55)).append(String.format("%n"));
+
+      long jvmNanos = queryJvmStartNanos();
+      if (jvmNanos > 0) {
+         table.append(String.format("%-28s %10.2f %8s %6s%n", "JVM start (before main)", jvmNanos / 1e6, "", ""));
+      }
+
+      for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+         table.append(String.format("%-28s %10.2f %7.1f%% %6d%n", phase.getKey(), phase.getValue()[0] / 1e6, percent(phase.getValue()[0], totalNanos), phase.getValue()[1]));
+      }
+      table.append(String.format("%-28s %10.2f %7.1f%% %6s%n", "Other", otherNanos / 1e6, percent(otherNanos, totalNanos), ""));
+
+      table.append("-".repeat(55)).append(String.format("%n"));
+      table.append(String.format("%-28s %10.2f %7.1f%%%n", "Total (main to exit)", totalNanos / 1e6, 100.0));
+      return table.toString();
+   }
+
+   /**
+    * toJson: The same report as a single JSON object on one line
+    */
+   static String toJson() {
+      long totalNanos = System.nanoTime() - mainStartNanos;
+      StringWriter text = new StringWriter(512);
+
+      try (JsonWriter json = new JsonWriter(text)) {
+         json.beginObject();
+         json.name("version").value(Main.VERSION);
+         json.name("jvmStartMillis").value(queryJvmStartNanos() / 1e6);
+         json.name("totalMillis").value(totalNanos / 1e6);
+         json.name("otherMillis").value((totalNanos - recordedNanos()) / 1e6);
+
+         json.name("phases").beginArray();
+         for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+            json.beginObject();
+            json.name("name").value(phase.getKey());
+            json.name("millis").value(phase.getValue()[0] / 1e6);
+            json.name("count").value(phase.getValue()[1]);
+            json.endObject();
+         }
+         json.endArray();
+
+         json.endObject();
+      } catch (IOException ex) {
+         // A StringWriter never fails
+      }
+
+      return text + System.lineSeparator();
+   }
+
+   private static long recordedNanos() {
+      long recorded = 0;
+      for (long[] totals : phases.values()) {
+         recorded += totals[0];
+      }
+      return recorded;
+   }
+
+   private static double percent(long part, long whole) {
+      return (whole > 0) ? (100.0 * part / whole) : 0;
+   }
+
+   /**
+    * queryJvmStartNanos: Time from the process starting to main() being called, or 0 if the operating
+    * system doesn't report when the process started
+    */
+   private static long queryJvmStartNanos() {
+      Instant processStart = ProcessHandle.current().info().startInstant().orElse(null);
+      if (processStart == null) return 0;
+
+      long sinceStart = Duration.between(processStart, Instant.now()).toNanos();
+      long sinceMain = System.nanoTime() - mainStartNanos;
+      return Math.max(0, sinceStart - sinceMain);
+   }
+}
@@ -46,7 +46,7 @@ public class GitHub {
 
 		try {
 			// Read the tags from the GitHub Tags API
-			String githubPage = URLOperations.ReadURL(finalURL);
+			String githubPage = HttpFetch.get(finalURL).body;
 
 			// Pull out the latest version
 			Pattern pattern = Pattern.compile("name.: *\"(.*?)\"", Pattern.CASE_INSENSITIVE);
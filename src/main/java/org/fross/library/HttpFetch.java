@@ -0,0 +1,460 @@
+/* ------------------------------------------------------------------------------
+ * Library Project
+ *
+ *  Library holds methods and classes frequently used by my programs.
+ *
+ *  Copyright (c) 2011-2026 Michael Fross
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ------------------------------------------------------------------------------*/
+package org.fross.library;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * HttpFetch: Retrieve data from websites over a single shared HttpClient so connections are reused
+ * between calls. Responses are requested gzip compressed, and conditional requests are supported so a
+ * cached copy can be revalidated with a cheap 304. A BodyReader can be supplied to decode the body as it
+ * streams in rather than holding it in memory as a String.
+ * <p>
+ * CONNECT_TIMEOUT limits opening the connection. READ_TIMEOUT limits the wait for the response headers
+ * and then the wait for each read of the body, so a server that stops sending partway through can't
+ * block the caller forever.
+ */
+public class HttpFetch {
+   public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+   public static final Duration READ_TIMEOUT = Duration.ofSeconds(10);
+   private static HttpClient client = null;
+   private static Duration readTimeout = READ_TIMEOUT;
+
+   /**
+    * BodyReader: Decodes a response body as it's read from the connection
+    */
+   @FunctionalInterface
+   public interface BodyReader<T> {
+      T read(Reader body) throws IOException;
+   }
+
+   /**
+    * Response: The parts of an HTTP response the callers care about
+    */
+   public static class Response<T> {
+      public final int status;
+      public final T body;
+      public final String eTag;
+      public final String lastModified;
+
+      Response(int status, T body, String eTag, String lastModified) {
+         this.status = status;
+         this.body = body;
+         this.eTag = eTag;
+         this.lastModified = lastModified;
+      }
+
+      /**
+       * isNotModified: True if the server confirmed the cached copy is still current (HTTP 304)
+       *
+       * @return True if the response was a 304
+       */
+      public boolean isNotModified() {
+         return status == 304;
+      }
+   }
+
+   /**
+    * FetchEvent: Flight recorder event for one request. The duration covers sending the request and
+    * reading the body
+    */
+   @Name("org.fross.library.HttpFetch")
+   @Label("HTTP Fetch")
+   @Category("Cal")
+   @Description("Retrieving a URL")
+   public static class FetchEvent extends Event {
+      @Label("URL")
+      String url;
+
+      @Label("Status")
+      int status;
+
+      @Label("Bytes Received")
+      @Description("Size of the body as sent by the server, before gzip decoding")
+      @DataAmount
+      long bytes;
+   }
+
+   /**
+    * getClient: Build the shared client on first use
+    */
+   private static synchronized HttpClient getClient() {
+      if (client == null) {
+         client = HttpClient.newBuilder()
+               .connectTimeout(CONNECT_TIMEOUT)
+               .followRedirects(HttpClient.Redirect.NORMAL)
+               .build();
+      }
+      return client;
+   }
+
+   /**
+    * setReadTimeout: Change how long to wait for the headers and each read of the body. Used by the tests.
+    */
+   static synchronized void setReadTimeout(Duration timeout) {
+      readTimeout = timeout;
+   }
+
+   /**
+    * get: Retrieve a URL
+    *
+    * @param url URL to retrieve
+    * @return The response
+    * @throws IOException If the server couldn't be reached or didn't return a 200
+    */
+   public static Response<String> get(String url) throws IOException {
+      return get(url, null, null);
+   }
+
+   /**
+    * get: Retrieve a URL, asking the server to only send the body if it has changed since the
+    * provided ETag or Last-Modified values were returned
+    *
+    * @param url          URL to retrieve
+    * @param eTag         ETag of the cached copy, or null
+    * @param lastModified Last-Modified value of the cached copy, or null
+    * @return The response. Check isNotModified() to see if the cached copy is still current
+    * @throws IOException If the server couldn't be reached or didn't return a 200 or 304
+    */
+   public static Response<String> get(String url, String eTag, String lastModified) throws IOException {
+      return get(url, eTag, lastModified, HttpFetch::readString);
+   }
+
+   /**
+    * get: Retrieve a URL and decode the body with the provided reader as it arrives. The body is never
+    * held in memory as a whole unless the reader chooses to do so.
+    *
+    * @param url          URL to retrieve
+    * @param eTag         ETag of the cached copy, or null
+    * @param lastModified Last-Modified value of the cached copy, or null
+    * @param bodyReader   Decoder for the response body. It is not called for a 304
+    * @return The response with the decoded body. Check isNotModified() to see if the cached copy is still current
+    * @throws IOException If the server couldn't be reached, didn't return a 200 or 304, or the body couldn't be decoded
+    */
+   public static <T> Response<T> get(String url, String eTag, String lastModified, BodyReader<T> bodyReader) throws IOException {
+      FetchEvent event = new FetchEvent();
+      event.begin();
+      event.url = url;
+
+      try {
+         HttpResponse<InputStream> response = send(url, eTag, lastModified, event);
+
+         // A 304 has no body to decode, even if the server says it would have been compressed
+         if (response.statusCode() == 304) {
+            response.body().close();
+            return new Response<>(304, null, eTag, lastModified);
+         }
+
+         CountingInputStream received = new CountingInputStream(response.body());
+         try (Reader body = new InputStreamReader(decode(response, received), charsetOf(response))) {
+            T decoded = bodyReader.read(body);
+            return new Response<>(response.statusCode(), decoded, header(response, "ETag"), header(response, "Last-Modified"));
+
+         } finally {
+            event.bytes = received.count;
+         }
+      } finally {
+         event.commit();
+      }
+   }
+
+   /**
+    * readString: BodyReader that returns the whole body as text
+    */
+   private static String readString(Reader body) throws IOException {
+      StringWriter text = new StringWriter();
+      body.transferTo(text);
+      return text.toString();
+   }
+
+   /**
+    * send: Send a GET request and check the status code
+    */
+   private static HttpResponse<InputStream> send(String url, String eTag, String lastModified, FetchEvent event) throws IOException {
+      Duration timeout;
+      synchronized (HttpFetch.class) {
+         timeout = readTimeout;
+      }
+
+      HttpRequest.Builder request;
+      try {
+         request = HttpRequest.newBuilder(new URI(url))
+               .timeout(timeout)
+               .header("Accept-Encoding", "gzip")
+               .GET();
+      } catch (Exception ex) {
+         throw new IOException("Invalid URL '" + url + "': " + ex.getMessage());
+      }
+
+      if (eTag != null) request.header("If-None-Match", eTag);
+      if (lastModified != null) request.header("If-Modified-Since", lastModified);
+
+      HttpResponse<InputStream> response;
+      try {
+         response = getClient().send(request.build(), responseInfo -> new TimedBodyStream(timeout));
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new IOException("Interrupted while reading '" + url + "'");
+      }
+
+      int status = response.statusCode();
+      event.status = status;
+      if (status != 200 && !(status == 304 && (eTag != null || lastModified != null))) {
+         response.body().close();
+         throw new IOException("HTTP " + status + " returned from '" + url + "'");
+      }
+
+      return response;
+   }
+
+   /**
+    * decode: Wrap the body in a gzip decoder if the server compressed it
+    */
+   private static InputStream decode(HttpResponse<InputStream> response, InputStream body) throws IOException {
+      String encoding = header(response, "Content-Encoding");
+      if (encoding != null && encoding.equalsIgnoreCase("gzip")) {
+         return new GZIPInputStream(body);
+      }
+      return body;
+   }
+
+   /**
+    * TimedBodyStream: The response body as an InputStream that gives up with an HttpTimeoutException when
+    * a read waits longer than the timeout for more data. HttpRequest.timeout() stops applying once the
+    * headers arrive, so this is what bounds the body. The data arrives from the client one list of buffers
+    * at a time and the next list is only requested when the last one is used up.
+    */
+   static class TimedBodyStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+      // Queued after the last buffers so the reader knows the body is complete
+      private static final Object END = new Object();
+
+      private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+      private final Duration timeout;
+      private volatile Flow.Subscription subscription = null;
+      private volatile boolean closed = false;
+      private Iterator<ByteBuffer> buffers = Collections.emptyIterator();
+      private ByteBuffer current = null;
+      private boolean complete = false;
+
+      TimedBodyStream(Duration timeout) {
+         this.timeout = timeout;
+      }
+
+      @Override
+      public CompletionStage<InputStream> getBody() {
+         return CompletableFuture.completedStage(this);
+      }
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+         this.subscription = subscription;
+         if (closed) {
+            subscription.cancel();
+         } else {
+            subscription.request(1);
+         }
+      }
+
+      @Override
+      public void onNext(List<ByteBuffer> item) {
+         queue.add(item);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+         queue.add(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+         queue.add(END);
+      }
+
+      /**
+       * fill: Make sure there's data in the current buffer, waiting up to the timeout for more to arrive
+       *
+       * @return False at the end of the body
+       */
+      @SuppressWarnings("unchecked")
+      private boolean fill() throws IOException {
+         while (current == null || !current.hasRemaining()) {
+            if (buffers.hasNext()) {
+               current = buffers.next();
+               continue;
+            }
+
+            if (complete) return false;
+            if (closed) throw new IOException("The response body is closed");
+
+            Object item;
+            try {
+               item = queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+               Thread.currentThread().interrupt();
+               close();
+               throw new InterruptedIOException("Interrupted while reading the response body");
+            }
+
+            if (item == null) {
+               close();
+               throw new HttpTimeoutException("No data received for " + timeout.toMillis() + "ms while reading the response body");
+            } else if (item == END) {
+               complete = true;
+            } else if (item instanceof Throwable error) {
+               complete = true;
+               throw (error instanceof IOException ioException) ? ioException : new IOException(error);
+            } else {
+               buffers = ((List<ByteBuffer>) item).iterator();
+               subscription.request(1);
+            }
+         }
+         return true;
+      }
+
+      @Override
+      public int read() throws IOException {
+         if (!fill()) return -1;
+         return current.get() & 0xFF;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0) return 0;
+         if (!fill()) return -1;
+
+         int n = Math.min(len, current.remaining());
+         current.get(b, off, n);
+         return n;
+      }
+
+      @Override
+      public int available() {
+         return (current == null) ? 0 : current.remaining();
+      }
+
+      /**
+       * close: Stop the body if it hasn't all arrived, which frees the connection
+       */
+      @Override
+      public void close() {
+         if (closed) return;
+         closed = true;
+
+         Flow.Subscription s = subscription;
+         if (s != null && !complete) s.cancel();
+      }
+   }
+
+   /**
+    * CountingInputStream: Counts the bytes read from the connection for the fetch event
+    */
+   private static class CountingInputStream extends FilterInputStream {
+      long count = 0;
+
+      CountingInputStream(InputStream in) {
+         super(in);
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = super.read();
+         if (b >= 0) count++;
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int n = super.read(b, off, len);
+         if (n > 0) count += n;
+         return n;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         long skipped = super.skip(n);
+         count += skipped;
+         return skipped;
+      }
+   }
+
+   /**
+    * charsetOf: Use the charset in the Content-Type header, defaulting to UTF-8
+    */
+   private static Charset charsetOf(HttpResponse<?> response) {
+      String contentType = header(response, "Content-Type");
+      if (contentType != null) {
+         for (String part : contentType.split(";")) {
+            part = part.trim();
+            if (part.toLowerCase().startsWith("charset=")) {
+               try {
+                  return Charset.forName(part.substring(8).replace("\"", "").trim());
+               } catch (Exception ex) { /* Fall back to UTF-8 */ }
+            }
+         }
+      }
+      return StandardCharsets.UTF_8;
+   }
+
+   /**
+    * header: Return the first value of a response header or null if it's not present
+    */
+   private static String header(HttpResponse<?> response, String name) {
+      return response.headers().firstValue(name).orElse(null);
+   }
+}
@@ -32,6 +32,10 @@ import org.jline.utils.AttributedStringBuilder;
 import org.jline.utils.AttributedStyle;
 import org.jline.utils.InfoCmp.Capability;
 
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.regex.Pattern;
+
 public class Output {
    // -------------------------------------------------------------------------
    // Standard 3-Bit Shorthand Color Constants (0 - 7)
@@ -92,14 +96,83 @@ public class Output {
    public static final int GRAY_LEVEL_4 = 250; // Very Light Gray
    public static final int SILK_WHITE = 254;   // Soft Off-White
 
+   // Color names mapped to the constants above so a color can be found by name without reflection
+   private static final Map<String, Integer> COLOR_NAMES = Map.ofEntries(
+         Map.entry("BLACK", BLACK),
+         Map.entry("RED", RED),
+         Map.entry("GREEN", GREEN),
+         Map.entry("YELLOW", YELLOW),
+         Map.entry("BLUE", BLUE),
+         Map.entry("MAGENTA", MAGENTA),
+         Map.entry("CYAN", CYAN),
+         Map.entry("WHITE", WHITE),
+         Map.entry("DARK_GRAY", DARK_GRAY),
+         Map.entry("LIGHT_RED", LIGHT_RED),
+         Map.entry("LIGHT_GREEN", LIGHT_GREEN),
+         Map.entry("LIGHT_YELLOW", LIGHT_YELLOW),
+         Map.entry("LIGHT_BLUE", LIGHT_BLUE),
+         Map.entry("LIGHT_MAGENTA", LIGHT_MAGENTA),
+         Map.entry("LIGHT_CYAN", LIGHT_CYAN),
+         Map.entry("BRIGHT_WHITE", BRIGHT_WHITE),
+         Map.entry("ORANGE", ORANGE),
+         Map.entry("LIGHT_ORANGE", LIGHT_ORANGE),
+         Map.entry("BRIGHT_GOLD", BRIGHT_GOLD),
+         Map.entry("MUSTARD", MUSTARD),
+         Map.entry("GOLD", GOLD),
+         Map.entry("PINK", PINK),
+         Map.entry("NEON_PINK", NEON_PINK),
+         Map.entry("CORAL", CORAL),
+         Map.entry("CRIMSON", CRIMSON),
+         Map.entry("TEAL", TEAL),
+         Map.entry("ELECTRIC_TEAL", ELECTRIC_TEAL),
+         Map.entry("MINT_GREEN", MINT_GREEN),
+         Map.entry("LIME", LIME),
+         Map.entry("OLIVE", OLIVE),
+         Map.entry("PURPLE", PURPLE),
+         Map.entry("AMETHYST", AMETHYST),
+         Map.entry("SKY_BLUE", SKY_BLUE),
+         Map.entry("ELECTRIC_BLUE", ELECTRIC_BLUE),
+         Map.entry("DEEP_BLUE", DEEP_BLUE),
+         Map.entry("GRAY_LEVEL_1", GRAY_LEVEL_1),
+         Map.entry("GRAY_LEVEL_2", GRAY_LEVEL_2),
+         Map.entry("GRAY_LEVEL_3", GRAY_LEVEL_3),
+         Map.entry("GRAY_LEVEL_4", GRAY_LEVEL_4),
+         Map.entry("SILK_WHITE", SILK_WHITE));
+
+   // Matches the ANSI color codes removed when colorized output is off
+   private static final Pattern ANSI_COLOR = Pattern.compile("\u001B\\[[;\\d]*m");
+
    static boolean colorizedOutput = true;      // By default, color is enabled
    public static boolean boldOutput = false;   // By default, the output is not bold
+   static boolean exitOnFatalError = true;     // By default, a fatal error ends the program
    private static Terminal terminal;
+   private static PrintWriter writer;
 
    public static void setTerminal(Terminal t) {
       terminal = t;
    }
 
+   /**
+    * setWriter(): Send output to a writer instead of a terminal. Used when standard out isn't a terminal
+    * so JLine doesn't have to be started. A terminal set with setTerminal() takes precedence
+    *
+    * @param w Writer for the output, or null to go back to System.out
+    */
+   public static void setWriter(PrintWriter w) {
+      writer = w;
+   }
+
+   /**
+    * queryColorValue(): Return the value of one of the named color constants
+    *
+    * @param colorName Name of the color constant in upper case, e.g. LIGHT_BLUE
+    * @return The color value, or -1 if the name isn't a known color
+    */
+   public static int queryColorValue(String colorName) {
+      Integer colorValue = COLOR_NAMES.get(colorName);
+      return (colorValue != null) ? colorValue : -1;
+   }
+
    /**
     * enableColor(): Enable or disable colorized output
     *
@@ -172,10 +245,9 @@ public class Output {
     * @param msg     Message to display
     */
    public static void printColor(int fgColor, int bgColor, String msg) {
-      if (terminal != null && colorizedOutput) {
+      if ((terminal != null || writer != null) && colorizedOutput) {
          String styledMsg = returnColorString(fgColor, bgColor, msg);
-         terminal.writer().print(styledMsg);
-         terminal.flush();
+         write(styledMsg);
 
       } else {
          print(msg);
@@ -214,6 +286,18 @@ public class Output {
       printColor(fgColor, -1, msg + "\n");
    }
 
+   /**
+    * stripColor(): Remove the ANSI color codes from a message. Plain text, which is what cal renders when
+    * color is off, is returned as is without running the pattern
+    *
+    * @param msg Message that may contain ANSI color codes
+    * @return The message without color codes
+    */
+   static String stripColor(String msg) {
+      if (msg == null || msg.indexOf('\u001B') < 0) return msg;
+      return ANSI_COLOR.matcher(msg).replaceAll("");
+   }
+
    /**
     * println(): Prints text to the terminal. Strips ANSI color codes if colorizedOutput is false.
     *
@@ -223,14 +307,11 @@ public class Output {
       String finalMsg = msg;
 
       // Strip ANSI escape characters if colors are globally toggled off
-      if (!colorizedOutput && msg != null) {
-         finalMsg = msg.replaceAll("\u001B\\[[;\\d]*m", "");
+      if (!colorizedOutput) {
+         finalMsg = stripColor(msg);
       }
 
-      if (terminal != null) {
-         terminal.writer().println(finalMsg);
-         terminal.flush();
-      } else {
+      if (!write(finalMsg + System.lineSeparator())) {
          System.out.println(finalMsg);
       }
    }
@@ -244,16 +325,35 @@ public class Output {
       String finalMsg = msg;
 
       // Strip ANSI escape characters if colors are globally toggled off
-      if (!colorizedOutput && msg != null) {
-         finalMsg = msg.replaceAll("\u001B\\[[;\\d]*m", "");
+      if (!colorizedOutput) {
+         finalMsg = stripColor(msg);
+      }
+
+      if (!write(finalMsg)) {
+         System.out.print(finalMsg);
       }
+   }
 
+   /**
+    * write(): Send text to the terminal, or the writer if there is no terminal, and flush it
+    *
+    * @param msg Text to send
+    * @return False if neither a terminal nor a writer is set
+    */
+   private static boolean write(String msg) {
       if (terminal != null) {
-         terminal.writer().print(finalMsg);
+         terminal.writer().print(msg);
          terminal.flush();
-      } else {
-         System.out.print(finalMsg);
+         return true;
+      }
+
+      if (writer != null) {
+         writer.print(msg);
+         writer.flush();
+         return true;
       }
+
+      return false;
    }
 
    /**
@@ -264,9 +364,35 @@ public class Output {
     */
    public static void fatalError(String msg, int errorCode) {
       Output.printColorln(RED, "\nFATAL ERROR: " + msg);
+
+      if (!exitOnFatalError) {
+         throw new FatalErrorException(msg, errorCode);
+      }
       System.exit(errorCode);
    }
 
+   /**
+    * setExitOnFatalError(): Long running programs that handle many requests can turn this off so a
+    * fatalError() ends the request with a FatalErrorException instead of ending the program
+    *
+    * @param value Set to false to throw a FatalErrorException instead of exiting
+    */
+   public static void setExitOnFatalError(boolean value) {
+      exitOnFatalError = value;
+   }
+
+   /**
+    * FatalErrorException: Thrown by fatalError() when exitOnFatalError is turned off
+    */
+   public static class FatalErrorException extends RuntimeException {
+      public final int errorCode;
+
+      public FatalErrorException(String msg, int errorCode) {
+         super(msg);
+         this.errorCode = errorCode;
+      }
+   }
+
    /**
     * debugPrintln(): Print the provided text in RED with the preface of DEBUG: with a newline
     *
@@ -40,28 +40,7 @@ public class URLOperations {
     * @throws Exception
     */
    public static String ReadURL(String urlString) throws Exception {
-      BufferedReader reader = null;
-      StringBuilder buffer = null;
-
-      try {
-         URL url = new URI(urlString).toURL();
-         reader = new BufferedReader(new InputStreamReader(url.openStream()));
-         buffer = new StringBuilder();
-         int read;
-         char[] chars = new char[1024];
-         while ((read = reader.read(chars)) != -1) {
-            buffer.append(chars, 0, read);
-         }
-
-      } catch (Exception ex) {
-         throw new IOException(ex.getMessage());
-      } finally {
-         if (reader != null) {
-            reader.close();
-         }
-      }
-
-      return buffer.toString();
+      return HttpFetch.get(urlString).body;
    }
 
    /**
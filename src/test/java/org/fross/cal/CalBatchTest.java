@@ -0,0 +1,125 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CalBatchTest: Renders several lines in one batch and checks the records, the separators, and that bad
+ * lines are reported without stopping the batch
+ */
+class CalBatchTest {
+
+   @AfterEach
+   void tearDown() {
+      CommandLineArgs.reset();
+      ColorSettings.setColorEnabled(true);
+   }
+
+   @Test
+   void testBatchRendersEveryLine() throws IOException {
+      String input = String.join("\n",
+            "# A comment and a blank line are skipped",
+            "",
+            "-z 3 2024",
+            "-z 13 2024",
+            "--serve 8080",
+            "-z -n 4 2025");
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      ByteArrayOutputStream errors = new ByteArrayOutputStream();
+      PrintStream originalErr = System.err;
+      CalBatch.Summary summary;
+      try {
+         System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+         summary = CalBatch.run(new StringReader(input), output, "\0");
+      } finally {
+         System.setErr(originalErr);
+      }
+
+      assertEquals(2, summary.rendered);
+      assertEquals(2, summary.failed);
+
+      String[] records = output.toString(StandardCharsets.UTF_8).split("\0", -1);
+      assertEquals(3, records.length, "Each calendar should be followed by the separator");
+      assertTrue(records[0].contains("March 2024"));
+      assertFalse(records[0].contains("April"), "A month line should only show that month");
+      assertTrue(records[1].contains("January 2025") && records[1].contains("December 2025"));
+      assertFalse(records[1].contains("\u001B"), "-z should give plain text");
+      assertEquals("", records[2]);
+
+      // The failed lines are reported with their line numbers and leave nothing in the output
+      String reported = errors.toString(StandardCharsets.UTF_8);
+      assertTrue(reported.contains("Line 4:"), reported);
+      assertTrue(reported.contains("Line 5:"), reported);
+      assertFalse(output.toString(StandardCharsets.UTF_8).contains("FATAL ERROR"));
+   }
+
+   @Test
+   void testParseSeparator() {
+      assertEquals(CalBatch.DEFAULT_SEPARATOR, CalBatch.parseSeparator(null));
+      assertEquals("\n--\n", CalBatch.parseSeparator("\\n--\\n"));
+      assertEquals("\0", CalBatch.parseSeparator("\\0"));
+      assertEquals("a\tb\\", CalBatch.parseSeparator("a\\tb\\\\"));
+      assertEquals("\\x", CalBatch.parseSeparator("\\x"));
+   }
+
+
+   @Test
+   void testBatchOptionsApplyToEveryLine() throws IOException {
+      String[] options = CalBatch.queryBatchOptions(new String[]{"--batch", "-z", "--batch-separator", "\\0", "-n", "2", "2030"});
+      assertArrayEquals(new String[]{"-z", "-n", "2"}, options);
+
+      // Debug messages would end up inside the records, so -D isn't passed on
+      assertArrayEquals(new String[]{"-d"}, CalBatch.queryBatchOptions(new String[]{"--batch", "-D", "-d", "--debug"}));
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      CalBatch.Summary summary = CalBatch.run(new StringReader("2025\n-n 4 2026\n"), output, "\0", options);
+      assertEquals(2, summary.rendered);
+
+      // Each line was reset to the defaults before it ran, but -z and -n still apply
+      String[] records = output.toString(StandardCharsets.UTF_8).split("\0", -1);
+      assertFalse(records[0].contains("\u001B"), "The batch -z was lost");
+      assertFalse(records[1].contains("\u001B"), "The batch -z was lost");
+
+      String firstRow = records[0].split(System.lineSeparator())[0];
+      assertTrue(firstRow.contains("February 2025") && !firstRow.contains("March"), "The batch -n 2 was lost");
+
+      // A line can override them
+      firstRow = records[1].split(System.lineSeparator())[0];
+      assertTrue(firstRow.contains("April 2026"), "The line's -n 4 should win");
+   }
+}
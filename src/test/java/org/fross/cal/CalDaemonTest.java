@@ -0,0 +1,225 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CalDaemonTest: Checks which command lines go to the daemon, that a request renders without ending the
+ * JVM, that the state it keeps between requests is refreshed, and a full round trip over a private socket
+ */
+class CalDaemonTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void testRenderOnlyCommandLines() {
+      assertTrue(CalDaemon.isRenderOnly(new String[]{}));
+      assertTrue(CalDaemon.isRenderOnly(new String[]{"-n", "4", "-d", "2025"}));
+      assertTrue(CalDaemon.isRenderOnly(new String[]{"-z", "9", "2025"}));
+      assertTrue(CalDaemon.isRenderOnly(new String[]{"--builtin-holidays", "-d", "2020-2022"}));
+      assertTrue(CalDaemon.isRenderOnly(new String[]{"--format", "html", "2025"}));
+
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"-h"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"-v"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"-D", "2025"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"-n"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"-n", "x"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"--format", "pdf"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"--daemon"}));
+      assertFalse(CalDaemon.isRenderOnly(new String[]{"January"}));
+   }
+
+   @Test
+   void testParseRequest() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream request = new DataOutputStream(bytes);
+      request.writeInt(1);
+      request.writeInt(2);
+      request.writeUTF("-n");
+      request.writeUTF("3");
+      request.writeInt(120);
+      byte[] data = bytes.toByteArray();
+
+      CalDaemon.Request parsed = CalDaemon.parseRequest(data, data.length);
+      assertArrayEquals(new String[]{"-n", "3"}, parsed.argv());
+      assertEquals(120, parsed.columns());
+
+      // Part of a request waits for the rest
+      assertNull(CalDaemon.parseRequest(data, data.length - 1));
+
+      // Argument counts that can't be real are rejected before anything is allocated
+      for (int argCount : new int[]{-1, CalDaemon.MAX_ARGUMENTS + 1, Integer.MAX_VALUE}) {
+         bytes.reset();
+         request.writeInt(1);
+         request.writeInt(argCount);
+         byte[] garbage = bytes.toByteArray();
+         assertThrows(IOException.class, () -> CalDaemon.parseRequest(garbage, garbage.length));
+      }
+   }
+
+   @Test
+   void testFixedLayout() {
+      assertTrue(CalDaemon.hasFixedLayout(new String[]{"-d", "-n", "4", "2025"}));
+      assertTrue(CalDaemon.hasFixedLayout(new String[]{"--num", "2"}));
+      assertFalse(CalDaemon.hasFixedLayout(new String[]{"-d", "2025"}));
+   }
+
+   @Test
+   void testRenderDoesNotExit() throws IOException {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      assertEquals(0, CalDaemon.render(new String[]{"-z", "-n", "3", "2025"}, 80, output));
+      String calendar = output.toString(StandardCharsets.UTF_8);
+      assertTrue(calendar.contains("January"), "Year view is missing January");
+      assertTrue(calendar.contains("December"), "Year view is missing December");
+
+      // A fatal error ends the request with its exit code instead of ending the JVM
+      output.reset();
+      assertEquals(6, CalDaemon.render(new String[]{"-z", "0"}, 80, output));
+      assertTrue(output.toString(StandardCharsets.UTF_8).contains("FATAL ERROR"));
+
+      // The next request starts from clean settings
+      output.reset();
+      assertEquals(0, CalDaemon.render(new String[]{"-z", "2", "2026"}, 80, output));
+      assertTrue(output.toString(StandardCharsets.UTF_8).contains("February"));
+   }
+
+   @Test
+   void testThemeFollowsStoredColors() {
+      String originalMonth = ColorSettings.prefs.get("month", "73");
+
+      try {
+         CalDaemon.resetRequestState();
+         Theme first = ColorSettings.getTheme();
+
+         // Nothing changed, so the next request keeps the same theme
+         CalDaemon.resetRequestState();
+         assertSame(first, ColorSettings.getTheme());
+
+         // Another process changing a color is picked up by the next request
+         ColorSettings.prefs.put("month", originalMonth.equals("red") ? "green" : "red");
+         CalDaemon.resetRequestState();
+         assertNotSame(first, ColorSettings.getTheme());
+
+      } finally {
+         ColorSettings.setColor("month", originalMonth);
+      }
+   }
+
+   @Test
+   void testRetainedHolidaysExpire() throws IOException {
+      Path originalCacheFile = HolidayCache.queryCacheFile();
+      HolidayCache.setCacheFile(tempDir.resolve("holidays.dat"));
+
+      TreeMap<String, String> first = new TreeMap<>();
+      first.put("2025-01-01", "New Year's Day");
+      TreeMap<String, String> second = new TreeMap<>(first);
+      second.put("2025-12-25", "Christmas Day");
+
+      try {
+         Holidays.setRetainHolidays(true);
+         HolidayCache.put("US", 2025, first);
+         assertEquals(first, Holidays.requireHolidays("US", 2025));
+
+         // A retained year is used until it's old enough to be loaded again
+         HolidayCache.put("US", 2025, second);
+         assertEquals(first, Holidays.requireHolidays("US", 2025));
+
+         Holidays.setRetainFor(Duration.ZERO);
+         assertEquals(second, Holidays.requireHolidays("US", 2025));
+
+      } finally {
+         Holidays.setRetainFor(Holidays.RETAIN_FOR);
+         Holidays.setRetainHolidays(false);
+         HolidayCache.setCacheFile(originalCacheFile);
+      }
+   }
+
+   @Test
+   void testSocketRoundTrip() throws Exception {
+      Path originalSocket = CalDaemon.querySocketFile();
+      Path socket = tempDir.resolve("cal.sock");
+      CalDaemon.setSocketFile(socket);
+
+      Thread daemon = new Thread(() -> CalDaemon.serve(1));
+      PrintStream originalOut = System.out;
+      try {
+         daemon.start();
+         for (int i = 0; i < 100 && !Files.exists(socket); i++) {
+            Thread.sleep(50);
+         }
+         assertTrue(CalDaemon.isDaemonRequest(new String[]{"-z", "3", "2025"}), "Daemon socket was not created");
+
+         // A client that connects and never sends anything doesn't hold up the next one
+         try (SocketChannel silent = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            silent.connect(UnixDomainSocketAddress.of(socket));
+
+            ByteArrayOutputStream clientOut = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(clientOut, true, StandardCharsets.UTF_8));
+            long start = System.nanoTime();
+            int exitCode = CalDaemon.sendRequest(new String[]{"-z", "-n", "3", "3", "2025"});
+            long elapsed = System.nanoTime() - start;
+            System.setOut(originalOut);
+
+            assertEquals(0, exitCode);
+            assertTrue(clientOut.toString(StandardCharsets.UTF_8).contains("March"), "Daemon response is missing March");
+            assertTrue(elapsed < CalDaemon.READ_TIMEOUT.toNanos(), "The request waited for the silent client");
+         }
+
+      } finally {
+         System.setOut(originalOut);
+         CalDaemon.stop();
+         daemon.join(5000);
+         CalDaemon.setSocketFile(originalSocket);
+      }
+
+      // The socket is removed when the daemon exits and a client falls back to running in-process
+      assertFalse(Files.exists(socket));
+      assertEquals(-1, CalDaemon.sendRequest(new String[]{"2025"}));
+   }
+}
@@ -0,0 +1,258 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CalServerTest: Checks the request parsing, the bounded render cache, and the HTTP responses of a server
+ * on a free port
+ */
+class CalServerTest {
+   private CalServer server;
+   private HttpClient client;
+
+   @BeforeEach
+   void setUp() throws Exception {
+      Holidays.setUseBuiltInRules(true);
+      server = CalServer.start(0, 4);
+      client = HttpClient.newHttpClient();
+   }
+
+   @AfterEach
+   void tearDown() {
+      server.stop();
+      client.close();
+      Holidays.setUseBuiltInRules(false);
+   }
+
+   private HttpResponse<String> get(String path) throws Exception {
+      HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.queryPort() + path)).build();
+      return client.send(request, HttpResponse.BodyHandlers.ofString());
+   }
+
+   @Test
+   void testParseRequest() {
+      CalServer.Key key = server.parseRequest(URI.create("/year/2025?format=text&cols=4"));
+      assertEquals("year", key.view());
+      assertEquals(2025, key.year());
+      assertEquals(4, key.cols());
+      assertEquals(CalServer.Format.TEXT, key.format());
+      assertEquals(Theme.PLAIN, key.theme());
+      assertEquals("", key.country());
+
+      key = server.parseRequest(URI.create("/month/2025/7?country=ca"));
+      assertEquals(7, key.month());
+      assertEquals(CalServer.Format.ANSI, key.format());
+      assertEquals("CA", key.country());
+
+      // The same request made twice gives equal keys
+      assertEquals(server.parseRequest(URI.create("/year/2030")), server.parseRequest(URI.create("/year/2030")));
+
+      assertNull(server.parseRequest(URI.create("/week/2025")));
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/month/2025/13")));
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/year/2025?cols=0")));
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/year/2025?format=xml")));
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/year/2025?country=USA")));
+
+      // Only real countries, and only years that have holidays to download
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/year/2025?country=XX")));
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/year/1776?country=US")));
+      assertThrows(IllegalArgumentException.class, () -> server.parseRequest(URI.create("/month/9999/1?holidays=true")));
+      assertEquals(1776, server.parseRequest(URI.create("/year/1776")).year());
+   }
+
+   @Test
+   void testListensOnLoopback() {
+      assertTrue(server.queryAddress().getAddress().isLoopbackAddress());
+   }
+
+   @Test
+   void testRetainedHolidaysAreBounded() throws Exception {
+      Path originalCacheFile = HolidayCache.queryCacheFile();
+      Path testCacheFile = Files.createTempDirectory("cal-test").resolve("holidays.dat");
+
+      try {
+         HolidayCache.setCacheFile(testCacheFile);
+
+         // More cached years than the server keeps in memory. FR has no built-in rules, so they come from the cache
+         Map<String, HolidayCache.Entry> entries = new TreeMap<>();
+         for (int year = 1900; year < 1900 + Holidays.MAX_RETAINED + 20; year++) {
+            TreeMap<String, String> holidays = new TreeMap<>();
+            holidays.put(year + "-07-14", "Fête nationale");
+            entries.put(HolidayCache.entryKey("FR", year), new HolidayCache.Entry(holidays, System.currentTimeMillis(), null, null));
+         }
+         HolidayCache.putAll(entries);
+
+         Holidays.setRetainHolidays(true);
+         for (int year = 1900; year < 1900 + Holidays.MAX_RETAINED + 20; year++) {
+            assertEquals(year + "-07-14", Holidays.requireHolidays("FR", year).firstKey());
+         }
+         assertEquals(Holidays.MAX_RETAINED, Holidays.queryRetainedCount());
+
+      } finally {
+         Holidays.setRetainHolidays(false);
+         HolidayCache.setCacheFile(originalCacheFile);
+         Files.deleteIfExists(testCacheFile);
+         Files.deleteIfExists(testCacheFile.resolveSibling("holidays.dat.lock"));
+         Files.deleteIfExists(testCacheFile.getParent());
+      }
+   }
+
+   @Test
+   void testRenderCacheEvictsLeastRecentlyUsed() {
+      CalServer.RenderCache cache = new CalServer.RenderCache(2);
+      CalServer.Key first = new CalServer.Key("year", 2001, 0, 3, CalServer.Format.TEXT, Theme.PLAIN, "", LocalDate.now());
+      CalServer.Key second = new CalServer.Key("year", 2002, 0, 3, CalServer.Format.TEXT, Theme.PLAIN, "", LocalDate.now());
+      CalServer.Key third = new CalServer.Key("year", 2003, 0, 3, CalServer.Format.TEXT, Theme.PLAIN, "", LocalDate.now());
+
+      cache.put(first, new byte[]{1});
+      cache.put(second, new byte[]{2});
+      assertArrayEquals(new byte[]{1}, cache.get(first));
+
+      // The second entry is now the least recently used
+      cache.put(third, new byte[]{3});
+      assertEquals(2, cache.size());
+      assertNull(cache.get(second));
+      assertArrayEquals(new byte[]{1}, cache.get(first));
+      assertEquals(2, cache.queryHits());
+      assertEquals(1, cache.queryMisses());
+   }
+
+   @Test
+   void testTextAndCacheHeader() throws Exception {
+      HttpResponse<String> response = get("/month/2025/3?format=text");
+      assertEquals(200, response.statusCode());
+      assertEquals("miss", response.headers().firstValue("X-Cal-Cache").orElse(""));
+      assertTrue(response.body().contains("March 2025"));
+      assertFalse(response.body().contains("\u001B["), "Plain text contains ANSI codes");
+
+      response = get("/month/2025/3?format=text");
+      assertEquals("hit", response.headers().firstValue("X-Cal-Cache").orElse(""));
+   }
+
+   @Test
+   void testYearWithHolidays() throws Exception {
+      HttpResponse<String> response = get("/year/2025?format=text&cols=4&country=US");
+      assertEquals(200, response.statusCode());
+      assertTrue(response.body().contains("January 2025"));
+      assertTrue(response.body().contains("December 2025"));
+      assertTrue(response.body().contains("07-04|"), "Year is missing the holiday legend");
+   }
+
+   @Test
+   void testLegendNamesRequestedCountry() throws Exception {
+      // The legend is titled with the country in the request, not the one the server runs in
+      HttpResponse<String> response = get("/year/2025?format=text&country=DE");
+      assertEquals(200, response.statusCode());
+      assertTrue(response.body().contains("2025 holidays for " + Holidays.queryCountry("DE")), response.body());
+   }
+
+   @Test
+   void testUnavailableHolidaysAreNotCached() throws Exception {
+      String originalAPI = Holidays.holidayAPI;
+      Path originalCacheFile = HolidayCache.queryCacheFile();
+      Path testCacheFile = Files.createTempDirectory("cal-test").resolve("holidays.dat");
+      boolean displayHolidays = Holidays.queryHolidaysEnabled();
+
+      try {
+         // Nothing listens on port 1, and there are no built-in rules for FR
+         Holidays.holidayAPI = "http://127.0.0.1:1/";
+         HolidayCache.setCacheFile(testCacheFile);
+
+         assertEquals(503, get("/year/2025?format=text&country=FR").statusCode());
+         assertEquals(0, server.queryCache().size(), "A render without its holidays was cached");
+         assertEquals(displayHolidays, Holidays.queryHolidaysEnabled(), "The server changed the holiday display");
+
+         // The next request tries again rather than getting the failed render
+         assertEquals(503, get("/year/2025?format=text&country=FR").statusCode());
+      } finally {
+         Holidays.holidayAPI = originalAPI;
+         HolidayCache.setCacheFile(originalCacheFile);
+         Files.deleteIfExists(testCacheFile);
+         Files.deleteIfExists(testCacheFile.resolveSibling("holidays.dat.lock"));
+         Files.deleteIfExists(testCacheFile.getParent());
+      }
+   }
+
+   @Test
+   void testJson() throws Exception {
+      HttpResponse<String> response = get("/month/2025/12?format=json&country=US");
+      assertEquals(200, response.statusCode());
+      assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+
+      JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+      assertEquals(2025, json.get("year").getAsInt());
+      JsonObject december = json.getAsJsonArray("months").get(0).getAsJsonObject();
+      assertEquals("December", december.get("name").getAsString());
+
+      // December 1st, 2025 is a Monday
+      assertEquals(1, december.getAsJsonArray("weeks").get(0).getAsJsonArray().get(1).getAsInt());
+      assertEquals("2025-12-25", december.getAsJsonArray("holidays").get(0).getAsJsonObject().get("date").getAsString());
+   }
+
+   @Test
+   void testHtmlAndSvg() throws Exception {
+      HttpResponse<String> response = get("/year/2025?format=html&country=US");
+      assertEquals(200, response.statusCode());
+      assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/html"));
+      assertTrue(response.body().startsWith("<!DOCTYPE html>"));
+      assertTrue(response.body().contains("<caption>December 2025</caption>"));
+      assertTrue(response.body().contains("<td class=\"cal-day cal-holiday\">25</td>"), "Christmas is not highlighted");
+
+      response = get("/month/2025/12?format=svg");
+      assertEquals(200, response.statusCode());
+      assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("image/svg+xml"));
+      assertTrue(response.body().startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\""));
+      assertTrue(response.body().endsWith("</svg>\n"));
+   }
+
+   @Test
+   void testErrors() throws Exception {
+      assertEquals(404, get("/").statusCode());
+      assertEquals(400, get("/month/2025/0").statusCode());
+      assertEquals(400, get("/year/2025?format=xml").statusCode());
+   }
+}
@@ -0,0 +1,221 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CalendarRendererTest: Checks the month grid model and that every backend draws it correctly
+ */
+class CalendarRendererTest {
+
+   private static List<MonthGrid> queryYear(int year, LocalDate today) {
+      TreeMap<String, String> holidays = new TreeMap<>();
+      holidays.put("2025-07-04", "Independence Day");
+      holidays.put("2025-12-25", "Christmas Day");
+      HolidayIndex holidayIndex = HolidayIndex.of(holidays);
+
+      List<MonthGrid> months = new ArrayList<>(12);
+      for (int month = 1; month <= 12; month++) {
+         months.add(new MonthGrid(year, month, today, holidayIndex));
+      }
+      return months;
+   }
+
+   private static String renderDocument(CalendarRenderer renderer, List<MonthGrid> months, int cols) throws IOException {
+      StringBuilder out = new StringBuilder();
+      renderer.beginDocument(out, "2025", (months.size() + cols - 1) / cols, cols);
+      for (int rowStart = 0; rowStart < months.size(); rowStart += cols) {
+         renderer.render(months.subList(rowStart, Math.min(rowStart + cols, months.size())), out);
+      }
+      renderer.endDocument(out);
+      return out.toString();
+   }
+
+   @Test
+   void testMonthGridFlags() {
+      MonthGrid july = queryYear(2025, LocalDate.of(2025, 7, 4)).get(6);
+
+      // July 1st, 2025 is a Tuesday, so the 4th is in the first week on Friday and the 5th on Saturday
+      assertEquals(4, july.day(0, 5));
+      assertEquals(MonthGrid.TODAY | MonthGrid.HOLIDAY, july.flags(0, 5));
+      assertEquals("today", july.styleKey(0, 5));
+      assertEquals(MonthGrid.WEEKEND, july.flags(0, 6));
+      assertEquals("day", july.styleKey(0, 6));
+
+      // The cells before the 1st are empty
+      assertEquals(0, july.day(0, 0));
+      assertEquals(0, july.flags(0, 0));
+      assertNull(july.styleKey(0, 0));
+
+      MonthGrid december = queryYear(2025, null).get(11);
+      assertEquals("December 2025", december.title());
+      assertEquals(5, december.weekCount());
+      assertEquals("holhighlight", december.styleKey(3, 4));
+   }
+
+   @Test
+   void testMonthTemplateShapes() {
+      // February 2026 starts on a Sunday and has 28 days, so it fits in exactly 4 weeks
+      MonthTemplate feb = MonthTemplate.of(0, 28);
+      assertEquals(4, feb.weeks.length);
+      assertEquals(" 1  2  3  4  5  6  7", feb.weekText[0]);
+      assertEquals("22 23 24 25 26 27 28", feb.weekText[3]);
+
+      // Months with the same shape share the same template (Jan 2026 and Oct 2026 both start on Thursday)
+      assertSame(MonthTemplate.of(4, 31), MonthTemplate.of(4, 31));
+      assertEquals("             1  2  3", MonthTemplate.of(4, 31).weekText[0]);
+   }
+
+   @Test
+   void testTextMonthLayout() throws IOException {
+      // A 4 week month is still padded out to 8 lines
+      StringBuilder out = new StringBuilder();
+      new PlainRenderer().render(List.of(new MonthGrid(2026, 2, null, null)), out);
+      String[] expected = {"   February 2026    ", MonthGrid.DAY_LABELS, " 1  2  3  4  5  6  7", " 8  9 10 11 12 13 14",
+            "15 16 17 18 19 20 21", "22 23 24 25 26 27 28", " ".repeat(20), " ".repeat(20)};
+      assertEquals(String.join(System.lineSeparator(), expected) + System.lineSeparator(), out.toString());
+
+      // Every month shape, including a 6 week month (August 2026), is 8 lines of 20 characters, and the ANSI
+      // text is the same as the plain text when there are no styles
+      for (int month = 1; month <= 12; month++) {
+         MonthGrid grid = new MonthGrid(2026, month, LocalDate.of(2026, month, 1), null);
+
+         StringBuilder plain = new StringBuilder();
+         new PlainRenderer().render(List.of(grid), plain);
+         String[] lines = plain.toString().split(System.lineSeparator());
+         assertEquals(8, lines.length, "Month " + month);
+         for (String line : lines) {
+            assertEquals(20, line.length(), "Month " + month + " line '" + line + "'");
+         }
+
+         StringBuilder ansi = new StringBuilder();
+         new AnsiRenderer(Theme.PLAIN, null).render(List.of(grid), ansi);
+         assertEquals(plain.toString(), ansi.toString());
+      }
+   }
+
+   @Test
+   void testAnsiHolidayHighlight() throws IOException {
+      boolean colorEnabled = ColorSettings.queryColorEnabled();
+      try {
+         ColorSettings.setColorEnabled(true);
+         TreeMap<String, String> holidays = new TreeMap<>();
+         holidays.put("2026-01-01", "New Year's Day");
+
+         StringBuilder out = new StringBuilder();
+         new AnsiRenderer(ColorSettings.getTheme(), null).render(List.of(new MonthGrid(2026, 1, LocalDate.of(2026, 3, 17), HolidayIndex.of(holidays))), out);
+
+         // January 1st 2026 is a Thursday, on the 3rd line after the header and the day labels
+         String firstWeek = out.toString().split(System.lineSeparator())[2];
+         assertTrue(firstWeek.contains("\u001b[3"), "Holiday color escape sequence missing");
+      } finally {
+         ColorSettings.setColorEnabled(colorEnabled);
+      }
+   }
+
+   @Test
+   void testTextRowLayout() throws IOException {
+      StringBuilder out = new StringBuilder();
+      new PlainRenderer().render(queryYear(2025, null).subList(0, 3), out);
+
+      String[] lines = out.toString().split(System.lineSeparator());
+      assertEquals(8, lines.length);
+      assertEquals("    January 2025          February 2025            March 2025    ", lines[0]);
+      assertEquals("Su Mo Tu We Th Fr Sa   Su Mo Tu We Th Fr Sa   Su Mo Tu We Th Fr Sa", lines[1]);
+      for (String line : lines) {
+         assertEquals(66, line.length());
+      }
+   }
+
+   @Test
+   void testHtml() throws IOException {
+      String html = renderDocument(new HtmlRenderer(), queryYear(2025, LocalDate.of(2025, 7, 4)), 3);
+
+      assertTrue(html.startsWith("<!DOCTYPE html>"));
+      assertTrue(html.endsWith("</html>\n"));
+      assertEquals(12, html.split("<table class=\"cal-month\">", -1).length - 1);
+      assertEquals(4, html.split("<div class=\"cal-row\">", -1).length - 1);
+      assertTrue(html.contains("<caption>July 2025</caption>"));
+      assertTrue(html.contains("<td class=\"cal-day cal-holiday cal-today\">4</td>"));
+      assertTrue(html.contains("<td class=\"cal-day cal-weekend\">5</td>"));
+      assertTrue(html.contains("<td class=\"cal-day cal-holiday\">25</td>"));
+
+      // On its own, render() only writes the tables so they can go into another page
+      StringBuilder fragment = new StringBuilder();
+      new HtmlRenderer().render(queryYear(2025, null).subList(0, 1), fragment);
+      assertTrue(fragment.toString().startsWith("<div class=\"cal-row\">"));
+   }
+
+   @Test
+   void testSvg() throws Exception {
+      String svg = renderDocument(new SvgRenderer(), queryYear(2025, LocalDate.of(2025, 7, 4)), 4);
+
+      // The image must be well formed XML
+      Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(svg)));
+      assertEquals("svg", document.getDocumentElement().getTagName());
+      assertEquals(12, document.getElementsByTagName("g").getLength());
+      assertEquals(1, document.getElementsByTagName("rect").getLength(), "Only today has a background");
+
+      // 4 months of 196 pixels, 3 gaps of 24, and a 12 pixel margin on each side
+      assertEquals("880", document.getDocumentElement().getAttribute("width"));
+      assertTrue(svg.contains("transform=\"translate(232,196)\""), "June is not the second month of the second row");
+      assertTrue(svg.contains("<text class=\"cal-day cal-holiday cal-today\" x=\"163\" y=\"58\">4</text>"));
+   }
+
+   @Test
+   void testForFormat() {
+      assertTrue(CalendarRenderer.forFormat("ansi", Theme.PLAIN, null).queryTextLayout());
+      assertTrue(CalendarRenderer.forFormat("text", Theme.PLAIN, null).queryTextLayout());
+      assertTrue(CalendarRenderer.forFormat("html", Theme.PLAIN, null) instanceof HtmlRenderer);
+      assertTrue(CalendarRenderer.forFormat("svg", Theme.PLAIN, null) instanceof SvgRenderer);
+      assertThrows(IllegalArgumentException.class, () -> CalendarRenderer.forFormat("pdf", Theme.PLAIN, null));
+   }
+
+   @Test
+   void testAppendNumber() throws IOException {
+      StringBuilder out = new StringBuilder();
+      for (int value : new int[]{0, 7, 10, 31, 2025, Integer.MAX_VALUE}) {
+         CalendarRenderer.appendNumber(out, value);
+         out.append(',');
+      }
+      assertEquals("0,7,10,31,2025," + Integer.MAX_VALUE + ",", out.toString());
+   }
+}
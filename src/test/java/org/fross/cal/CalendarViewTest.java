@@ -29,8 +29,13 @@ import org.jline.terminal.impl.DumbTerminal;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.TreeMap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -100,4 +105,112 @@ public class CalendarViewTest {
       assertTrue(output.contains("January"), "Full year view is missing January");
       assertTrue(output.contains("December"), "Full year view is missing December");
    }
-}
\ No newline at end of file
+
+   /**
+    * testYearRangeLayout:
+    * Verifies that a range of years renders each year in order.
+    */
+   @Test
+   void testYearRangeLayout() throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Terminal terminal = new DumbTerminal(System.in, out);
+      Output.setTerminal(terminal);
+
+      CalendarView cv = new CalendarView(terminal, LocalDate.now());
+      cv.printYearRange(2025, 2026, 3);
+
+      String output = out.toString();
+
+      // Both years should be present and 2025 must come before 2026
+      assertTrue(output.contains("January 2025"), "Range view is missing January 2025");
+      assertTrue(output.contains("December 2026"), "Range view is missing December 2026");
+      assertTrue(output.indexOf("December 2025") < output.indexOf("January 2026"), "Years were not printed in order");
+   }
+
+   /**
+    * testRangeSurvivesMissingYear:
+    * Verifies that a year whose holidays can't be loaded doesn't drop the holidays of the years after it.
+    */
+   @Test
+   void testRangeSurvivesMissingYear() throws Exception {
+      String originalAPI = Holidays.holidayAPI;
+      Path originalCacheFile = HolidayCache.queryCacheFile();
+      Path testCacheFile = Files.createTempDirectory("cal-test").resolve("holidays.dat");
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Terminal terminal = new DumbTerminal(System.in, out);
+      Output.setTerminal(terminal);
+
+      try {
+         // 2025 and 2027 are cached, and 2026 can't be downloaded because nothing listens on port 1
+         Holidays.holidayAPI = "http://127.0.0.1:1/";
+         HolidayCache.setCacheFile(testCacheFile);
+         for (int year : new int[]{2025, 2027}) {
+            TreeMap<String, String> holidays = new TreeMap<>();
+            holidays.put(year + "-01-01", "New Year's Day");
+            HolidayCache.put(Holidays.queryCountryCode(), year, holidays);
+         }
+
+         Holidays.setDisplayHolidays(true);
+         new CalendarView(terminal, LocalDate.now()).printYearRange(2025, 2027, 3);
+
+         String output = out.toString();
+         assertTrue(output.contains("2025 holidays for"), "The 2025 legend is missing");
+         assertFalse(output.contains("2026 holidays for"), "2026 has no holidays to list");
+         assertTrue(output.contains("2027 holidays for"), "The failed 2026 load dropped the 2027 legend");
+         assertTrue(Holidays.queryHolidaysEnabled(), "A failed year turned off the holiday display");
+
+      } finally {
+         Holidays.setDisplayHolidays(false);
+         Holidays.holidayAPI = originalAPI;
+         HolidayCache.setCacheFile(originalCacheFile);
+         Files.deleteIfExists(testCacheFile);
+         Files.deleteIfExists(testCacheFile.resolveSibling("holidays.dat.lock"));
+         Files.deleteIfExists(testCacheFile.getParent());
+      }
+   }
+
+   /**
+    * testParallelMatchesSequential:
+    * Verifies that rendering the months in parallel produces exactly the same output as the sequential path.
+    */
+   @Test
+   void testParallelMatchesSequential() throws Exception {
+      LocalDate testDate = LocalDate.of(2025, 7, 4);
+      String[] results = new String[2];
+
+      for (int i = 0; i < 2; i++) {
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         Terminal terminal = new DumbTerminal(System.in, out);
+         Output.setTerminal(terminal);
+
+         new CalendarView(terminal, testDate, i == 1).printFullYear(2025, 4);
+         results[i] = out.toString();
+      }
+
+      assertEquals(results[0], results[1], "Parallel rendering changed the output");
+   }
+
+   /**
+    * testPlainYearHasNoAnsi:
+    * Verifies that with color off a year is written as plain text with the months stitched side by side.
+    */
+   @Test
+   void testPlainYearHasNoAnsi() throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Terminal terminal = new DumbTerminal(System.in, out);
+      Output.setTerminal(terminal);
+
+      try {
+         ColorSettings.setColorEnabled(false);
+         new CalendarView(terminal, LocalDate.of(2025, 7, 4)).printFullYear(2025, 3);
+      } finally {
+         ColorSettings.setColorEnabled(true);
+      }
+
+      String output = out.toString();
+      assertFalse(output.contains("\u001B"), "Plain output contains ANSI escape codes");
+      assertTrue(output.contains("    January 2025          February 2025            March 2025    "), "Months were not stitched into a row");
+      assertTrue(output.contains("Su Mo Tu We Th Fr Sa   Su Mo Tu We Th Fr Sa   Su Mo Tu We Th Fr Sa"));
+   }
+}
@@ -132,4 +132,22 @@ public class ColorSettingsTest {
       // 4. Reset for other tests
       ColorSettings.setColorEnabled(true);
    }
-}
\ No newline at end of file
+
+   /**
+    * testThemeSnapshot:
+    * Verifies the theme is built once and reused, and that setColor forces a fresh snapshot.
+    */
+   @Test
+   void testThemeSnapshot() {
+      String originalMonth = ColorSettings.prefs.get("month", "73");
+
+      Theme first = ColorSettings.getTheme();
+      assertSame(first, ColorSettings.getTheme(), "Theme should be reused between lookups");
+
+      ColorSettings.setColor("month", "red");
+      assertNotSame(first, ColorSettings.getTheme(), "setColor should rebuild the theme");
+
+      // Reset to the original value for other tests
+      ColorSettings.setColor("month", originalMonth);
+   }
+}
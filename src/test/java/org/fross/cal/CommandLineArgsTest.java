@@ -141,6 +141,55 @@ class CommandLineArgsTest {
       assertTrue(CommandLineArgs.isMonthSpecified(), "Full date input must be true to trigger Month View");
    }
 
+   /**
+    * testYearRange: Verifies that a START-END parameter is treated as a range of years
+    */
+   @Test
+   void testYearRange() {
+      CommandLineArgs.ProcessCommandLine(new String[]{"2020-2040"}, testTerminal);
+
+      assertTrue(CommandLineArgs.isRangeSpecified(), "START-END should be parsed as a year range");
+      assertFalse(CommandLineArgs.isMonthSpecified(), "A year range must not trigger the Month View");
+      assertEquals(2020, CommandLineArgs.queryYearToUse());
+      assertEquals(2040, CommandLineArgs.queryRangeEndYear());
+   }
+
+   /**
+    * testHolidayPrefetchYear: Verifies the early look at the raw arguments finds the year whose holidays
+    * will be displayed, and skips the prefetch when -d isn't given or no calendar is drawn
+    */
+   @Test
+   void testHolidayPrefetchYear() {
+      int currentYear = org.fross.library.Date.getCurrentYear();
+
+      assertEquals(0, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"2028"}), "No -d means no prefetch");
+      assertEquals(currentYear, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d"}));
+      assertEquals(currentYear, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "6"}));
+      assertEquals(2028, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-n", "4", "-d", "2028"}));
+      assertEquals(2030, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"--display-holidays", "12", "2030"}));
+      assertEquals(2020, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "2020-2040"}));
+      assertEquals(currentYear, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "--format", "html", "3"}), "The format is not a year");
+      assertEquals(currentYear, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "--format", "text"}));
+      assertEquals(2027, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"--format", "svg", "-d", "2027"}));
+
+      // Command lines that don't draw a calendar never prefetch
+      assertEquals(0, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "-c"}), "Prefetch would race clearing the cache");
+      assertEquals(0, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "-h"}));
+      assertEquals(0, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "--daemon"}));
+      assertEquals(0, CommandLineArgs.queryHolidayPrefetchYear(new String[]{"-d", "--export-ics", "out.ics", "2028"}));
+   }
+
+   /**
+    * testParseColumns: Without a terminal the width comes from $COLUMNS, falling back to 80
+    */
+   @Test
+   void testParseColumns() {
+      assertEquals(132, CommandLineArgs.parseColumns("132"));
+      assertEquals(100, CommandLineArgs.parseColumns(" 100 "));
+      assertEquals(80, CommandLineArgs.parseColumns(null));
+      assertEquals(80, CommandLineArgs.parseColumns("wide"));
+   }
+
    /**
     * testFlagParsing: Ensures that standard boolean flags are parsed correctly
     * by the JCommander annotations.
@@ -0,0 +1,113 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FlightRecordingTest: Validates that the cal events are written to the recording with their fields filled in
+ */
+class FlightRecordingTest {
+   private Path originalCacheFile;
+   private Path tempDir;
+
+   @BeforeEach
+   void setUp() throws Exception {
+      originalCacheFile = HolidayCache.queryCacheFile();
+      tempDir = Files.createTempDirectory("cal-jfr-test");
+      HolidayCache.setCacheFile(tempDir.resolve("holidays.dat"));
+   }
+
+   @AfterEach
+   void tearDown() throws Exception {
+      FlightRecording.stop();
+      HolidayCache.setCacheFile(originalCacheFile);
+      try (var files = Files.list(tempDir)) {
+         for (Path file : files.toList()) Files.delete(file);
+      }
+      Files.delete(tempDir);
+   }
+
+   @Test
+   void testQueryRequestedFile() {
+      assertEquals("run.jfr", FlightRecording.queryRequestedFile(new String[]{"-z", "--jfr", "run.jfr", "2026"}));
+      assertNull(FlightRecording.queryRequestedFile(new String[]{"-z", "2026"}));
+      assertNull(FlightRecording.queryRequestedFile(new String[]{"--jfr"}));
+   }
+
+   /**
+    * A cache miss, a cache hit, and the month and row renders must all be in the recording
+    */
+   @Test
+   void testEventsAreRecorded() throws Exception {
+      Path jfrFile = tempDir.resolve("test.jfr");
+      FlightRecording.start(jfrFile.toString());
+
+      TreeMap<String, String> holidays = new TreeMap<>();
+      holidays.put("2026-07-04", "Independence Day");
+      assertNull(HolidayCache.getEntry("US", 2026));
+      HolidayCache.put("US", 2026, holidays);
+      assertNotNull(HolidayCache.getEntry("US", 2026));
+
+      MonthGrid grid = new MonthGrid(2026, 3, LocalDate.of(2026, 3, 17), HolidayIndex.of(holidays));
+      CalendarView.renderRow(new PlainRenderer(), List.of(grid, new MonthGrid(2026, 4, null, null)), new StringBuilder());
+
+      FlightRecording.stop();
+      assertTrue(Files.size(jfrFile) > 0, "The recording was not written");
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(jfrFile).stream().sorted(Comparator.comparing(RecordedEvent::getStartTime)).toList();
+
+      List<RecordedEvent> lookups = events.stream().filter(e -> e.getEventType().getName().equals("org.fross.cal.HolidayLookup")).toList();
+      assertEquals(2, lookups.size());
+      assertEquals("US", lookups.get(0).getString("country"));
+      assertEquals(2026, lookups.get(0).getInt("year"));
+      assertFalse(lookups.get(0).getBoolean("hit"));
+      assertTrue(lookups.get(1).getBoolean("hit"));
+
+      List<RecordedEvent> renders = events.stream().filter(e -> e.getEventType().getName().equals("org.fross.cal.MonthRender")).toList();
+      assertEquals(2, renders.size());
+      assertEquals(3, renders.get(0).getInt("month"));
+      assertTrue(renders.get(0).getBoolean("holidays"));
+      assertFalse(renders.get(1).getBoolean("holidays"));
+
+      List<RecordedEvent> rows = events.stream().filter(e -> e.getEventType().getName().equals("org.fross.cal.RowRender")).toList();
+      assertEquals(1, rows.size());
+      assertEquals("PlainRenderer", rows.get(0).getString("renderer"));
+      assertEquals(2, rows.get(0).getInt("months"));
+   }
+
+}
@@ -0,0 +1,63 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.jline.utils.AttributedString;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FrameTest verifies that a frame holds its output until it's flushed and then writes it in one piece.
+ */
+class FrameTest {
+
+   @Test
+   void testFrameBuffersUntilFlush() throws Exception {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      Terminal terminal = new DumbTerminal(System.in, out);
+      Output.setTerminal(terminal);
+
+      Frame frame = new Frame(terminal);
+      frame.println("Line 1");
+      frame.println(new AttributedString("Line 2"));
+      frame.print("Line 3");
+
+      // Nothing should reach the terminal before the flush
+      assertEquals(0, out.size(), "Frame wrote to the terminal before flush()");
+
+      frame.flush();
+      String output = out.toString();
+      String nl = System.lineSeparator();
+
+      assertTrue(output.contains("Line 1" + nl + "Line 2" + nl + "Line 3"), "Frame output is out of order: " + output);
+      assertEquals(0, frame.length(), "Frame should be empty after a flush");
+   }
+}
@@ -0,0 +1,97 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HolidayCacheTest: Validates the binary holiday cache file using a temporary file so the real cache
+ * on the computer is never touched.
+ */
+class HolidayCacheTest {
+   private Path originalCacheFile;
+   private Path testCacheFile;
+
+   @BeforeEach
+   void setUp() throws Exception {
+      originalCacheFile = HolidayCache.queryCacheFile();
+      testCacheFile = Files.createTempDirectory("cal-test").resolve("holidays.dat");
+      HolidayCache.setCacheFile(testCacheFile);
+   }
+
+   @AfterEach
+   void tearDown() throws Exception {
+      Files.deleteIfExists(testCacheFile);
+      Files.deleteIfExists(testCacheFile.resolveSibling("holidays.dat.lock"));
+      Files.deleteIfExists(testCacheFile.getParent());
+      HolidayCache.setCacheFile(originalCacheFile);
+   }
+
+   /**
+    * Years that have been stored must come back exactly as they went in, and years that have not
+    * been stored must be reported as a cache miss.
+    */
+   @Test
+   void testCacheRoundTrip() {
+      TreeMap<String, String> us = new TreeMap<>();
+      us.put("2025-01-01", "New Year's Day");
+      us.put("2025-07-04", "Independence Day");
+
+      TreeMap<String, String> de = new TreeMap<>();
+      de.put("2025-10-03", "Tag der Deutschen Einheit");
+      de.put("2025-12-26", "Zweiter Weihnachtstag");
+
+      assertNull(HolidayCache.get("US", 2025), "An empty cache should miss");
+
+      HolidayCache.put("US", 2025, us);
+      HolidayCache.put("DE", 2025, de);
+
+      assertEquals(us, HolidayCache.get("US", 2025));
+      assertEquals(de, HolidayCache.get("DE", 2025), "Non-ASCII holiday names must survive the cache");
+      assertNull(HolidayCache.get("US", 2026), "A year that wasn't stored should miss");
+   }
+
+   /**
+    * Clearing the cache removes the file.
+    */
+   @Test
+   void testCacheClear() throws Exception {
+      TreeMap<String, String> ca = new TreeMap<>();
+      ca.put("2024-07-01", "Canada Day");
+      HolidayCache.put("CA", 2024, ca);
+      assertTrue(Files.exists(testCacheFile));
+
+      HolidayCache.clear();
+      assertFalse(Files.exists(testCacheFile));
+      assertNull(HolidayCache.get("CA", 2024));
+   }
+}
@@ -0,0 +1,79 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HolidayIndexTest verifies that the epoch day index answers the same questions as the holiday map.
+ */
+class HolidayIndexTest {
+
+   @Test
+   void testIndexMatchesMap() {
+      TreeMap<String, String> holidays = new TreeMap<>();
+      holidays.put("2025-01-01", "New Year's Day");
+      holidays.put("2025-07-04", "Independence Day");
+      holidays.put("2025-12-25", "Christmas Day");
+      holidays.put("not-a-date", "Ignored");
+
+      HolidayIndex index = HolidayIndex.of(holidays);
+      assertEquals(3, index.size());
+
+      // Every day of the year should agree with the map
+      for (LocalDate d = LocalDate.of(2024, 12, 1); d.isBefore(LocalDate.of(2026, 2, 1)); d = d.plusDays(1)) {
+         String name = holidays.get(d.toString());
+         assertEquals(name != null, index.isHoliday(d.toEpochDay()), "isHoliday mismatch on " + d);
+         assertEquals(name, index.nameOf(d.toEpochDay()), "nameOf mismatch on " + d);
+      }
+   }
+
+   @Test
+   void testUnsortedAndEmptyMaps() {
+      HashMap<String, String> unsorted = new HashMap<>();
+      unsorted.put("2025-11-27", "Thanksgiving Day");
+      unsorted.put("2025-01-20", "Martin Luther King, Jr. Day");
+      unsorted.put("2025-05-26", "Memorial Day");
+
+      HolidayIndex index = HolidayIndex.of(unsorted);
+      assertTrue(index.isHoliday(LocalDate.of(2025, 1, 20).toEpochDay()));
+      assertEquals("Memorial Day", index.nameOf(LocalDate.of(2025, 5, 26).toEpochDay()));
+      assertEquals("Thanksgiving Day", index.nameOf(LocalDate.of(2025, 11, 27).toEpochDay()));
+
+      assertSame(HolidayIndex.EMPTY, HolidayIndex.of(null));
+      assertSame(HolidayIndex.EMPTY, HolidayIndex.of(new TreeMap<>()));
+      assertFalse(HolidayIndex.EMPTY.isHoliday(LocalDate.of(2025, 1, 1).toEpochDay()));
+      assertNull(HolidayIndex.EMPTY.nameOf(0));
+   }
+}
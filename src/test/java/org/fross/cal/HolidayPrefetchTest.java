@@ -0,0 +1,130 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * HolidayPrefetchTest: Runs the bulk prefetch against a local server that answers in the nager.at
+ * format, using a temporary cache file so the real cache is never touched.
+ */
+class HolidayPrefetchTest {
+   private HttpServer server;
+   private final AtomicInteger requests = new AtomicInteger();
+   private String originalAPI;
+   private Path originalCacheFile;
+   private Path testCacheFile;
+
+   @BeforeEach
+   void setUp() throws IOException {
+      // Serves /api/v3/publicholidays/{year}/{country}. Country "XX" doesn't exist
+      server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+      server.createContext("/api/v3/publicholidays/", exchange -> {
+         requests.incrementAndGet();
+         String[] parts = exchange.getRequestURI().getPath().split("/");
+         String year = parts[4];
+         String country = parts[5];
+
+         if (country.equals("XX")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+         }
+
+         byte[] body = ("[{\"date\":\"" + year + "-01-01\",\"localName\":\"New Year's Day\",\"name\":\"New Year's Day\",\"countryCode\":\"" + country
+               + "\",\"fixed\":true,\"global\":true,\"counties\":null,\"launchYear\":null,\"types\":[\"Public\"]},"
+               + "{\"date\":\"" + year + "-03-17\",\"localName\":\"Regional Day\",\"name\":\"Regional Day\",\"countryCode\":\"" + country
+               + "\",\"fixed\":true,\"global\":false,\"counties\":[\"" + country + "-01\"],\"launchYear\":null,\"types\":[\"Public\"]}]")
+               .getBytes(StandardCharsets.UTF_8);
+
+         exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+         exchange.sendResponseHeaders(200, body.length);
+         try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+         }
+      });
+      server.start();
+
+      originalAPI = Holidays.holidayAPI;
+      Holidays.holidayAPI = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v3/publicholidays/";
+
+      originalCacheFile = HolidayCache.queryCacheFile();
+      testCacheFile = Files.createTempDirectory("cal-test").resolve("holidays.dat");
+      HolidayCache.setCacheFile(testCacheFile);
+   }
+
+   @AfterEach
+   void tearDown() throws IOException {
+      server.stop(0);
+      Holidays.holidayAPI = originalAPI;
+      Files.deleteIfExists(testCacheFile);
+      Files.deleteIfExists(testCacheFile.resolveSibling("holidays.dat.lock"));
+      Files.deleteIfExists(testCacheFile.getParent());
+      HolidayCache.setCacheFile(originalCacheFile);
+   }
+
+   /**
+    * The first run downloads everything, the second run finds it all in the cache
+    */
+   @Test
+   void testPrefetchFillsCache() {
+      HolidayPrefetch.Summary first = HolidayPrefetch.run(2020, 2024, List.of("US", "CA", "GB"), 3);
+      assertEquals(15, first.downloaded);
+      assertEquals(0, first.cached);
+      assertEquals(0, first.failed);
+      assertEquals(15, requests.get());
+
+      // Only global holidays are kept
+      assertEquals(1, HolidayCache.get("CA", 2022).size());
+
+      HolidayPrefetch.Summary second = HolidayPrefetch.run(2020, 2024, List.of("US", "CA", "GB"), 3);
+      assertEquals(0, second.downloaded);
+      assertEquals(15, second.cached);
+      assertEquals(15, requests.get(), "Cached years should not be downloaded again");
+   }
+
+   /**
+    * A country the server doesn't know is reported as a failure without stopping the rest
+    */
+   @Test
+   void testPrefetchReportsFailures() {
+      HolidayPrefetch.Summary summary = HolidayPrefetch.run(2025, 2025, List.of("US", "XX"), 2);
+      assertEquals(1, summary.downloaded);
+      assertEquals(1, summary.failed);
+   }
+}
@@ -0,0 +1,128 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HolidayRulesTest verifies the built-in holiday rules against known holiday lists
+ */
+class HolidayRulesTest {
+
+   /**
+    * Easter Sunday for a spread of years, including the earliest and latest possible dates
+    */
+   @Test
+   void testEasterSunday() {
+      assertEquals(LocalDate.of(1818, 3, 22), HolidayRules.easterSunday(1818));
+      assertEquals(LocalDate.of(1943, 4, 25), HolidayRules.easterSunday(1943));
+      assertEquals(LocalDate.of(2000, 4, 23), HolidayRules.easterSunday(2000));
+      assertEquals(LocalDate.of(2019, 4, 21), HolidayRules.easterSunday(2019));
+      assertEquals(LocalDate.of(2024, 3, 31), HolidayRules.easterSunday(2024));
+      assertEquals(LocalDate.of(2025, 4, 20), HolidayRules.easterSunday(2025));
+      assertEquals(LocalDate.of(2026, 4, 5), HolidayRules.easterSunday(2026));
+      assertEquals(LocalDate.of(2038, 4, 25), HolidayRules.easterSunday(2038));
+   }
+
+   /**
+    * The US rules should match the global holidays returned by nager.at for 2025
+    */
+   @Test
+   void testUnitedStates2025() {
+      TreeMap<String, String> expected = new TreeMap<>();
+      expected.put("2025-01-01", "New Year's Day");
+      expected.put("2025-01-20", "Martin Luther King, Jr. Day");
+      expected.put("2025-02-17", "Washington's Birthday");
+      expected.put("2025-05-26", "Memorial Day");
+      expected.put("2025-06-19", "Juneteenth National Independence Day");
+      expected.put("2025-07-04", "Independence Day");
+      expected.put("2025-09-01", "Labor Day");
+      expected.put("2025-11-11", "Veterans Day");
+      expected.put("2025-11-27", "Thanksgiving Day");
+      expected.put("2025-12-25", "Christmas Day");
+
+      assertEquals(expected, HolidayRules.generate("US", 2025));
+   }
+
+   /**
+    * Weekend holidays move to the weekday they're observed on
+    */
+   @Test
+   void testObservedDays() {
+      // US: Saturday moves to Friday and Sunday moves to Monday
+      TreeMap<String, String> us2026 = HolidayRules.generate("US", 2026);
+      assertEquals("Independence Day", us2026.get("2026-07-03"));
+      TreeMap<String, String> us2023 = HolidayRules.generate("US", 2023);
+      assertEquals("New Year's Day", us2023.get("2023-01-02"));
+
+      // US: Juneteenth didn't exist before 2021
+      assertFalse(HolidayRules.generate("US", 2020).containsValue("Juneteenth National Independence Day"));
+
+      // GB: Christmas on Saturday and Boxing Day on Sunday become Monday and Tuesday
+      TreeMap<String, String> gb2021 = HolidayRules.generate("GB", 2021);
+      assertEquals("Christmas Day", gb2021.get("2021-12-27"));
+      assertEquals("Boxing Day", gb2021.get("2021-12-28"));
+
+      // GB: Christmas on Sunday moves past Boxing Day which is already on the Monday
+      TreeMap<String, String> gb2022 = HolidayRules.generate("GB", 2022);
+      assertEquals("Boxing Day", gb2022.get("2022-12-26"));
+      assertEquals("Christmas Day", gb2022.get("2022-12-27"));
+   }
+
+   /**
+    * Easter based and weekday rules for Germany and Canada
+    */
+   @Test
+   void testGermanyAndCanada() {
+      TreeMap<String, String> de2025 = HolidayRules.generate("DE", 2025);
+      assertEquals(9, de2025.size());
+      assertEquals("Karfreitag", de2025.get("2025-04-18"));
+      assertEquals("Ostermontag", de2025.get("2025-04-21"));
+      assertEquals("Christi Himmelfahrt", de2025.get("2025-05-29"));
+      assertEquals("Pfingstmontag", de2025.get("2025-06-09"));
+
+      TreeMap<String, String> ca2024 = HolidayRules.generate("CA", 2024);
+      assertEquals(8, ca2024.size());
+      assertEquals("Victoria Day", ca2024.get("2024-05-20"));
+      assertEquals("Thanksgiving", ca2024.get("2024-10-14"));
+   }
+
+   /**
+    * Countries without rules return null
+    */
+   @Test
+   void testUnsupportedCountry() {
+      assertTrue(HolidayRules.isSupported("us"));
+      assertFalse(HolidayRules.isSupported("XX"));
+      assertNull(HolidayRules.generate("XX", 2025));
+   }
+}
@@ -67,7 +67,7 @@ class HolidaysTest {
          assertEquals(11, holidayListUS.size(), "US 2023 should have exactly 11 standard holidays");
 
          // 6. Formatting Check: Ensure the first key follows the yyyy-MM-dd format
-         // This is critical for MonthBlock to match dates for highlighting
+         // This is critical for MonthGrid to match dates for highlighting
          String firstKey = holidayListUS.firstKey();
          assertTrue(firstKey.matches("\\d{4}-\\d{2}-\\d{2}"),
                "Holiday keys must be yyyy-MM-dd. Found: " + firstKey);
@@ -125,4 +125,28 @@ class HolidaysTest {
 
       assertEquals(8, holidayListCA.size(), "Canada 2024 should have 8 global holidays.");
    }
+
+   /**
+    * Test the streaming decode of a nager.at payload.
+    * Only global holidays are kept and unknown or nested fields are skipped.
+    */
+   @Test
+   void parseHolidaysTest() {
+      String payload = "["
+            + "{\"date\":\"2025-01-01\",\"localName\":\"New Year's Day\",\"name\":\"New Year's Day\",\"countryCode\":\"US\","
+            + "\"fixed\":false,\"global\":true,\"counties\":null,\"launchYear\":null,\"types\":[\"Public\"]},"
+            + "{\"date\":\"2025-02-17\",\"localName\":\"Presidents Day\",\"global\":false,"
+            + "\"counties\":[\"US-AL\",\"US-AK\"],\"types\":[\"Public\"]},"
+            + "{\"types\":[\"Public\",\"Bank\"],\"extra\":{\"nested\":[1,2,{\"a\":null}]},\"global\":true,"
+            + "\"localName\":\"Christmas Day\",\"date\":\"2025-12-25\"}"
+            + "]";
+
+      TreeMap<String, String> parsed = Holidays.parseHolidays(payload);
+
+      assertEquals(2, parsed.size());
+      assertEquals("New Year's Day", parsed.get("2025-01-01"));
+      assertEquals("Christmas Day", parsed.get("2025-12-25"));
+      assertNull(parsed.get("2025-02-17"));
+      assertTrue(Holidays.parseHolidays("[]").isEmpty());
+   }
 }
\ No newline at end of file
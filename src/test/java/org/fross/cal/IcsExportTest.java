@@ -0,0 +1,145 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IcsExportTest: Exports the built-in holidays and checks every holiday is written once with a UID that
+ * doesn't change between exports
+ */
+class IcsExportTest {
+
+   @TempDir
+   Path tempDir;
+
+   @BeforeEach
+   void setUp() {
+      Holidays.setUseBuiltInRules(true);
+   }
+
+   @AfterEach
+   void tearDown() {
+      Holidays.setUseBuiltInRules(false);
+   }
+
+   private static List<String> queryUIDs(Path file) throws Exception {
+      return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+            .filter(line -> line.startsWith("UID:"))
+            .toList();
+   }
+
+   @Test
+   void testExportIsComplete() throws Exception {
+      Path file = tempDir.resolve("holidays.ics");
+      IcsExport.Summary summary = IcsExport.export(file, 2025, 2026, List.of("US", "CA"));
+
+      int expected = 0;
+      for (String country : List.of("US", "CA")) {
+         for (int year = 2025; year <= 2026; year++) {
+            expected += HolidayRules.generate(country, year).size();
+         }
+      }
+
+      assertEquals(expected, summary.events);
+      assertEquals(4, summary.years);
+      assertEquals(0, summary.failed);
+
+      String calendar = Files.readString(file, StandardCharsets.UTF_8);
+      assertTrue(calendar.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+      assertTrue(calendar.endsWith("END:VCALENDAR\r\n"));
+      assertTrue(calendar.contains("SUMMARY:Independence Day (US)\r\n"), "Each holiday is marked with its country");
+      assertTrue(calendar.contains("UID:" + IcsExport.queryUID("US", "2025-07-04") + "\r\n"));
+
+      List<String> uids = queryUIDs(file);
+      assertEquals(expected, uids.size());
+      Set<String> unique = new HashSet<>(uids);
+      assertEquals(uids.size(), unique.size(), "Every holiday needs its own UID");
+   }
+
+   /**
+    * Exporting again must give the same UIDs so a re-import updates the events instead of adding copies
+    */
+   @Test
+   void testUIDsAreStable() throws Exception {
+      Path first = tempDir.resolve("first.ics");
+      Path second = tempDir.resolve("second.ics");
+      IcsExport.export(first, 2024, 2024, List.of("GB"));
+      IcsExport.export(second, 2024, 2024, List.of("GB"));
+
+      assertEquals(queryUIDs(first), queryUIDs(second));
+      assertEquals("cal-holiday-gb-20241225", IcsExport.queryUID("GB", "2024-12-25"));
+
+      // The UID can't depend on the locale. Turkish lower cases I to a dotless i
+      Locale originalLocale = Locale.getDefault();
+      try {
+         Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+         assertEquals("cal-holiday-it-20241225", IcsExport.queryUID("IT", "2024-12-25"));
+      } finally {
+         Locale.setDefault(originalLocale);
+      }
+   }
+
+   @Test
+   void testUnavailableYearsAreSkipped() throws Exception {
+      String originalAPI = Holidays.holidayAPI;
+      Path originalCacheFile = HolidayCache.queryCacheFile();
+      Holidays.setDisplayHolidays(true);
+
+      try {
+         // Nothing listens on port 1, and there are no built-in rules for FR
+         Holidays.holidayAPI = "http://127.0.0.1:1/";
+         HolidayCache.setCacheFile(tempDir.resolve("holidays.dat"));
+
+         Path file = tempDir.resolve("holidays.ics");
+         IcsExport.Summary summary = IcsExport.export(file, 2025, 2026, List.of("US", "FR"));
+
+         assertEquals(2, summary.years);
+         assertEquals(2, summary.failed);
+         assertTrue(Holidays.queryHolidaysEnabled(), "A failed year turned off the holiday display");
+         assertFalse(Files.exists(tempDir.resolve("holidays.dat")), "Nothing was downloaded, so nothing should be cached");
+
+      } finally {
+         Holidays.holidayAPI = originalAPI;
+         HolidayCache.setCacheFile(originalCacheFile);
+         Holidays.setDisplayHolidays(false);
+      }
+   }
+
+}
@@ -0,0 +1,88 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IcsWriterTest: Validates the escaping, line endings, and line folding required by RFC 5545
+ */
+class IcsWriterTest {
+
+   private static String writeEvent(String summary) throws IOException {
+      StringWriter text = new StringWriter();
+      try (IcsWriter ics = new IcsWriter(text, Instant.parse("2026-01-02T03:04:05Z"))) {
+         ics.writeAllDayEvent("uid-1", LocalDate.of(2026, 12, 31), summary, null, "Holidays");
+      }
+      return text.toString();
+   }
+
+   @Test
+   void testEventProperties() throws IOException {
+      String event = writeEvent("New Year's Eve");
+
+      assertTrue(event.startsWith("BEGIN:VEVENT\r\n"));
+      assertTrue(event.endsWith("END:VEVENT\r\n"));
+      assertTrue(event.contains("\r\nUID:uid-1\r\n"));
+      assertTrue(event.contains("\r\nDTSTAMP:20260102T030405Z\r\n"));
+      assertTrue(event.contains("\r\nDTSTART;VALUE=DATE:20261231\r\n"));
+      assertTrue(event.contains("\r\nDTEND;VALUE=DATE:20270101\r\n"), "An all day event ends the next day");
+      assertTrue(event.contains("\r\nSUMMARY:New Year's Eve\r\n"));
+      assertTrue(event.contains("\r\nCATEGORIES:Holidays\r\n"));
+      assertEquals(-1, event.replace("\r\n", "").indexOf('\n'), "Every line must end with CRLF");
+   }
+
+   @Test
+   void testTextEscaping() throws IOException {
+      String event = writeEvent("A, B; C\\D\nE");
+      assertTrue(event.contains("\r\nSUMMARY:A\\, B\\; C\\\\D\\nE\r\n"), event);
+   }
+
+   /**
+    * Long lines are folded at 75 octets, counting each character by its UTF-8 size, and unfolding them
+    * gives back the original line
+    */
+   @Test
+   void testLineFolding() throws IOException {
+      String summary = "Tag der Deutschen Einheit \u00dcn\u00efc\u00f8d\u00e9 ".repeat(3) + "\u65e5\u672c\u8a9e".repeat(20);
+      String event = writeEvent(summary);
+
+      for (String line : event.split("\r\n")) {
+         assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, "Line is too long: " + line);
+      }
+
+      String unfolded = event.replace("\r\n ", "");
+      assertTrue(unfolded.contains("\r\nSUMMARY:" + summary + "\r\n"));
+   }
+
+}
@@ -0,0 +1,173 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import org.fross.library.Output;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OutputCacheTest: Validates the rendered output cache keys, reuse, and size based eviction using a
+ * temporary directory so the real cache on the computer is never touched.
+ */
+class OutputCacheTest {
+   private Path originalDirectory;
+
+   @TempDir
+   Path tempDir;
+
+   @BeforeEach
+   void setUp() {
+      originalDirectory = OutputCache.queryCacheDirectory();
+      OutputCache.setCacheDirectory(tempDir, OutputCache.MAX_CACHE_BYTES);
+      CommandLineArgs.reset();
+      Holidays.setDisplayHolidays(false);
+      ColorSettings.setColorEnabled(true);
+   }
+
+   @AfterEach
+   void tearDown() {
+      OutputCache.setCacheDirectory(originalDirectory, OutputCache.MAX_CACHE_BYTES);
+      CommandLineArgs.reset();
+      ColorSettings.setColorEnabled(true);
+   }
+
+   /**
+    * The key must change with anything that changes the output, and only then
+    */
+   @Test
+   void testKeyChangesWithInputs() {
+      LocalDate today = LocalDate.of(2026, 10, 17);
+      String key = OutputCache.queryKey(null, today);
+
+      assertEquals(key, OutputCache.queryKey(null, today));
+      assertNotEquals(key, OutputCache.queryKey(null, today.plusDays(1)));
+
+      ColorSettings.setColorEnabled(false);
+      assertNotEquals(key, OutputCache.queryKey(null, today));
+      ColorSettings.setColorEnabled(true);
+
+      Holidays.setDisplayHolidays(true);
+      Holidays.setUseBuiltInRules(true);
+      assertNotEquals(key, OutputCache.queryKey(null, today));
+      Holidays.setDisplayHolidays(false);
+      Holidays.setUseBuiltInRules(false);
+
+      CommandLineArgs.cli.clNum = 4;
+      assertNotEquals(key, OutputCache.queryKey(null, today));
+   }
+
+   /**
+    * Caching holidays for another country or year must not change the key, but refreshing the ones
+    * being displayed must
+    */
+   @Test
+   void testKeyFollowsDisplayedHolidayEntry() throws Exception {
+      Path originalCacheFile = HolidayCache.queryCacheFile();
+      HolidayCache.setCacheFile(tempDir.resolve("holidays.dat"));
+
+      try {
+         LocalDate today = LocalDate.of(2026, 10, 17);
+         String country = Holidays.queryCountryCode();
+         int year = CommandLineArgs.queryYearToUse();
+         TreeMap<String, String> holidays = new TreeMap<>();
+         holidays.put(year + "-01-01", "New Year's Day");
+
+         Holidays.setDisplayHolidays(true);
+         HolidayCache.put(country, year, holidays);
+         String key = OutputCache.queryKey(null, today);
+
+         // Another year and another country
+         HolidayCache.put(country, year + 1, holidays);
+         HolidayCache.put(country.equals("CA") ? "GB" : "CA", year, holidays);
+         assertEquals(key, OutputCache.queryKey(null, today));
+
+         // The displayed year again, as a revalidation would store it
+         Thread.sleep(5);
+         HolidayCache.put(country, year, holidays, "\"v2\"", null);
+         assertNotEquals(key, OutputCache.queryKey(null, today));
+
+      } finally {
+         Holidays.setDisplayHolidays(false);
+         HolidayCache.setCacheFile(originalCacheFile);
+      }
+   }
+
+   /**
+    * The first display renders and stores the output. An identical display reuses it without rendering
+    */
+   @Test
+   void testSecondDisplayIsNotRendered() throws Exception {
+      AtomicInteger renders = new AtomicInteger();
+      Runnable render = () -> {
+         renders.incrementAndGet();
+         Output.print("calendar\n");
+      };
+
+      LocalDate today = LocalDate.of(2026, 10, 17);
+      OutputCache.display(null, today, render);
+      OutputCache.display(null, today, render);
+      assertEquals(1, renders.get());
+
+      Path cachedFile = tempDir.resolve(OutputCache.queryKey(null, today));
+      assertTrue(Files.readString(cachedFile).contains("calendar"));
+
+      // A new day is a new calendar
+      OutputCache.display(null, today.plusDays(1), render);
+      assertEquals(2, renders.get());
+   }
+
+   /**
+    * When the cache is over its limit the least recently used files go first
+    */
+   @Test
+   void testEvictLeastRecentlyUsed() throws Exception {
+      OutputCache.setCacheDirectory(tempDir, 250);
+
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < 3; i++) {
+         Path file = Files.write(tempDir.resolve("file" + i), new byte[100]);
+         Files.setLastModifiedTime(file, FileTime.fromMillis(now - (3 - i) * 60_000L));
+      }
+
+      // Using the oldest file makes the middle one the least recently used
+      Files.setLastModifiedTime(tempDir.resolve("file0"), FileTime.fromMillis(now));
+
+      OutputCache.evict();
+      assertTrue(Files.exists(tempDir.resolve("file0")));
+      assertFalse(Files.exists(tempDir.resolve("file1")));
+      assertTrue(Files.exists(tempDir.resolve("file2")));
+   }
+}
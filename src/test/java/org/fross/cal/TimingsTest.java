@@ -0,0 +1,93 @@
+/*--------------------------------------------------------------------------------------
+ * Cal - A command line calendar utility
+ *
+ * Copyright (c) 2018-2026 Michael Fross
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * --------------------------------------------------------------------------------------*/
+package org.fross.cal;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimingsTest: Validates that nested phases only count their own time and that the reports contain
+ * every phase
+ */
+class TimingsTest {
+
+   @AfterEach
+   void tearDown() {
+      Timings.setEnabled(false);
+   }
+
+   @Test
+   void testIsRequested() {
+      assertTrue(Timings.isRequested(new String[]{"-z", "--timings", "2025"}));
+      assertTrue(Timings.isRequested(new String[]{"--timings-json"}));
+      assertFalse(Timings.isRequested(new String[]{"-z", "2025"}));
+   }
+
+   /**
+    * The outer phase must not count the time spent in the inner phase, and repeated phases add up
+    */
+   @Test
+   void testNestedPhasesCountSelfTime() throws Exception {
+      Timings.setEnabled(true);
+
+      long outer = Timings.begin();
+      for (int i = 0; i < 2; i++) {
+         long inner = Timings.begin();
+         Thread.sleep(20);
+         Timings.end("Inner", inner);
+      }
+      Timings.end("Outer", outer);
+
+      assertTrue(Timings.queryPhaseNanos("Inner") >= 40_000_000L, "Inner phase is missing time");
+      assertTrue(Timings.queryPhaseNanos("Outer") < 20_000_000L, "Outer phase counted the inner phase");
+
+      JsonObject report = JsonParser.parseString(Timings.toJson()).getAsJsonObject();
+      JsonArray phases = report.getAsJsonArray("phases");
+      assertEquals(2, phases.size());
+      assertEquals("Inner", phases.get(0).getAsJsonObject().get("name").getAsString());
+      assertEquals(2, phases.get(0).getAsJsonObject().get("count").getAsInt());
+      assertTrue(report.get("totalMillis").getAsDouble() >= 40.0);
+
+      String table = Timings.toTable();
+      assertTrue(table.contains("Inner"));
+      assertTrue(table.contains("Outer"));
+      assertTrue(table.contains("Total"));
+   }
+
+   /**
+    * Nothing is recorded when timings are off
+    */
+   @Test
+   void testDisabledRecordsNothing() {
+      Timings.setEnabled(false);
+      long start = Timings.begin();
+      Timings.end("Render", start);
+      assertEquals(0, Timings.queryPhaseNanos("Render"));
+   }
+}
@@ -0,0 +1,181 @@
+/* ------------------------------------------------------------------------------
+ * Library Project
+ *
+ *  Library holds methods and classes frequently used by my programs.
+ *
+ *  Copyright (c) 2011-2026 Michael Fross
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ------------------------------------------------------------------------------*/
+package org.fross.library;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HttpFetchTest: Exercise the fetch layer against a local server so compression and conditional
+ * requests can be checked without going out to the internet
+ */
+public class HttpFetchTest {
+   static final String BODY = "[{\"date\":\"2025-12-25\",\"localName\":\"Noël\"}]";
+   static final String ETAG = "\"v1\"";
+   private HttpServer server;
+   private String baseURL;
+   private final CountDownLatch release = new CountDownLatch(1);
+
+   @BeforeEach
+   void startServer() throws IOException {
+      server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+
+      // Returns a gzip compressed body, or a 304 if the client already has the current ETag
+      server.createContext("/data", exchange -> {
+         if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+         }
+
+         byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+         if ("gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+               gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+         }
+
+         exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+         exchange.getResponseHeaders().add("ETag", ETAG);
+         exchange.sendResponseHeaders(200, body.length);
+         try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+         }
+      });
+
+      server.createContext("/missing", exchange -> {
+         exchange.sendResponseHeaders(404, -1);
+         exchange.close();
+      });
+
+      // A 304 that still says the body is compressed, which some servers do
+      server.createContext("/gzip304", exchange -> {
+         exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+         exchange.sendResponseHeaders(304, -1);
+         exchange.close();
+      });
+
+      // Sends the headers and part of the body, then stops until the test is over
+      server.createContext("/stall", exchange -> {
+         exchange.sendResponseHeaders(200, 100);
+         OutputStream out = exchange.getResponseBody();
+         out.write("[{\"date\":".getBytes(StandardCharsets.UTF_8));
+         out.flush();
+         try {
+            release.await(30, TimeUnit.SECONDS);
+         } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+         }
+         exchange.close();
+      });
+
+      server.setExecutor(Executors.newCachedThreadPool());
+      server.start();
+      baseURL = "http://127.0.0.1:" + server.getAddress().getPort();
+   }
+
+   @AfterEach
+   void stopServer() {
+      release.countDown();
+      server.stop(0);
+      HttpFetch.setReadTimeout(HttpFetch.READ_TIMEOUT);
+   }
+
+   /**
+    * A compressed response should be decoded back to the original UTF-8 text
+    */
+   @Test
+   void testGzipResponse() throws IOException {
+      HttpFetch.Response<String> response = HttpFetch.get(baseURL + "/data");
+
+      assertEquals(200, response.status);
+      assertEquals(BODY, response.body);
+      assertEquals(ETAG, response.eTag);
+   }
+
+   /**
+    * Sending the ETag we were given should return a 304 with no body
+    */
+   @Test
+   void testConditionalRequest() throws IOException {
+      HttpFetch.Response<String> response = HttpFetch.get(baseURL + "/data", ETAG, null);
+
+      assertTrue(response.isNotModified());
+      assertNull(response.body);
+   }
+
+   /**
+    * Anything other than a 200 should be reported as an error
+    */
+   @Test
+   void testErrorStatus() {
+      assertThrows(IOException.class, () -> HttpFetch.get(baseURL + "/missing"));
+   }
+
+   /**
+    * A 304 has no body to decompress, even when it carries a gzip Content-Encoding
+    */
+   @Test
+   void testNotModifiedWithContentEncoding() throws IOException {
+      HttpFetch.Response<String> response = HttpFetch.get(baseURL + "/gzip304", ETAG, null);
+
+      assertTrue(response.isNotModified());
+      assertNull(response.body);
+      assertEquals(ETAG, response.eTag);
+   }
+
+   /**
+    * A server that stops sending partway through the body should time out rather than block forever
+    */
+   @Test
+   void testStalledBodyTimesOut() {
+      HttpFetch.setReadTimeout(Duration.ofMillis(500));
+
+      long start = System.nanoTime();
+      assertThrows(HttpTimeoutException.class, () -> HttpFetch.get(baseURL + "/stall"));
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), "The read waited for the server");
+   }
+}
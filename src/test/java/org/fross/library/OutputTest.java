@@ -0,0 +1,73 @@
+/* ------------------------------------------------------------------------------
+ * Library Project
+ *
+ *  Library holds methods and classes frequently used by my programs.
+ *
+ *  Copyright (c) 2011-2026 Michael Fross
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ------------------------------------------------------------------------------*/
+package org.fross.library;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * OutputTest makes sure the color name table stays in step with the color constants and that color
+ * codes are stripped
+ */
+class OutputTest {
+
+   /**
+    * Every public int constant in Output should be found by name with the same value
+    */
+   @Test
+   void testColorTableMatchesConstants() throws IllegalAccessException {
+      int colorCount = 0;
+
+      for (Field field : Output.class.getFields()) {
+         int mod = field.getModifiers();
+         if (field.getType() == int.class && Modifier.isStatic(mod) && Modifier.isFinal(mod)) {
+            assertEquals(field.getInt(null), Output.queryColorValue(field.getName()), "Color table is missing or wrong for " + field.getName());
+            colorCount++;
+         }
+      }
+
+      assertEquals(40, colorCount);
+      assertEquals(-1, Output.queryColorValue("NOT_A_COLOR"));
+   }
+
+   /**
+    * Color codes are removed and plain text comes back untouched
+    */
+   @Test
+   void testStripColor() {
+      String plain = "Su Mo Tu We Th Fr Sa";
+      assertSame(plain, Output.stripColor(plain));
+      assertEquals("December 2025", Output.stripColor("\u001B[38;5;73mDecember 2025\u001B[0m"));
+      assertNull(Output.stripColor(null));
+   }
+}